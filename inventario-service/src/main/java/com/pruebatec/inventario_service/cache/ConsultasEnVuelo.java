@@ -0,0 +1,124 @@
+package com.pruebatec.inventario_service.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Agrupa las consultas concurrentes por la misma clave en una sola ejecución.
+ * El primer hilo que pide una clave ejecuta la consulta; los que llegan mientras
+ * sigue en curso esperan y reciben el mismo resultado (o la misma excepción).
+ * @param <K> Tipo de la clave
+ * @param <V> Tipo del resultado
+ */
+public class ConsultasEnVuelo<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> enVuelo = new ConcurrentHashMap<>();
+    private final LongAdder ejecutadas = new LongAdder();
+    private final LongAdder colapsadas = new LongAdder();
+
+    /**
+     * Ejecuta la consulta para la clave, o se une a la que ya está en curso
+     * @param clave Clave de la consulta
+     * @param consulta Consulta a ejecutar si no hay ninguna en curso
+     * @return Resultado de la consulta
+     */
+    public V ejecutar(K clave, Function<K, V> consulta) {
+        CompletableFuture<V> nueva = new CompletableFuture<>();
+        CompletableFuture<V> existente = enVuelo.putIfAbsent(clave, nueva);
+
+        if (existente != null) {
+            colapsadas.increment();
+            return esperar(existente);
+        }
+
+        ejecutadas.increment();
+        try {
+            V resultado = consulta.apply(clave);
+            nueva.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            nueva.completeExceptionally(e);
+            throw e;
+        } finally {
+            enVuelo.remove(clave, nueva);
+        }
+    }
+
+    /**
+     * Variante asíncrona: inicia la consulta para la clave, o se une a la que ya está en curso
+     * (sea síncrona o asíncrona), sin bloquear el hilo que llama
+     * @param clave Clave de la consulta
+     * @param consulta Consulta a iniciar si no hay ninguna en curso
+     * @return Futuro con el resultado de la consulta
+     */
+    public CompletableFuture<V> ejecutarAsync(K clave, Function<K, CompletableFuture<V>> consulta) {
+        CompletableFuture<V> nueva = new CompletableFuture<>();
+        CompletableFuture<V> existente = enVuelo.putIfAbsent(clave, nueva);
+
+        if (existente != null) {
+            colapsadas.increment();
+            // Copia para que quien la reciba no pueda completar ni cancelar la compartida
+            return existente.copy();
+        }
+
+        ejecutadas.increment();
+        CompletableFuture<V> resultado;
+        try {
+            resultado = consulta.apply(clave);
+        } catch (RuntimeException | Error e) {
+            resultado = CompletableFuture.failedFuture(e);
+        }
+
+        resultado.whenComplete((valor, error) -> {
+            enVuelo.remove(clave, nueva);
+            if (error != null) {
+                nueva.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+            } else {
+                nueva.complete(valor);
+            }
+        });
+        return nueva.copy();
+    }
+
+    /**
+     * Número de consultas ejecutadas realmente
+     */
+    public long getEjecutadas() {
+        return ejecutadas.sum();
+    }
+
+    /**
+     * Número de consultas que se unieron a otra ya en curso
+     */
+    public long getColapsadas() {
+        return colapsadas.sum();
+    }
+
+    /**
+     * Número de claves con una consulta en curso
+     */
+    public int getEnCurso() {
+        return enVuelo.size();
+    }
+
+    private V esperar(CompletableFuture<V> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            // Propagar la misma excepción que recibió el hilo que hizo la consulta
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
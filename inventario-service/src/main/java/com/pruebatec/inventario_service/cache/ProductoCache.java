@@ -0,0 +1,209 @@
+package com.pruebatec.inventario_service.cache;
+
+import com.pruebatec.inventario_service.dto.ProductoDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché local de productos consultados al servicio de productos.
+ * Está acotada por tamaño (se descarta la entrada usada hace más tiempo) y por tiempo
+ * de vida, de modo que los productos más consultados se sirven sin salir a la red.
+ */
+@Component
+public class ProductoCache implements MeterBinder {
+
+    private final boolean habilitada;
+    private final int tamanoMaximo;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+
+    private final Map<Long, Entrada> entradas;
+    // Con orden de acceso cada lectura reordena el mapa, así que todas las operaciones lo modifican
+    private final Lock lock = new ReentrantLock();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final AtomicLong generacion = new AtomicLong();
+
+    @Autowired
+    public ProductoCache(
+            @Value("${producto.cache.enabled:true}") boolean habilitada,
+            @Value("${producto.cache.max-size:1000}") int tamanoMaximo,
+            @Value("${producto.cache.ttl-ms:600000}") long ttlMs) {
+        this(habilitada, tamanoMaximo, ttlMs, System::nanoTime);
+    }
+
+    ProductoCache(boolean habilitada, int tamanoMaximo, long ttlMs, LongSupplier reloj) {
+        if (tamanoMaximo <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché debe ser mayor a cero");
+        }
+        this.habilitada = habilitada;
+        this.tamanoMaximo = tamanoMaximo;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.reloj = reloj;
+        // Orden de acceso: al superar el tamaño se descarta la entrada menos usada (LRU)
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada> eldest) {
+                if (size() > ProductoCache.this.tamanoMaximo) {
+                    desalojos.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Obtiene un producto de la caché
+     * @param id ID del producto
+     * @return El producto, o null si no está en caché o ya expiró
+     */
+    public ProductoDTO get(Long id) {
+        if (!habilitada) {
+            return null;
+        }
+
+        Entrada entrada;
+        lock.lock();
+        try {
+            entrada = entradas.get(id);
+            if (entrada != null && entrada.expiraEn() - reloj.getAsLong() <= 0) {
+                entradas.remove(id);
+                desalojos.increment();
+                entrada = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (entrada == null) {
+            fallos.increment();
+            return null;
+        }
+
+        aciertos.increment();
+        return entrada.producto();
+    }
+
+    /**
+     * Guarda un producto en la caché
+     * @param id ID del producto
+     * @param producto Información del producto
+     */
+    public void put(Long id, ProductoDTO producto) {
+        put(id, producto, generacion.get());
+    }
+
+    /**
+     * Guarda un producto en la caché solo si no hubo invalidaciones desde que se
+     * empezó a consultar, para no volver a guardar un valor que ya se sabe obsoleto
+     * @param id ID del producto
+     * @param producto Información del producto
+     * @param generacionLeida Valor de {@link #generacion()} antes de la consulta remota
+     */
+    public void put(Long id, ProductoDTO producto, long generacionLeida) {
+        if (!habilitada || producto == null) {
+            return;
+        }
+
+        Entrada entrada = new Entrada(producto, reloj.getAsLong() + ttlNanos);
+        lock.lock();
+        try {
+            if (generacion.get() == generacionLeida) {
+                entradas.put(id, entrada);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Contador que aumenta con cada invalidación
+     */
+    public long generacion() {
+        return generacion.get();
+    }
+
+    /**
+     * Elimina un producto de la caché
+     * @param id ID del producto
+     */
+    public void invalidate(Long id) {
+        lock.lock();
+        try {
+            generacion.incrementAndGet();
+            entradas.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Elimina todos los productos de la caché
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generacion.incrementAndGet();
+            entradas.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entradas.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public long getDesalojos() {
+        return desalojos.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("producto.cache.aciertos", this, ProductoCache::getAciertos)
+                .description("Consultas de productos servidas desde la caché local")
+                .register(registry);
+        FunctionCounter.builder("producto.cache.fallos", this, ProductoCache::getFallos)
+                .description("Consultas de productos que no estaban en la caché local")
+                .register(registry);
+        FunctionCounter.builder("producto.cache.desalojos", this, ProductoCache::getDesalojos)
+                .description("Entradas eliminadas por tamaño máximo o por expiración")
+                .register(registry);
+        Gauge.builder("producto.cache.tamano", this, ProductoCache::size)
+                .description("Número de productos en la caché local")
+                .register(registry);
+    }
+
+    private record Entrada(ProductoDTO producto, long expiraEn) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.pruebatec.inventario_service.cache;
+
+import com.pruebatec.inventario_service.dto.CambiosProductoDTO;
+import com.pruebatec.inventario_service.exception.CommunicationException;
+import com.pruebatec.inventario_service.service.impl.ProductoClientServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consulta periódicamente el registro de cambios del servicio de productos
+ * y elimina de la caché local exactamente los productos modificados o eliminados.
+ * Si no se puede garantizar que se recibieron todos los cambios (primer sondeo,
+ * reinicio del servicio de productos o cambios ya descartados) se vacía la caché.
+ */
+@Component
+@ConditionalOnProperty(name = "producto.cache.invalidacion.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductoCacheInvalidador {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductoCacheInvalidador.class);
+
+    private final ProductoClientServiceImpl productoClientService;
+    private final ProductoCache productoCache;
+
+    private String instancia;
+    private long ultimaVersion = -1;
+    private boolean servicioDisponible = true;
+
+    public ProductoCacheInvalidador(ProductoClientServiceImpl productoClientService, ProductoCache productoCache) {
+        this.productoClientService = productoClientService;
+        this.productoCache = productoCache;
+    }
+
+    @Scheduled(
+            initialDelayString = "${producto.cache.invalidacion.intervalo-ms:5000}",
+            fixedDelayString = "${producto.cache.invalidacion.intervalo-ms:5000}")
+    public void sondearCambios() {
+        CambiosProductoDTO cambios;
+        try {
+            cambios = productoClientService.getCambiosProductos(ultimaVersion);
+        } catch (CommunicationException e) {
+            // Sin sondeo las entradas siguen acotadas por su tiempo de vida
+            if (servicioDisponible) {
+                log.warn("No se pudieron obtener los cambios de productos: {}", e.getMessage());
+                servicioDisponible = false;
+            }
+            return;
+        }
+        servicioDisponible = true;
+
+        if (!cambios.isCompleto() || !cambios.getInstancia().equals(instancia)) {
+            log.info("No se conocen todos los cambios de productos desde la versión {}. Vaciando caché.", ultimaVersion);
+            productoCache.invalidateAll();
+        } else if (!cambios.getProductoIds().isEmpty()) {
+            log.debug("Invalidando {} productos modificados hasta la versión {}",
+                    cambios.getProductoIds().size(), cambios.getVersion());
+            cambios.getProductoIds().forEach(productoCache::invalidate);
+        }
+
+        instancia = cambios.getInstancia();
+        ultimaVersion = cambios.getVersion();
+    }
+}
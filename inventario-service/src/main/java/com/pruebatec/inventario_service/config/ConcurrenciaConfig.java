@@ -0,0 +1,44 @@
+package com.pruebatec.inventario_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.EnableRetry;
+
+@Configuration
+@EnableRetry
+public class ConcurrenciaConfig {
+
+    @Bean
+    public RetryListener inventarioConflictosListener(MeterRegistry registry) {
+        // Cuenta los intentos revertidos por conflictos de concurrencia (tasa de abortos)
+        Counter conflictos = Counter.builder("inventario.concurrencia.conflictos")
+                .description("Intentos de modificar un inventario revertidos por un conflicto de concurrencia")
+                .register(registry);
+        Counter agotados = Counter.builder("inventario.concurrencia.reintentos_agotados")
+                .description("Operaciones de inventario que fallaron tras agotar los reintentos")
+                .register(registry);
+
+        return new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                if (throwable instanceof ConcurrencyFailureException) {
+                    conflictos.increment();
+                }
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                // Si la operación termina con un conflicto es que se agotaron los reintentos
+                if (throwable instanceof ConcurrencyFailureException) {
+                    agotados.increment();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.pruebatec.inventario_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebatec.inventario_service.entity.EventoOutbox;
+import com.pruebatec.inventario_service.event.EventoInventario;
+import com.pruebatec.inventario_service.event.EventoSink;
+import com.pruebatec.inventario_service.event.PipelineEventos;
+import com.pruebatec.inventario_service.event.PoliticaContrapresion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Configuration
+public class EventosConfig {
+
+    @Value("${inventario.eventos.capacidad:8192}")
+    private int capacidad;
+
+    @Value("${inventario.eventos.tamano-lote:256}")
+    private int tamanoLote;
+
+    @Value("${inventario.eventos.contrapresion:BLOQUEAR}")
+    private PoliticaContrapresion politica;
+
+    /**
+     * Solo en modo asíncrono: los eventos se entregan al destino desde memoria en lugar
+     * de pasar por la tabla outbox, a cambio de perder los que estén en cola si el proceso cae
+     */
+    @Bean(initMethod = "iniciar", destroyMethod = "detener")
+    @ConditionalOnProperty(name = "inventario.eventos.modo", havingValue = "ASINCRONO")
+    public PipelineEventos<EventoInventario> pipelineEventosInventario(EventoSink eventoSink, ObjectMapper objectMapper) {
+        AtomicLong secuencia = new AtomicLong();
+        return new PipelineEventos<>("inventario.eventos", capacidad, politica, tamanoLote, lote -> {
+            // Formatear los eventos en el hilo consumidor, fuera de la petición
+            List<EventoOutbox> eventos = new ArrayList<>(lote.size());
+            for (EventoInventario evento : lote) {
+                eventos.add(new EventoOutbox(secuencia.incrementAndGet(), evento.tipoOperacion().name(),
+                        evento.payload(objectMapper), evento.creadoEn()));
+            }
+            eventoSink.publicar(eventos);
+        });
+    }
+}
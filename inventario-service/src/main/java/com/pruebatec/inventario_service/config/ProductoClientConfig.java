@@ -1,12 +1,28 @@
 package com.pruebatec.inventario_service.config;
 
+import com.pruebatec.inventario_service.resilience.Bulkhead;
+import com.pruebatec.inventario_service.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,16 +37,125 @@ public class ProductoClientConfig {
     
     @Value("${resttemplate.read.timeout:5000}")
     private int readTimeout;
+    
+    @Value("${producto.client.pool.max-total:100}")
+    private int maxConexiones;
+    
+    @Value("${producto.client.pool.max-per-route:50}")
+    private int maxConexionesPorRuta;
+    
+    @Value("${producto.client.pool.keep-alive-ms:30000}")
+    private long keepAliveMs;
+    
+    @Value("${producto.client.pool.idle-eviction-ms:30000}")
+    private long inactividadMaximaMs;
+    
+    @Value("${producto.client.pool.acquire-timeout-ms:2000}")
+    private long esperaConexionMs;
+    
+    @Value("${producto.client.circuit.failure-threshold:5}")
+    private int umbralFallos;
+    
+    @Value("${producto.client.circuit.open-ms:10000}")
+    private long circuitoAbiertoMs;
+    
+    @Value("${producto.client.circuit.half-open-calls:1}")
+    private int llamadasDePrueba;
+    
+    @Value("${producto.client.bulkhead.max-concurrent:20}")
+    private int maxLlamadasConcurrentes;
+    
+    @Value("${producto.client.bulkhead.max-wait-ms:0}")
+    private long esperaBulkheadMs;
+    
+    @Value("${producto.client.refresco.hilos:2}")
+    private int hilosRefresco;
+    
+    @Value("${producto.client.refresco.cola:100}")
+    private int colaRefresco;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean hilosVirtuales;
 
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager productoConnectionManager() {
+        // Pool de conexiones reutilizables hacia el servicio de productos
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConexiones)
+                .setMaxConnPerRoute(maxConexionesPorRuta)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+    
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient productoHttpClient(PoolingHttpClientConnectionManager productoConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(productoConnectionManager)
+                // Mantener las conexiones abiertas entre peticiones y cerrar las inactivas
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAliveMs))
+                .evictIdleConnections(TimeValue.ofMilliseconds(inactividadMaximaMs))
+                .evictExpiredConnections()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(esperaConexionMs))
+                        .build())
+                .build();
+    }
+    
     @Bean
-    public RestTemplate restTemplate() {
-        // Configurar factory con timeouts
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(connectTimeout);
-        factory.setReadTimeout(readTimeout);
-        
-        // Crear RestTemplate con la factory
-        RestTemplate restTemplate = new RestTemplate(factory);
+    public MeterBinder productoConnectionPoolMetrics(PoolingHttpClientConnectionManager productoConnectionManager) {
+        // Expone conexiones disponibles, ocupadas y peticiones en espera del pool
+        return new PoolingHttpClientConnectionManagerMetricsBinder(productoConnectionManager, "producto-service");
+    }
+
+    @Bean
+    public CircuitBreaker productoCircuitBreaker() {
+        // Tras varios fallos seguidos se deja de llamar al servicio de productos durante un tiempo
+        return new CircuitBreaker("producto-service", umbralFallos, circuitoAbiertoMs, llamadasDePrueba);
+    }
+    
+    @Bean
+    public Bulkhead productoBulkhead() {
+        // Límite de hilos que pueden estar esperando al servicio de productos a la vez
+        return new Bulkhead("producto-service", maxLlamadasConcurrentes, esperaBulkheadMs);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor productoRefrescoExecutor() {
+        // Hilos para refrescar la caché de productos sin bloquear las lecturas de inventario
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilosRefresco);
+        executor.setMaxPoolSize(hilosRefresco);
+        executor.setQueueCapacity(colaRefresco);
+        executor.setThreadNamePrefix("producto-refresco-");
+        if (hilosVirtuales) {
+            // Se mantienen el límite de hilos y la cola (protegen al servicio de productos),
+            // pero cada refresco bloqueado en la llamada HTTP ya no ocupa un hilo de plataforma
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("producto-refresco-").getVirtualThreadFactory());
+        }
+        return executor;
+    }
+
+    @Bean
+    public HttpClient productoHttpClientAsync() {
+        // Cliente no bloqueante (JDK) para las consultas asíncronas de productos; la API key
+        // y el tiempo máximo de respuesta se añaden en cada petición
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeout));
+        if (hilosVirtuales) {
+            builder.executor(new VirtualThreadTaskExecutor("producto-async-"));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient productoHttpClient) {
+        // Crear RestTemplate sobre el cliente HTTP con pool de conexiones
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(productoHttpClient));
         
         // Configurar interceptor para añadir la API key
         List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
@@ -43,4 +168,4 @@ public class ProductoClientConfig {
         
         return restTemplate;
     }
-}
\ No newline at end of file
+}
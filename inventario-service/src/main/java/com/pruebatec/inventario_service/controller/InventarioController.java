@@ -2,28 +2,35 @@ package com.pruebatec.inventario_service.controller;
 
 
 import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.LineaCompraDTO;
+import com.pruebatec.inventario_service.idempotencia.AlmacenIdempotencia;
+import com.pruebatec.inventario_service.json.JsonApiDocumento;
+import com.pruebatec.inventario_service.json.SolicitudJsonApi;
 import com.pruebatec.inventario_service.service.InventarioService;
 import io.swagger.v3.oas.annotations.Operation;
-import io.swagger.v3.oas.annotations.media.Content;
-import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/inventarios")
 @Tag(name = "Inventario", description = "API para gestionar inventarios de productos")
 public class InventarioController {
 
+    private static final String CABECERA_IDEMPOTENCIA = "Idempotency-Key";
+    
     private final InventarioService inventarioService;
+    private final AlmacenIdempotencia almacenIdempotencia;
     
-    public InventarioController(InventarioService inventarioService) {
+    // Los cuerpos JSON:API se leen y escriben con JsonApiHttpMessageConverter
+    public InventarioController(InventarioService inventarioService, AlmacenIdempotencia almacenIdempotencia) {
         this.inventarioService = inventarioService;
+        this.almacenIdempotencia = almacenIdempotencia;
     }
     
     @GetMapping("/{productoId}")
@@ -38,7 +45,23 @@ public class InventarioController {
     )
     public ResponseEntity<?> getInventario(@PathVariable Long productoId) {
         InventarioDTO inventario = inventarioService.getInventarioByProductoId(productoId);
-        return ResponseEntity.ok(formatJsonApiResponse(inventario));
+        return responder(JsonApiDocumento.desdeInventario(inventario));
+    }
+    
+    @GetMapping(params = "filter[productoId]")
+    @Operation(
+        summary = "Obtener inventario de varios productos",
+        description = "Obtiene en una sola solicitud el inventario de los productos cuyos IDs se indican separados por comas, " +
+                "con los productos incluidos una sola vez en 'included'. Los productos inexistentes se omiten",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Inventarios obtenidos correctamente"),
+            @ApiResponse(responseCode = "400", description = "IDs inválidos o demasiados IDs en la solicitud"),
+            @ApiResponse(responseCode = "503", description = "Error de comunicación con el servicio de productos")
+        }
+    )
+    public ResponseEntity<?> getInventarios(@RequestParam("filter[productoId]") String productoIds) {
+        List<InventarioDTO> inventarios = inventarioService.getInventariosByProductoIds(parsearIds(productoIds));
+        return responder(JsonApiDocumento.desdeInventariosConProductos(inventarios));
     }
     
     @PatchMapping("/{productoId}")
@@ -53,107 +76,151 @@ public class InventarioController {
     )
     public ResponseEntity<?> actualizarInventario(
             @PathVariable Long productoId, 
-            @RequestBody Map<String, Object> requestBody) {
+            @RequestBody SolicitudJsonApi<SolicitudJsonApi.Recurso<SolicitudJsonApi.Cantidad>> solicitud) {
         
         // Extraer la cantidad del cuerpo de la solicitud siguiendo el formato JSON:API
-        Map<String, Object> data = (Map<String, Object>) requestBody.get("data");
-        Map<String, Object> attributes = (Map<String, Object>) data.get("attributes");
-        Integer cantidad = (Integer) attributes.get("cantidad");
+        SolicitudJsonApi.Cantidad attributes = atributos(solicitud);
         
-        InventarioDTO inventarioActualizado = inventarioService.actualizarCantidad(productoId, cantidad);
-        return ResponseEntity.ok(formatJsonApiResponse(inventarioActualizado));
+        InventarioDTO inventarioActualizado = inventarioService.actualizarCantidad(productoId, attributes.cantidad());
+        return responder(JsonApiDocumento.desdeInventario(inventarioActualizado));
     }
     
     @PostMapping("/{productoId}/compras")
     @Operation(
         summary = "Registrar compra de producto",
-        description = "Registra una compra disminuyendo la cantidad disponible en inventario",
+        description = "Registra una compra disminuyendo la cantidad disponible en inventario. " +
+                "Con la cabecera Idempotency-Key los reintentos reciben la respuesta original sin descontar de nuevo",
         responses = {
             @ApiResponse(responseCode = "200", description = "Compra registrada correctamente"),
             @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
-            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos o stock insuficiente")
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos o stock insuficiente"),
+            @ApiResponse(responseCode = "409", description = "Hay una solicitud en curso con la misma clave de idempotencia"),
+            @ApiResponse(responseCode = "422", description = "La clave de idempotencia ya se usó con otra solicitud")
         }
     )
     public ResponseEntity<?> registrarCompra(
             @PathVariable Long productoId,
-            @RequestBody Map<String, Object> requestBody) {
+            @RequestHeader(value = CABECERA_IDEMPOTENCIA, required = false) String claveIdempotencia,
+            @RequestBody SolicitudJsonApi<SolicitudJsonApi.Recurso<SolicitudJsonApi.Compra>> solicitud) {
         
-        // Extraer la cantidad comprada del cuerpo de la solicitud siguiendo el formato JSON:API
-        Map<String, Object> data = (Map<String, Object>) requestBody.get("data");
-        Map<String, Object> attributes = (Map<String, Object>) data.get("attributes");
-        Integer cantidadComprada = (Integer) attributes.get("cantidadComprada");
+        return conIdempotencia(claveIdempotencia, "POST /api/inventarios/" + productoId + "/compras", solicitud, () -> {
+            // Extraer la cantidad comprada del cuerpo de la solicitud siguiendo el formato JSON:API
+            SolicitudJsonApi.Compra attributes = atributos(solicitud);
+            
+            InventarioDTO inventarioActualizado = inventarioService.registrarCompra(productoId, attributes.cantidadComprada());
+            return responder(JsonApiDocumento.desdeInventario(inventarioActualizado));
+        });
+    }
+    
+    @PostMapping("/compras")
+    @Operation(
+        summary = "Registrar compra de varios productos",
+        description = "Registra todas las líneas de un carrito en una sola transacción. Si alguna línea no tiene stock suficiente no se aplica ninguna. " +
+                "Con la cabecera Idempotency-Key los reintentos reciben la respuesta original sin descontar de nuevo",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Compra registrada correctamente"),
+            @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos o stock insuficiente"),
+            @ApiResponse(responseCode = "409", description = "Hay una solicitud en curso con la misma clave de idempotencia"),
+            @ApiResponse(responseCode = "422", description = "La clave de idempotencia ya se usó con otra solicitud")
+        }
+    )
+    public ResponseEntity<?> registrarCompras(
+            @RequestHeader(value = CABECERA_IDEMPOTENCIA, required = false) String claveIdempotencia,
+            @RequestBody SolicitudJsonApi<List<SolicitudJsonApi.Recurso<SolicitudJsonApi.Compra>>> solicitud) {
         
-        InventarioDTO inventarioActualizado = inventarioService.registrarCompra(productoId, cantidadComprada);
-        return ResponseEntity.ok(formatJsonApiResponse(inventarioActualizado));
+        return conIdempotencia(claveIdempotencia, "POST /api/inventarios/compras", solicitud, () -> {
+            // Extraer las líneas de compra del cuerpo de la solicitud siguiendo el formato JSON:API
+            List<SolicitudJsonApi.Recurso<SolicitudJsonApi.Compra>> data = solicitud.data();
+            if (data == null) {
+                throw new IllegalArgumentException("La solicitud debe contener un arreglo 'data' con las líneas de compra");
+            }
+            
+            List<LineaCompraDTO> lineas = new ArrayList<>(data.size());
+            for (SolicitudJsonApi.Recurso<SolicitudJsonApi.Compra> recurso : data) {
+                if (recurso == null || recurso.attributes() == null) {
+                    throw new IllegalArgumentException("Cada línea de compra debe contener 'attributes'");
+                }
+                lineas.add(new LineaCompraDTO(recurso.attributes().productoId(), recurso.attributes().cantidadComprada()));
+            }
+            
+            List<InventarioDTO> inventariosActualizados = inventarioService.registrarCompras(lineas);
+            return responder(JsonApiDocumento.desdeInventarios(inventariosActualizados));
+        });
     }
     
     @PostMapping("/{productoId}/reposiciones")
     @Operation(
         summary = "Registrar reposición de stock",
-        description = "Registra una reposición de stock aumentando la cantidad disponible en inventario",
+        description = "Registra una reposición de stock aumentando la cantidad disponible en inventario. " +
+                "Con la cabecera Idempotency-Key los reintentos reciben la respuesta original sin sumar de nuevo",
         responses = {
             @ApiResponse(responseCode = "200", description = "Reposición registrada correctamente"),
             @ApiResponse(responseCode = "404", description = "Producto no encontrado"),
-            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos")
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos"),
+            @ApiResponse(responseCode = "409", description = "Hay una solicitud en curso con la misma clave de idempotencia"),
+            @ApiResponse(responseCode = "422", description = "La clave de idempotencia ya se usó con otra solicitud")
         }
     )
     public ResponseEntity<?> registrarReposicion(
             @PathVariable Long productoId,
-            @RequestBody Map<String, Object> requestBody) {
-        
-        // Extraer la cantidad repuesta del cuerpo de la solicitud siguiendo el formato JSON:API
-        Map<String, Object> data = (Map<String, Object>) requestBody.get("data");
-        Map<String, Object> attributes = (Map<String, Object>) data.get("attributes");
-        Integer cantidadRepuesta = (Integer) attributes.get("cantidadRepuesta");
+            @RequestHeader(value = CABECERA_IDEMPOTENCIA, required = false) String claveIdempotencia,
+            @RequestBody SolicitudJsonApi<SolicitudJsonApi.Recurso<SolicitudJsonApi.Reposicion>> solicitud) {
         
-        InventarioDTO inventarioActualizado = inventarioService.registrarReposicion(productoId, cantidadRepuesta);
-        return ResponseEntity.ok(formatJsonApiResponse(inventarioActualizado));
+        return conIdempotencia(claveIdempotencia, "POST /api/inventarios/" + productoId + "/reposiciones", solicitud, () -> {
+            // Extraer la cantidad repuesta del cuerpo de la solicitud siguiendo el formato JSON:API
+            SolicitudJsonApi.Reposicion attributes = atributos(solicitud);
+            
+            InventarioDTO inventarioActualizado = inventarioService.registrarReposicion(productoId, attributes.cantidadRepuesta());
+            return responder(JsonApiDocumento.desdeInventario(inventarioActualizado));
+        });
     }
     
     /**
-     * Formatea la respuesta según el estándar JSON:API
+     * Ejecuta la operación directamente o, si llega una clave de idempotencia,
+     * a través del almacén que devuelve la respuesta guardada a los reintentos
      */
-    private Map<String, Object> formatJsonApiResponse(InventarioDTO inventario) {
-        Map<String, Object> response = new HashMap<>();
-        Map<String, Object> data = new HashMap<>();
-        Map<String, Object> attributes = new HashMap<>();
-        Map<String, Object> relationships = new HashMap<>();
-        
-        // Configurar atributos
-        attributes.put("cantidad_restante_Inventario", inventario.getCantidad());
-        
-        // Configurar datos principales
-        data.put("type", "inventarios");
-        data.put("id", inventario.getProductoId().toString());
-        data.put("attributes", attributes);
-        
-        // Si hay información del producto, incluirla como relación
-        if (inventario.getProducto() != null) {
-            Map<String, Object> productoRelationship = new HashMap<>();
-            Map<String, Object> productoData = new HashMap<>();
-            
-            productoData.put("type", "productos");
-            productoData.put("id", inventario.getProducto().getId().toString());
-            
-            productoRelationship.put("data", productoData);
-            relationships.put("producto", productoRelationship);
-            data.put("relationships", relationships);
-            
-            // Incluir el producto como included resource
-            Map<String, Object> included = new HashMap<>();
-            Map<String, Object> productoAttributes = new HashMap<>();
-            
-            productoAttributes.put("nombre", inventario.getProducto().getNombre());
-            productoAttributes.put("precio", inventario.getProducto().getPrecio());
-            
-            included.put("type", "productos");
-            included.put("id", inventario.getProducto().getId().toString());
-            included.put("attributes", productoAttributes);
-            
-            response.put("included", new Object[]{included});
+    private ResponseEntity<?> conIdempotencia(String claveIdempotencia, String operacion,
+                                              Object solicitud, Supplier<ResponseEntity<?>> accion) {
+        if (claveIdempotencia == null) {
+            return accion.get();
         }
-        
-        response.put("data", data);
-        return response;
+        return almacenIdempotencia.ejecutar(claveIdempotencia, operacion, solicitud, accion);
+    }
+    
+    private static ResponseEntity<JsonApiDocumento<?>> responder(JsonApiDocumento<?> documento) {
+        return ResponseEntity.ok(documento);
+    }
+    
+    /**
+     * Atributos del recurso de una solicitud con un solo recurso en "data"
+     */
+    private static <A> A atributos(SolicitudJsonApi<SolicitudJsonApi.Recurso<A>> solicitud) {
+        if (solicitud == null || solicitud.data() == null || solicitud.data().attributes() == null) {
+            throw new IllegalArgumentException("La solicitud debe contener 'data' con sus 'attributes'");
+        }
+        return solicitud.data().attributes();
+    }
+    
+    /**
+     * Convierte la lista de IDs separados por comas de filter[productoId]
+     */
+    private static List<Long> parsearIds(String ids) {
+        List<Long> resultado = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            String limpio = id.trim();
+            if (limpio.isEmpty()) {
+                continue;
+            }
+            try {
+                resultado.add(Long.parseLong(limpio));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("ID de producto inválido: " + limpio);
+            }
+        }
+        if (resultado.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un ID de producto en filter[productoId]");
+        }
+        return resultado;
     }
 }
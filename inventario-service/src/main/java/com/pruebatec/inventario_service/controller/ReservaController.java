@@ -0,0 +1,112 @@
+package com.pruebatec.inventario_service.controller;
+
+
+import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.ReservaDTO;
+import com.pruebatec.inventario_service.service.ReservaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reservas")
+@Tag(name = "Reservas", description = "API para reservar stock temporalmente durante el proceso de compra")
+public class ReservaController {
+
+    private final ReservaService reservaService;
+    
+    public ReservaController(ReservaService reservaService) {
+        this.reservaService = reservaService;
+    }
+    
+    @PostMapping
+    @Operation(
+        summary = "Reservar stock de un producto",
+        description = "Aparta una cantidad de un producto durante un tiempo limitado. Si no se confirma ni se libera antes de vencer, vuelve a estar disponible",
+        responses = {
+            @ApiResponse(responseCode = "201", description = "Reserva creada correctamente"),
+            @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos o stock insuficiente")
+        }
+    )
+    public ResponseEntity<?> reservar(@RequestBody Map<String, Object> requestBody) {
+        
+        // Extraer el producto y la cantidad del cuerpo de la solicitud siguiendo el formato JSON:API
+        Map<String, Object> data = (Map<String, Object>) requestBody.get("data");
+        Map<String, Object> attributes = (Map<String, Object>) data.get("attributes");
+        Number productoId = (Number) attributes.get("productoId");
+        Integer cantidad = (Integer) attributes.get("cantidad");
+        
+        if (productoId == null) {
+            throw new IllegalArgumentException("La reserva debe indicar productoId");
+        }
+        
+        ReservaDTO reserva = reservaService.reservar(productoId.longValue(), cantidad);
+        return ResponseEntity.status(HttpStatus.CREATED).body(formatJsonApiResponse(reserva));
+    }
+    
+    @PostMapping("/{reservaId}/confirmacion")
+    @Operation(
+        summary = "Confirmar una reserva",
+        description = "Convierte la reserva en compra descontando la cantidad reservada del inventario",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Reserva confirmada correctamente"),
+            @ApiResponse(responseCode = "404", description = "Reserva no encontrada o vencida"),
+            @ApiResponse(responseCode = "400", description = "El stock ya no cubre la cantidad reservada")
+        }
+    )
+    public ResponseEntity<?> confirmar(@PathVariable String reservaId) {
+        InventarioDTO inventario = reservaService.confirmar(reservaId);
+        
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("cantidad_restante_Inventario", inventario.getCantidad());
+        
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "inventarios");
+        data.put("id", inventario.getProductoId().toString());
+        data.put("attributes", attributes);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("data", data);
+        return ResponseEntity.ok(response);
+    }
+    
+    @DeleteMapping("/{reservaId}")
+    @Operation(
+        summary = "Liberar una reserva",
+        description = "Cancela la reserva y devuelve la cantidad reservada al stock disponible",
+        responses = {
+            @ApiResponse(responseCode = "204", description = "Reserva liberada correctamente"),
+            @ApiResponse(responseCode = "404", description = "Reserva no encontrada o vencida")
+        }
+    )
+    public ResponseEntity<?> liberar(@PathVariable String reservaId) {
+        reservaService.liberar(reservaId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * Formatea la respuesta según el estándar JSON:API
+     */
+    private Map<String, Object> formatJsonApiResponse(ReservaDTO reserva) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("productoId", reserva.getProductoId());
+        attributes.put("cantidad", reserva.getCantidad());
+        attributes.put("expiraEn", reserva.getExpiraEn().toString());
+        attributes.put("disponible", reserva.getDisponible());
+        
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "reservas");
+        data.put("id", reserva.getId());
+        data.put("attributes", attributes);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("data", data);
+        return response;
+    }
+}
@@ -0,0 +1,22 @@
+package com.pruebatec.inventario_service.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CambiosProductoDTO {
+    
+    private String instancia;
+    
+    private long version;
+    
+    private boolean completo;
+    
+    private List<Long> productoIds;
+}
@@ -17,4 +17,21 @@ public class InventarioDTO {
     private Integer cantidad;
     
     private ProductoDTO producto;
+    
+    /**
+     * Cantidad apartada por reservas activas (solo en las consultas de inventario)
+     */
+    @JsonProperty("cantidad_reservada")
+    private Integer cantidadReservada;
+    
+    /**
+     * Indica que el producto no se pudo obtener y se omitió de la respuesta
+     */
+    private boolean productoNoDisponible;
+    
+    public InventarioDTO(Long productoId, Integer cantidad, ProductoDTO producto) {
+        this.productoId = productoId;
+        this.cantidad = cantidad;
+        this.producto = producto;
+    }
 }
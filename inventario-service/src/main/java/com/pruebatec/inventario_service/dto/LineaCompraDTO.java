@@ -0,0 +1,16 @@
+package com.pruebatec.inventario_service.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LineaCompraDTO {
+    
+    private Long productoId;
+    
+    private Integer cantidadComprada;
+}
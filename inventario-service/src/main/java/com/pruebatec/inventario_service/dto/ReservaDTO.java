@@ -0,0 +1,27 @@
+package com.pruebatec.inventario_service.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaDTO {
+    
+    private String id;
+    
+    private Long productoId;
+    
+    private Integer cantidad;
+    
+    private Instant expiraEn;
+    
+    /**
+     * Cantidad del producto que queda disponible para prometer tras la reserva
+     */
+    private Integer disponible;
+}
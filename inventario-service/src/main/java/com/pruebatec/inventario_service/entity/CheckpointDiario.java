@@ -0,0 +1,27 @@
+package com.pruebatec.inventario_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Última secuencia del diario de stock aplicada en la tabla inventarios.
+ * Se actualiza en la misma transacción que los cambios, así al recuperar
+ * el diario no se aplica dos veces ningún cambio.
+ */
+@Entity
+@Table(name = "inventario_diario_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckpointDiario {
+
+    public static final Integer ID_UNICO = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "secuencia", nullable = false)
+    private Long secuencia;
+}
@@ -0,0 +1,34 @@
+package com.pruebatec.inventario_service.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Evento de inventario pendiente de publicar. Se guarda en la misma transacción
+ * que el cambio de inventario y un proceso en segundo plano lo entrega y lo borra.
+ */
+@Entity
+@Table(name = "inventario_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tipo_operacion", nullable = false, length = 30)
+    private String tipoOperacion;
+
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "creado_en", nullable = false)
+    private Instant creadoEn;
+}
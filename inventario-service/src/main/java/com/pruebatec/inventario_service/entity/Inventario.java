@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "inventarios")
@@ -18,4 +19,25 @@ public class Inventario {
     
     @Column(name = "cantidad", nullable = false)
     private Integer cantidad;
+    
+    /**
+     * Cantidad apartada por reservas activas; lo disponible para prometer es cantidad - reservado
+     */
+    @ColumnDefault("0")
+    @Column(name = "reservado", nullable = false)
+    private Integer reservado = 0;
+    
+    /**
+     * Versión para el control de concurrencia optimista. Las filas nuevas se crean con
+     * crearSiNoExiste (MERGE), nunca con save, así que empezar en 0 no las marca como existentes
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+    
+    public Inventario(Long productoId, Integer cantidad) {
+        this.productoId = productoId;
+        this.cantidad = cantidad;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.pruebatec.inventario_service.entity;
+
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Reserva de stock activa. Se guarda en la misma transacción que aparta su cantidad en
+ * inventarios.reservado; quien consigue borrar la fila (confirmación, liberación o
+ * vencimiento, en esta u otra instancia) es el único que puede mover esa cantidad.
+ */
+@Entity
+@Table(name = "inventario_reservas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservaStock {
+
+    @Id
+    @Column(name = "id", length = 36)
+    private String id;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(name = "cantidad", nullable = false)
+    private Integer cantidad;
+
+    @Column(name = "expira_en", nullable = false)
+    private Instant expiraEn;
+}
@@ -0,0 +1,51 @@
+package com.pruebatec.inventario_service.entity;
+
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Solicitud recibida con una clave de idempotencia. Mientras se procesa queda
+ * EN_CURSO; al terminar guarda la respuesta para devolverla ante los reintentos.
+ */
+@Entity
+@Table(name = "inventario_idempotencia")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SolicitudIdempotente {
+
+    public static final String EN_CURSO = "EN_CURSO";
+    public static final String COMPLETADA = "COMPLETADA";
+
+    @Id
+    @Column(name = "clave", length = 100)
+    private String clave;
+
+    /**
+     * Resumen de la operación y del cuerpo, para detectar la misma clave con otra solicitud
+     */
+    @Column(name = "huella", nullable = false, length = 64)
+    private String huella;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    private String estado;
+
+    @Column(name = "codigo")
+    private Integer codigo;
+
+    @Lob
+    @Column(name = "cuerpo")
+    private String cuerpo;
+
+    @Column(name = "creado_en", nullable = false)
+    private Instant creadoEn;
+}
@@ -0,0 +1,51 @@
+package com.pruebatec.inventario_service.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pruebatec.inventario_service.entity.EventoOutbox;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Destino que añade los eventos a un archivo, uno por línea en formato JSON
+ * (sustituye localmente a un sistema de mensajería)
+ */
+@Component
+@ConditionalOnProperty(name = "inventario.outbox.sink", havingValue = "archivo")
+public class ArchivoEventoSink implements EventoSink {
+
+    private final Path archivo;
+    private final ObjectMapper objectMapper;
+
+    public ArchivoEventoSink(
+            @Value("${inventario.outbox.archivo:eventos-inventario.ndjson}") String archivo,
+            ObjectMapper objectMapper) {
+        this.archivo = Path.of(archivo);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publicar(List<EventoOutbox> eventos) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (EventoOutbox evento : eventos) {
+                ObjectNode linea = objectMapper.createObjectNode();
+                linea.put("id", evento.getId());
+                linea.put("tipoOperacion", evento.getTipoOperacion());
+                linea.put("creadoEn", evento.getCreadoEn().toString());
+                linea.set("payload", objectMapper.readTree(evento.getPayload()));
+                writer.write(objectMapper.writeValueAsString(linea));
+                writer.newLine();
+            }
+        }
+    }
+}
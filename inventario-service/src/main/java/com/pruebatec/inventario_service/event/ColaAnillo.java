@@ -0,0 +1,100 @@
+package com.pruebatec.inventario_service.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cola circular acotada y sin bloqueos para varios productores y consumidores.
+ * Cada posición guarda un número de secuencia que indica si está libre para el
+ * productor de esa vuelta o lista para el consumidor, así que reservar una
+ * posición es un único compareAndSet y nunca se toma un lock.
+ * @param <E> Tipo de los elementos
+ */
+public class ColaAnillo<E> {
+
+    private final int capacidad;
+    private final int mascara;
+    private final AtomicLongArray secuencias;
+    private final AtomicReferenceArray<E> elementos;
+    private final AtomicLong posicionEscritura = new AtomicLong();
+    private final AtomicLong posicionLectura = new AtomicLong();
+
+    /**
+     * @param capacidadMinima Capacidad deseada; se redondea a la siguiente potencia de dos (mínimo 2)
+     */
+    public ColaAnillo(int capacidadMinima) {
+        if (capacidadMinima <= 0 || capacidadMinima > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidad de la cola inválida: " + capacidadMinima);
+        }
+        // Con una sola posición no se distingue "ocupada" de "libre en la siguiente vuelta"
+        this.capacidad = capacidadMinima <= 2 ? 2 : Integer.highestOneBit(capacidadMinima - 1) << 1;
+        this.mascara = capacidad - 1;
+        this.secuencias = new AtomicLongArray(capacidad);
+        this.elementos = new AtomicReferenceArray<>(capacidad);
+        for (int i = 0; i < capacidad; i++) {
+            secuencias.set(i, i);
+        }
+    }
+
+    /**
+     * Añade un elemento al final de la cola
+     * @return false si la cola está llena
+     */
+    public boolean offer(E elemento) {
+        long posicion = posicionEscritura.get();
+        while (true) {
+            int indice = (int) (posicion & mascara);
+            long diferencia = secuencias.get(indice) - posicion;
+
+            if (diferencia == 0) {
+                if (posicionEscritura.compareAndSet(posicion, posicion + 1)) {
+                    elementos.set(indice, elemento);
+                    // Publicar el elemento para el consumidor
+                    secuencias.set(indice, posicion + 1);
+                    return true;
+                }
+            } else if (diferencia < 0) {
+                return false;
+            }
+            posicion = posicionEscritura.get();
+        }
+    }
+
+    /**
+     * Extrae el elemento más antiguo de la cola
+     * @return El elemento, o null si la cola está vacía
+     */
+    public E poll() {
+        long posicion = posicionLectura.get();
+        while (true) {
+            int indice = (int) (posicion & mascara);
+            long diferencia = secuencias.get(indice) - (posicion + 1);
+
+            if (diferencia == 0) {
+                if (posicionLectura.compareAndSet(posicion, posicion + 1)) {
+                    E elemento = elementos.get(indice);
+                    elementos.set(indice, null);
+                    // Liberar la posición para la siguiente vuelta de los productores
+                    secuencias.set(indice, posicion + capacidad);
+                    return elemento;
+                }
+            } else if (diferencia < 0) {
+                return null;
+            }
+            posicion = posicionLectura.get();
+        }
+    }
+
+    /**
+     * Número aproximado de elementos en la cola
+     */
+    public int size() {
+        long tamano = posicionEscritura.get() - posicionLectura.get();
+        return (int) Math.max(0, Math.min(tamano, capacidad));
+    }
+
+    public int capacidad() {
+        return capacidad;
+    }
+}
@@ -0,0 +1,46 @@
+package com.pruebatec.inventario_service.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebatec.inventario_service.dto.InventarioDTO;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evento con uno o varios cambios de inventario confirmados en la misma transacción
+ * @param tipoOperacion Tipo de operación
+ * @param inventarios Inventarios modificados
+ * @param creadoEn Momento en que se generó el evento
+ */
+public record EventoInventario(
+        InventarioEventPublisher.TipoOperacion tipoOperacion,
+        List<InventarioDTO> inventarios,
+        Instant creadoEn) {
+
+    /**
+     * Serializa el evento en el formato JSON que reciben los destinos
+     */
+    public String payload(ObjectMapper objectMapper) {
+        List<Map<String, Object>> cambios = new ArrayList<>(inventarios.size());
+        for (InventarioDTO inventario : inventarios) {
+            Map<String, Object> cambio = new LinkedHashMap<>();
+            cambio.put("productoId", inventario.getProductoId());
+            cambio.put("cantidad", inventario.getCantidad());
+            cambios.add(cambio);
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("tipoOperacion", tipoOperacion.name());
+        payload.put("cambios", cambios);
+
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento de inventario", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.pruebatec.inventario_service.event;
+
+import com.pruebatec.inventario_service.entity.EventoOutbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino al que el relay del outbox entrega los eventos de inventario
+ * (sistema de mensajería, archivo, servicio HTTP, etc.)
+ */
+public interface EventoSink {
+
+    /**
+     * Entrega un lote de eventos en orden. Si lanza una excepción el lote no se
+     * borra del outbox y se vuelve a entregar en el siguiente ciclo, por lo que
+     * el destino puede recibir eventos repetidos y debe tolerarlos por su ID.
+     * @param eventos Eventos a entregar
+     */
+    void publicar(List<EventoOutbox> eventos) throws IOException;
+}
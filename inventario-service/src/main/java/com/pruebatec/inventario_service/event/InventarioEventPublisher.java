@@ -1,35 +1,115 @@
 package com.pruebatec.inventario_service.event;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.entity.EventoOutbox;
+import com.pruebatec.inventario_service.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Publicador de eventos simples para el cambio de inventario
- * En un escenario real, aquí se implementaría la integración con 
- * un sistema de mensajería como Kafka, RabbitMQ, etc.
+ * Publicador de eventos de cambio de inventario.
+ * Los eventos no se envían directamente: se guardan en la tabla outbox dentro de la
+ * transacción que modifica el inventario, así solo se publican cambios confirmados y
+ * la escritura no espera al sistema de mensajería. {@link OutboxRelay} los entrega después.
+ * En modo asíncrono ({@code inventario.eventos.modo=ASINCRONO}) los eventos se encolan en
+ * memoria al confirmar la transacción y {@link PipelineEventos} los entrega en lotes.
+ * Con la política {@link PoliticaContrapresion#FALLAR} la comprobación de espacio antes
+ * de confirmar es solo orientativa: si la cola se llena entre esa comprobación y el
+ * commit, el cambio ya está confirmado y su evento se pierde. Esas pérdidas se cuentan
+ * en {@code inventario.eventos.perdidos}; quien no pueda perder eventos debe usar el outbox.
  */
 @Component
-public class InventarioEventPublisher {
+public class InventarioEventPublisher implements MeterBinder {
 
     private static final Logger log = LoggerFactory.getLogger(InventarioEventPublisher.class);
     
+    private final EventoOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final PipelineEventos<EventoInventario> pipeline;
+    
+    private final LongAdder perdidos = new LongAdder();
+    
+    public InventarioEventPublisher(
+            EventoOutboxRepository outboxRepository,
+            ObjectMapper objectMapper,
+            ObjectProvider<PipelineEventos<EventoInventario>> pipeline) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.pipeline = pipeline.getIfAvailable();
+    }
+    
     /**
      * Publica un evento de cambio de inventario
      * @param inventario Información del inventario modificado
      * @param tipoOperacion Tipo de operación (ACTUALIZACIÓN, COMPRA, REPOSICIÓN)
      */
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publicarCambioInventario(InventarioDTO inventario, TipoOperacion tipoOperacion) {
-        log.info("EVENTO DE INVENTARIO: {} - Producto ID: {}, Nueva Cantidad: {}", 
-                tipoOperacion.name(), 
-                inventario.getProductoId(), 
-                inventario.getCantidad());
+        publicar(new EventoInventario(tipoOperacion, List.of(inventario), Instant.now()));
+    }
+    
+    /**
+     * Publica un único evento agregado con varios cambios de inventario,
+     * por ejemplo todas las líneas de un carrito confirmadas en una transacción
+     * @param inventarios Inventarios modificados
+     * @param tipoOperacion Tipo de operación (ACTUALIZACIÓN, COMPRA, REPOSICIÓN)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publicarCambiosInventario(List<InventarioDTO> inventarios, TipoOperacion tipoOperacion) {
+        publicar(new EventoInventario(tipoOperacion, List.copyOf(inventarios), Instant.now()));
+    }
+    
+    private void publicar(EventoInventario evento) {
+        if (pipeline == null) {
+            outboxRepository.save(new EventoOutbox(null, evento.tipoOperacion().name(),
+                    evento.payload(objectMapper), evento.creadoEn()));
+            log.debug("Evento de inventario {} registrado en el outbox", evento.tipoOperacion().name());
+            return;
+        }
+        
+        // Con la política FALLAR la cola llena hace fallar la operación antes de confirmarla.
+        // No reserva la posición: otros productores pueden llenar la cola antes del commit
+        if (!pipeline.hayEspacio() && pipeline.getPolitica() == PoliticaContrapresion.FALLAR) {
+            throw new IllegalStateException("La cola de eventos de inventario está llena");
+        }
         
-        // Aquí se implementaría la lógica para enviar el evento a un sistema de mensajería
-        // Por ejemplo:
-        // kafkaTemplate.send("inventario-eventos", objectMapper.writeValueAsString(inventario));
+        // Encolar solo si la transacción se confirma
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (!pipeline.publicar(evento)) {
+                    perdidos.increment();
+                    log.warn("Evento de inventario {} de una transacción confirmada descartado: cola de eventos llena",
+                            evento.tipoOperacion().name());
+                }
+            }
+        });
+    }
+    
+    public long getPerdidos() {
+        return perdidos.sum();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("inventario.eventos.perdidos", perdidos, LongAdder::sum)
+                .description("Eventos de cambios ya confirmados que no cupieron en la cola de eventos")
+                .register(registry);
     }
     
     public enum TipoOperacion {
@@ -37,4 +117,4 @@ public class InventarioEventPublisher {
         COMPRA,
         REPOSICIÓN
     }
-}
\ No newline at end of file
+}
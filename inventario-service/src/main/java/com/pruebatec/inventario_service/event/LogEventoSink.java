@@ -0,0 +1,27 @@
+package com.pruebatec.inventario_service.event;
+
+import com.pruebatec.inventario_service.entity.EventoOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Destino por defecto: escribe los eventos en el log
+ */
+@Component
+@ConditionalOnProperty(name = "inventario.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogEventoSink implements EventoSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LogEventoSink.class);
+
+    @Override
+    public void publicar(List<EventoOutbox> eventos) {
+        for (EventoOutbox evento : eventos) {
+            log.info("EVENTO DE INVENTARIO: {} - ID: {}, {}",
+                    evento.getTipoOperacion(), evento.getId(), evento.getPayload());
+        }
+    }
+}
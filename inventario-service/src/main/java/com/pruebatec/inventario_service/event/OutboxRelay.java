@@ -0,0 +1,141 @@
+package com.pruebatec.inventario_service.event;
+
+import com.pruebatec.inventario_service.entity.EventoOutbox;
+import com.pruebatec.inventario_service.repository.EventoOutboxRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Entrega periódicamente los eventos del outbox al {@link EventoSink} configurado,
+ * en lotes y en orden de escritura. Un lote solo se borra cuando el destino lo
+ * aceptó, así que la entrega es al menos una vez.
+ * Está pensado para una sola instancia del servicio; con varias, cada lote
+ * debería reservarse con SELECT ... FOR UPDATE SKIP LOCKED.
+ */
+@Component
+@ConditionalOnProperty(name = "inventario.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final EventoOutboxRepository outboxRepository;
+    private final EventoSink eventoSink;
+    private final int tamanoLote;
+    private final int maxLotesPorCiclo;
+    private final Clock reloj;
+
+    private final LongAdder publicados = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private volatile long pendientes;
+    private volatile long retrasoMs;
+    private boolean destinoDisponible = true;
+
+    @Autowired
+    public OutboxRelay(
+            EventoOutboxRepository outboxRepository,
+            EventoSink eventoSink,
+            @Value("${inventario.outbox.tamano-lote:100}") int tamanoLote,
+            @Value("${inventario.outbox.max-lotes-por-ciclo:50}") int maxLotesPorCiclo) {
+        this(outboxRepository, eventoSink, tamanoLote, maxLotesPorCiclo, Clock.systemUTC());
+    }
+
+    OutboxRelay(EventoOutboxRepository outboxRepository, EventoSink eventoSink,
+                int tamanoLote, int maxLotesPorCiclo, Clock reloj) {
+        this.outboxRepository = outboxRepository;
+        this.eventoSink = eventoSink;
+        this.tamanoLote = tamanoLote;
+        this.maxLotesPorCiclo = maxLotesPorCiclo;
+        this.reloj = reloj;
+    }
+
+    @Scheduled(
+            initialDelayString = "${inventario.outbox.intervalo-ms:1000}",
+            fixedDelayString = "${inventario.outbox.intervalo-ms:1000}")
+    public void drenar() {
+        for (int i = 0; i < maxLotesPorCiclo; i++) {
+            List<EventoOutbox> lote = outboxRepository.findByOrderByIdAsc(PageRequest.of(0, tamanoLote));
+            if (lote.isEmpty()) {
+                break;
+            }
+
+            try {
+                eventoSink.publicar(lote);
+            } catch (Exception e) {
+                // El lote queda en el outbox y se reintenta en el siguiente ciclo
+                errores.increment();
+                if (destinoDisponible) {
+                    log.warn("No se pudo entregar un lote de {} eventos del outbox: {}", lote.size(), e.getMessage());
+                    destinoDisponible = false;
+                }
+                break;
+            }
+            destinoDisponible = true;
+
+            outboxRepository.deleteAllByIdInBatch(lote.stream().map(EventoOutbox::getId).toList());
+            publicados.add(lote.size());
+
+            if (lote.size() < tamanoLote) {
+                break;
+            }
+        }
+
+        actualizarRetraso();
+    }
+
+    private void actualizarRetraso() {
+        pendientes = outboxRepository.count();
+        Instant masAntiguo = outboxRepository.findCreadoEnMasAntiguo();
+        retrasoMs = masAntiguo != null
+                ? Math.max(0, Duration.between(masAntiguo, reloj.instant()).toMillis())
+                : 0;
+    }
+
+    public long getPublicados() {
+        return publicados.sum();
+    }
+
+    public long getErrores() {
+        return errores.sum();
+    }
+
+    public long getPendientes() {
+        return pendientes;
+    }
+
+    public long getRetrasoMs() {
+        return retrasoMs;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("inventario.outbox.publicados", this, OutboxRelay::getPublicados)
+                .description("Eventos del outbox entregados al destino")
+                .register(registry);
+        FunctionCounter.builder("inventario.outbox.errores", this, OutboxRelay::getErrores)
+                .description("Lotes del outbox que el destino no aceptó")
+                .register(registry);
+        Gauge.builder("inventario.outbox.pendientes", this, OutboxRelay::getPendientes)
+                .description("Eventos pendientes en el outbox tras el último ciclo")
+                .register(registry);
+        Gauge.builder("inventario.outbox.retraso", this, OutboxRelay::getRetrasoMs)
+                .description("Antigüedad del evento pendiente más antiguo tras el último ciclo")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+}
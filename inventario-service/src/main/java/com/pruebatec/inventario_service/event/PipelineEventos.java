@@ -0,0 +1,224 @@
+package com.pruebatec.inventario_service.event;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Entrega asíncrona de eventos en lotes. Los productores solo encolan en una
+ * {@link ColaAnillo}; un único hilo consumidor agrupa los eventos en lotes
+ * y los entrega, de modo que la entrega nunca ocurre en el hilo de la petición.
+ * Los eventos en cola se pierden si el proceso termina de forma abrupta.
+ * @param <E> Tipo de los eventos
+ */
+public class PipelineEventos<E> implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelineEventos.class);
+
+    private static final long ESPERA_MINIMA_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long ESPERA_MAXIMA_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Entrega de un lote de eventos en orden
+     */
+    @FunctionalInterface
+    public interface EntregaLote<E> {
+        void entregar(List<E> lote) throws Exception;
+    }
+
+    private record Pendiente<E>(E evento, long encoladoEn) {
+    }
+
+    private final String nombre;
+    private final ColaAnillo<Pendiente<E>> cola;
+    private final PoliticaContrapresion politica;
+    private final int tamanoLote;
+    private final EntregaLote<E> entrega;
+    private final Thread consumidor;
+    private volatile boolean activo;
+
+    private final LongAdder entregados = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final LongAdder rechazados = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private volatile Timer latencia;
+
+    public PipelineEventos(String nombre, int capacidad, PoliticaContrapresion politica,
+                           int tamanoLote, EntregaLote<E> entrega) {
+        this.nombre = nombre;
+        this.cola = new ColaAnillo<>(capacidad);
+        this.politica = politica;
+        this.tamanoLote = tamanoLote;
+        this.entrega = entrega;
+        this.consumidor = new Thread(this::consumir, nombre + "-consumidor");
+        this.consumidor.setDaemon(true);
+    }
+
+    public void iniciar() {
+        activo = true;
+        consumidor.start();
+    }
+
+    /**
+     * Detiene el consumidor después de entregar los eventos que quedan en la cola
+     */
+    public void detener() {
+        activo = false;
+        LockSupport.unpark(consumidor);
+        try {
+            consumidor.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Indica si la cola tiene espacio en este momento
+     */
+    public boolean hayEspacio() {
+        return cola.size() < cola.capacidad();
+    }
+
+    /**
+     * Encola un evento aplicando la política de contrapresión si la cola está llena
+     * @return false si el evento se rechazó
+     */
+    public boolean publicar(E evento) {
+        Pendiente<E> pendiente = new Pendiente<>(evento, System.nanoTime());
+        if (cola.offer(pendiente)) {
+            return true;
+        }
+
+        if (politica == PoliticaContrapresion.DESCARTAR_ANTIGUO) {
+            while (!cola.offer(pendiente)) {
+                if (cola.poll() != null) {
+                    descartados.increment();
+                }
+            }
+            return true;
+        }
+
+        if (politica == PoliticaContrapresion.BLOQUEAR) {
+            while (activo) {
+                LockSupport.parkNanos(ESPERA_MINIMA_NANOS);
+                if (cola.offer(pendiente)) {
+                    return true;
+                }
+            }
+        }
+
+        rechazados.increment();
+        return false;
+    }
+
+    private void consumir() {
+        List<Pendiente<E>> lote = new ArrayList<>(tamanoLote);
+        long espera = ESPERA_MINIMA_NANOS;
+
+        while (activo || cola.size() > 0) {
+            Pendiente<E> pendiente = cola.poll();
+
+            if (pendiente != null) {
+                lote.add(pendiente);
+                espera = ESPERA_MINIMA_NANOS;
+                if (lote.size() >= tamanoLote) {
+                    entregar(lote);
+                }
+            } else if (!lote.isEmpty()) {
+                // No hay más eventos por ahora: entregar el lote parcial sin esperar a llenarlo
+                entregar(lote);
+            } else {
+                LockSupport.parkNanos(espera);
+                espera = Math.min(espera * 2, ESPERA_MAXIMA_NANOS);
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            entregar(lote);
+        }
+    }
+
+    private void entregar(List<Pendiente<E>> lote) {
+        List<E> eventos = new ArrayList<>(lote.size());
+        for (Pendiente<E> pendiente : lote) {
+            eventos.add(pendiente.evento());
+        }
+
+        try {
+            entrega.entregar(eventos);
+            entregados.add(eventos.size());
+
+            Timer timer = latencia;
+            if (timer != null) {
+                long ahora = System.nanoTime();
+                for (Pendiente<E> pendiente : lote) {
+                    timer.record(ahora - pendiente.encoladoEn(), TimeUnit.NANOSECONDS);
+                }
+            }
+        } catch (Exception e) {
+            errores.increment();
+            log.warn("No se pudo entregar un lote de {} eventos de {}: {}", eventos.size(), nombre, e.getMessage());
+        }
+        lote.clear();
+    }
+
+    public PoliticaContrapresion getPolitica() {
+        return politica;
+    }
+
+    public int getEnCola() {
+        return cola.size();
+    }
+
+    public long getEntregados() {
+        return entregados.sum();
+    }
+
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    public long getRechazados() {
+        return rechazados.sum();
+    }
+
+    public long getErrores() {
+        return errores.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(nombre + ".cola", this, PipelineEventos::getEnCola)
+                .description("Eventos en cola pendientes de entregar")
+                .register(registry);
+        Gauge.builder(nombre + ".cola.capacidad", cola, ColaAnillo::capacidad)
+                .description("Capacidad de la cola de eventos")
+                .register(registry);
+        FunctionCounter.builder(nombre + ".entregados", this, PipelineEventos::getEntregados)
+                .description("Eventos entregados")
+                .register(registry);
+        FunctionCounter.builder(nombre + ".descartados", this, PipelineEventos::getDescartados)
+                .description("Eventos descartados por la cola llena")
+                .register(registry);
+        FunctionCounter.builder(nombre + ".rechazados", this, PipelineEventos::getRechazados)
+                .description("Eventos rechazados por la cola llena")
+                .register(registry);
+        FunctionCounter.builder(nombre + ".errores", this, PipelineEventos::getErrores)
+                .description("Lotes de eventos que no se pudieron entregar")
+                .register(registry);
+        latencia = Timer.builder(nombre + ".latencia")
+                .description("Tiempo desde que se encola un evento hasta que se entrega")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+}
@@ -0,0 +1,24 @@
+package com.pruebatec.inventario_service.event;
+
+/**
+ * Qué hacer al publicar un evento cuando la cola de eventos está llena
+ */
+public enum PoliticaContrapresion {
+
+    /**
+     * Esperar a que el consumidor libere espacio
+     */
+    BLOQUEAR,
+
+    /**
+     * Descartar el evento más antiguo de la cola para dejar sitio al nuevo
+     */
+    DESCARTAR_ANTIGUO,
+
+    /**
+     * Rechazar el evento; el publicador hace fallar la operación que lo generó si ve la
+     * cola llena antes de confirmarla. Es un mejor esfuerzo: si la cola se llena después
+     * de esa comprobación el evento se pierde tras el commit
+     */
+    FALLAR
+}
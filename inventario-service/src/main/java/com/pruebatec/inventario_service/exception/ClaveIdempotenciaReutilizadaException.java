@@ -0,0 +1,13 @@
+package com.pruebatec.inventario_service.exception;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class ClaveIdempotenciaReutilizadaException extends RuntimeException {
+    
+    public ClaveIdempotenciaReutilizadaException(String clave) {
+        super(String.format("La clave de idempotencia '%s' ya se usó con una solicitud distinta", clave));
+    }
+}
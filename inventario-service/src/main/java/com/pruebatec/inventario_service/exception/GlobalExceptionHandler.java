@@ -1,9 +1,12 @@
 package com.pruebatec.inventario_service.exception;
 
 import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.client.RestClientException;
@@ -70,6 +73,76 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
     
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<?> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex, WebRequest request) {
+        Map<String, Object> errors = new HashMap<>();
+        Map<String, Object> error = new HashMap<>();
+        
+        error.put("status", "400");
+        error.put("title", "Cuerpo de la solicitud inválido");
+        error.put("detail", "El cuerpo de la solicitud no es un documento JSON:API válido");
+        
+        errors.put("errors", new Object[]{error});
+        
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+    
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<?> handleHttpMediaTypeNotSupportedException(HttpMediaTypeNotSupportedException ex, WebRequest request) {
+        Map<String, Object> errors = new HashMap<>();
+        Map<String, Object> error = new HashMap<>();
+        
+        error.put("status", "415");
+        error.put("title", "Tipo de contenido no soportado");
+        error.put("detail", ex.getMessage());
+        
+        errors.put("errors", new Object[]{error});
+        
+        return new ResponseEntity<>(errors, HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+    
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<?> handleConcurrencyFailureException(ConcurrencyFailureException ex, WebRequest request) {
+        Map<String, Object> errors = new HashMap<>();
+        Map<String, Object> error = new HashMap<>();
+        
+        error.put("status", "409");
+        error.put("title", "Conflicto de concurrencia");
+        error.put("detail", "El inventario fue modificado por otra operación al mismo tiempo. Intente nuevamente.");
+        
+        errors.put("errors", new Object[]{error});
+        
+        return new ResponseEntity<>(errors, HttpStatus.CONFLICT);
+    }
+    
+    @ExceptionHandler(SolicitudEnCursoException.class)
+    public ResponseEntity<?> handleSolicitudEnCursoException(SolicitudEnCursoException ex, WebRequest request) {
+        Map<String, Object> errors = new HashMap<>();
+        Map<String, Object> error = new HashMap<>();
+        
+        error.put("status", "409");
+        error.put("title", "Solicitud en curso");
+        error.put("detail", ex.getMessage());
+        
+        errors.put("errors", new Object[]{error});
+        
+        return new ResponseEntity<>(errors, HttpStatus.CONFLICT);
+    }
+    
+    @ExceptionHandler(ClaveIdempotenciaReutilizadaException.class)
+    public ResponseEntity<?> handleClaveIdempotenciaReutilizadaException(ClaveIdempotenciaReutilizadaException ex, WebRequest request) {
+        Map<String, Object> errors = new HashMap<>();
+        Map<String, Object> error = new HashMap<>();
+        
+        error.put("status", "422");
+        error.put("title", "Clave de idempotencia reutilizada");
+        error.put("detail", ex.getMessage());
+        
+        errors.put("errors", new Object[]{error});
+        
+        return new ResponseEntity<>(errors, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleGlobalException(Exception ex, WebRequest request) {
         Map<String, Object> errors = new HashMap<>();
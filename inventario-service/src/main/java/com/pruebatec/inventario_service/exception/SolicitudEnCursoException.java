@@ -0,0 +1,13 @@
+package com.pruebatec.inventario_service.exception;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SolicitudEnCursoException extends RuntimeException {
+    
+    public SolicitudEnCursoException(String clave) {
+        super(String.format("Ya hay una solicitud en curso con la clave de idempotencia '%s'. Intente nuevamente más tarde.", clave));
+    }
+}
@@ -0,0 +1,347 @@
+package com.pruebatec.inventario_service.idempotencia;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebatec.inventario_service.cache.ConsultasEnVuelo;
+import com.pruebatec.inventario_service.entity.SolicitudIdempotente;
+import com.pruebatec.inventario_service.exception.ClaveIdempotenciaReutilizadaException;
+import com.pruebatec.inventario_service.exception.SolicitudEnCursoException;
+import com.pruebatec.inventario_service.repository.SolicitudIdempotenteRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Respuestas de las solicitudes recibidas con cabecera Idempotency-Key.
+ * La primera solicitud con una clave se ejecuta y su respuesta se guarda en la tabla
+ * inventario_idempotencia y en memoria (acotada por tamaño y tiempo de vida); los
+ * reintentos con la misma clave reciben la respuesta guardada sin volver a aplicar el
+ * cambio. Las solicitudes simultáneas con la misma clave y el mismo cuerpo en esta instancia
+ * esperan a la primera y reciben su respuesta como repetida; con otro cuerpo, o en otra
+ * instancia, la fila EN_CURSO hace que respondan 422 o 409 mientras tanto.
+ * <p>
+ * La fila EN_CURSO se escribe fuera de la transacción del cambio de stock, así que si el
+ * proceso muere antes de completarla quedaría bloqueando la clave. Por eso solo se respeta
+ * durante un plazo corto (inventario.idempotencia.plazo-en-curso-ms): pasado ese plazo, un
+ * reintento con el mismo cuerpo la retoma y vuelve a ejecutar la operación. El plazo debe
+ * ser bastante mayor que lo que tarda una operación, reintentos incluidos.
+ */
+@Component
+public class AlmacenIdempotencia implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(AlmacenIdempotencia.class);
+
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+    private static final int LONGITUD_MAXIMA_CLAVE = 100;
+
+    private final SolicitudIdempotenteRepository repository;
+    private final ObjectMapper objectMapper;
+    private final int tamanoMaximo;
+    private final long ttlMs;
+    private final long plazoEnCursoMs;
+    private final Clock reloj;
+
+    private final Map<String, Entrada> respuestas;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConsultasEnVuelo<String, ResponseEntity<?>> enVuelo = new ConsultasEnVuelo<>();
+
+    private final LongAdder repetidas = new LongAdder();
+    private final LongAdder ejecutadas = new LongAdder();
+    private final LongAdder retomadas = new LongAdder();
+
+    @Autowired
+    public AlmacenIdempotencia(
+            SolicitudIdempotenteRepository repository,
+            ObjectMapper objectMapper,
+            @Value("${inventario.idempotencia.max-size:10000}") int tamanoMaximo,
+            @Value("${inventario.idempotencia.ttl-ms:86400000}") long ttlMs,
+            @Value("${inventario.idempotencia.plazo-en-curso-ms:30000}") long plazoEnCursoMs) {
+        this(repository, objectMapper, tamanoMaximo, ttlMs, plazoEnCursoMs, Clock.systemUTC());
+    }
+
+    AlmacenIdempotencia(SolicitudIdempotenteRepository repository, ObjectMapper objectMapper,
+                        int tamanoMaximo, long ttlMs, long plazoEnCursoMs, Clock reloj) {
+        if (tamanoMaximo <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo del almacén de idempotencia debe ser mayor a cero");
+        }
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.tamanoMaximo = tamanoMaximo;
+        this.ttlMs = ttlMs;
+        this.plazoEnCursoMs = plazoEnCursoMs;
+        this.reloj = reloj;
+        this.respuestas = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > AlmacenIdempotencia.this.tamanoMaximo;
+            }
+        };
+    }
+
+    /**
+     * Ejecuta la acción una sola vez por clave y devuelve la respuesta guardada a los reintentos
+     * @param clave Valor de la cabecera Idempotency-Key
+     * @param operacion Operación solicitada (método y ruta)
+     * @param cuerpo Cuerpo de la solicitud
+     * @param accion Acción que aplica el cambio y construye la respuesta
+     * @return Respuesta de la acción o la guardada de la primera ejecución
+     */
+    public ResponseEntity<?> ejecutar(String clave, String operacion, Object cuerpo, Supplier<ResponseEntity<?>> accion) {
+        if (clave.isBlank() || clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            throw new IllegalArgumentException(
+                    String.format("La cabecera Idempotency-Key debe tener entre 1 y %d caracteres", LONGITUD_MAXIMA_CLAVE));
+        }
+        String huella = huella(operacion, cuerpo);
+
+        Entrada guardada = buscarEnMemoria(clave);
+        if (guardada != null) {
+            return repetir(clave, huella, guardada);
+        }
+
+        // Solo se unen a la ejecución en curso las solicitudes con la misma huella; las demás
+        // llegan a la fila EN_CURSO de la tabla y se rechazan por clave reutilizada
+        boolean[] ejecutadaAqui = {false};
+        ResponseEntity<?> respuesta = enVuelo.ejecutar(clave + '\n' + huella, k -> {
+            ejecutadaAqui[0] = true;
+            return ejecutarUnaVez(clave, huella, accion);
+        });
+        if (ejecutadaAqui[0]) {
+            return respuesta;
+        }
+
+        // Se esperó a otra solicitud idéntica: si su respuesta quedó guardada se devuelve como repetida
+        Entrada completada = buscarEnMemoria(clave);
+        return completada != null ? repetir(clave, huella, completada) : respuesta;
+    }
+
+    private ResponseEntity<?> ejecutarUnaVez(String clave, String huella, Supplier<ResponseEntity<?>> accion) {
+        // Otra solicitud pudo terminar (aquí o en otra instancia) antes de llegar hasta aquí
+        SolicitudIdempotente existente = repository.findById(clave).orElse(null);
+        if (existente != null) {
+            if (!retomarSiAbandonada(clave, huella, existente)) {
+                return repetirDesdeTabla(clave, huella, existente);
+            }
+        } else {
+            try {
+                repository.registrarEnCurso(clave, huella, reloj.instant());
+            } catch (DataIntegrityViolationException e) {
+                // Otra instancia registró la misma clave al mismo tiempo
+                return repository.findById(clave)
+                        .map(solicitud -> repetirDesdeTabla(clave, huella, solicitud))
+                        .orElseThrow(() -> new SolicitudEnCursoException(clave));
+            }
+        }
+
+        ResponseEntity<?> respuesta;
+        try {
+            respuesta = accion.get();
+        } catch (RuntimeException | Error e) {
+            // El cambio se revirtió: se libera la clave para que el reintento vuelva a ejecutarse
+            repository.deleteById(clave);
+            throw e;
+        }
+        ejecutadas.increment();
+
+        if (!respuesta.getStatusCode().is2xxSuccessful()) {
+            repository.deleteById(clave);
+            return respuesta;
+        }
+
+        String cuerpoRespuesta = serializar(respuesta.getBody());
+        int codigo = respuesta.getStatusCode().value();
+        try {
+            repository.completar(clave, codigo, cuerpoRespuesta);
+        } catch (RuntimeException e) {
+            // El cambio ya se aplicó: la clave queda EN_CURSO (los reintentos reciben 409) hasta que se purgue
+            log.error("No se pudo guardar la respuesta de la clave de idempotencia {}: {}", clave, e.getMessage());
+        }
+        guardarEnMemoria(clave, new Entrada(huella, codigo, cuerpoRespuesta, reloj.millis() + ttlMs));
+        return respuesta;
+    }
+
+    /**
+     * Retoma una solicitud EN_CURSO con la misma huella cuyo plazo ya venció: quien la
+     * registró murió o no llegó a completarla. Solo una instancia consigue retomarla
+     * @return true si esta solicitud pasa a ser la dueña de la clave y debe ejecutarse
+     */
+    private boolean retomarSiAbandonada(String clave, String huella, SolicitudIdempotente solicitud) {
+        Instant ahora = reloj.instant();
+        Instant limite = ahora.minusMillis(plazoEnCursoMs);
+        if (!SolicitudIdempotente.EN_CURSO.equals(solicitud.getEstado())
+                || !solicitud.getHuella().equals(huella)
+                || !solicitud.getCreadoEn().isBefore(limite)) {
+            return false;
+        }
+
+        if (repository.retomarAbandonada(clave, huella, ahora, limite) == 0) {
+            return false;
+        }
+        log.warn("La clave de idempotencia {} llevaba EN_CURSO desde {}; se vuelve a ejecutar", clave, solicitud.getCreadoEn());
+        retomadas.increment();
+        return true;
+    }
+
+    private ResponseEntity<?> repetirDesdeTabla(String clave, String huella, SolicitudIdempotente solicitud) {
+        if (!SolicitudIdempotente.COMPLETADA.equals(solicitud.getEstado())) {
+            if (!solicitud.getHuella().equals(huella)) {
+                throw new ClaveIdempotenciaReutilizadaException(clave);
+            }
+            throw new SolicitudEnCursoException(clave);
+        }
+
+        Entrada entrada = new Entrada(solicitud.getHuella(), solicitud.getCodigo(), solicitud.getCuerpo(),
+                solicitud.getCreadoEn().toEpochMilli() + ttlMs);
+        guardarEnMemoria(clave, entrada);
+        return repetir(clave, huella, entrada);
+    }
+
+    private ResponseEntity<?> repetir(String clave, String huella, Entrada entrada) {
+        if (!entrada.huella().equals(huella)) {
+            throw new ClaveIdempotenciaReutilizadaException(clave);
+        }
+        log.debug("Devolviendo la respuesta guardada para la clave de idempotencia {}", clave);
+        repetidas.increment();
+        return ResponseEntity.status(HttpStatus.valueOf(entrada.codigo()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(CABECERA_REPETIDA, "true")
+                .body(entrada.cuerpo());
+    }
+
+    /**
+     * Borra de la tabla las solicitudes que ya superaron su tiempo de vida
+     */
+    @Scheduled(fixedDelayString = "${inventario.idempotencia.purga-ms:60000}")
+    public void purgar() {
+        int borradas = repository.borrarAnterioresA(reloj.instant().minusMillis(ttlMs));
+        if (borradas > 0) {
+            log.debug("Eliminadas {} claves de idempotencia vencidas", borradas);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return respuestas.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getRepetidas() {
+        return repetidas.sum();
+    }
+
+    public long getEjecutadas() {
+        return ejecutadas.sum();
+    }
+
+    public long getRetomadas() {
+        return retomadas.sum();
+    }
+
+    private Entrada buscarEnMemoria(String clave) {
+        Entrada entrada;
+        lock.readLock().lock();
+        try {
+            entrada = respuestas.get(clave);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.expiraEn() <= reloj.millis()) {
+            lock.writeLock().lock();
+            try {
+                respuestas.remove(clave, entrada);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return null;
+        }
+        return entrada;
+    }
+
+    private void guardarEnMemoria(String clave, Entrada entrada) {
+        lock.writeLock().lock();
+        try {
+            respuestas.put(clave, entrada);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private String huella(String operacion, Object cuerpo) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operacion.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(cuerpo));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo calcular la huella de la solicitud", e);
+        }
+    }
+
+    private String serializar(Object cuerpo) {
+        // Las respuestas que el controlador ya serializó se guardan tal cual
+        if (cuerpo instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (cuerpo instanceof String texto) {
+            return texto;
+        }
+        try {
+            return objectMapper.writeValueAsString(cuerpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo guardar la respuesta de la solicitud", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("inventario.idempotencia.repetidas", this, AlmacenIdempotencia::getRepetidas)
+                .description("Solicitudes respondidas con la respuesta guardada de su clave de idempotencia")
+                .register(registry);
+        FunctionCounter.builder("inventario.idempotencia.ejecutadas", this, AlmacenIdempotencia::getEjecutadas)
+                .description("Solicitudes con clave de idempotencia ejecutadas por primera vez")
+                .register(registry);
+        FunctionCounter.builder("inventario.idempotencia.retomadas", this, AlmacenIdempotencia::getRetomadas)
+                .description("Solicitudes EN_CURSO abandonadas que se volvieron a ejecutar al vencer su plazo")
+                .register(registry);
+        FunctionCounter.builder("inventario.idempotencia.colapsadas", enVuelo, ConsultasEnVuelo::getColapsadas)
+                .description("Solicitudes simultáneas con la misma clave y cuerpo que esperaron a la primera")
+                .register(registry);
+        Gauge.builder("inventario.idempotencia.tamano", this, AlmacenIdempotencia::size)
+                .description("Respuestas guardadas en memoria")
+                .register(registry);
+    }
+
+    private record Entrada(String huella, int codigo, String cuerpo, long expiraEn) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.pruebatec.inventario_service.json;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.ProductoDTO;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Respuesta JSON:API de inventario con la forma de JsonApiResponse de producto-service
+ * (type, id, attributes) más las relaciones y los recursos incluidos. Al ser tipos fijos,
+ * un ObjectWriter reutilizado resuelve sus serializadores una sola vez.
+ * @param data Recurso principal o lista de recursos
+ * @param included Productos referenciados, cada uno una sola vez
+ * @param meta Metadatos del documento
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JsonApiDocumento<D>(D data, List<Recurso<ProductoAtributos>> included, Meta meta) {
+
+    public static final String TIPO_INVENTARIO = "inventarios";
+    public static final String TIPO_PRODUCTO = "productos";
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Recurso<A>(String type, String id, A attributes, Relaciones relationships, Meta meta) {
+
+        public Recurso(String type, String id, A attributes) {
+            this(type, id, attributes, null, null);
+        }
+    }
+
+    public record Relaciones(Relacion producto) {
+    }
+
+    public record Relacion(Identificador data) {
+    }
+
+    public record Identificador(String type, String id) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Meta(@JsonProperty("producto_no_disponible") Boolean productoNoDisponible) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record InventarioAtributos(
+            @JsonProperty("cantidad_restante_Inventario") Integer cantidad,
+            @JsonProperty("cantidad_reservada") Integer cantidadReservada,
+            @JsonProperty("cantidad_disponible") Integer cantidadDisponible) {
+    }
+
+    public record ProductoAtributos(String nombre, Double precio) {
+    }
+
+    // Método para crear la respuesta de un inventario, con su producto incluido si lo tiene
+    public static JsonApiDocumento<Recurso<InventarioAtributos>> desdeInventario(InventarioDTO inventario) {
+        ProductoDTO producto = inventario.getProducto();
+        Meta meta = inventario.isProductoNoDisponible() ? new Meta(true) : null;
+
+        if (producto == null) {
+            return new JsonApiDocumento<>(recursoInventario(inventario, null), null, meta);
+        }
+        return new JsonApiDocumento<>(recursoInventario(inventario, relacionProducto(producto)),
+                List.of(recursoProducto(producto)), meta);
+    }
+
+    // Método para crear la respuesta de varios inventarios modificados, solo con sus cantidades
+    public static JsonApiDocumento<List<Recurso<InventarioAtributos>>> desdeInventarios(List<InventarioDTO> inventarios) {
+        List<Recurso<InventarioAtributos>> recursos = new ArrayList<>(inventarios.size());
+        for (InventarioDTO inventario : inventarios) {
+            recursos.add(recursoInventario(inventario, null));
+        }
+        return new JsonApiDocumento<>(recursos, null, null);
+    }
+
+    // Método para crear la respuesta de varios inventarios consultados, con cada producto una sola vez en included
+    public static JsonApiDocumento<List<Recurso<InventarioAtributos>>> desdeInventariosConProductos(
+            List<InventarioDTO> inventarios) {
+        List<Recurso<InventarioAtributos>> recursos = new ArrayList<>(inventarios.size());
+        Map<Long, Recurso<ProductoAtributos>> incluidos = new LinkedHashMap<>();
+
+        for (InventarioDTO inventario : inventarios) {
+            ProductoDTO producto = inventario.getProducto();
+            Relaciones relaciones = null;
+            if (producto != null) {
+                relaciones = relacionProducto(producto);
+                incluidos.computeIfAbsent(producto.getId(), id -> recursoProducto(producto));
+            }
+            // Cada inventario indica por separado si no se pudo obtener su producto
+            Meta meta = inventario.isProductoNoDisponible() ? new Meta(true) : null;
+            recursos.add(new Recurso<>(TIPO_INVENTARIO, inventario.getProductoId().toString(),
+                    atributos(inventario), relaciones, meta));
+        }
+
+        return new JsonApiDocumento<>(recursos, incluidos.isEmpty() ? null : new ArrayList<>(incluidos.values()), null);
+    }
+
+    private static Recurso<InventarioAtributos> recursoInventario(InventarioDTO inventario, Relaciones relaciones) {
+        return new Recurso<>(TIPO_INVENTARIO, inventario.getProductoId().toString(), atributos(inventario),
+                relaciones, null);
+    }
+
+    /**
+     * Stock apartado por reservas y disponible para prometer, solo si se conoce lo reservado (consultas)
+     */
+    private static InventarioAtributos atributos(InventarioDTO inventario) {
+        Integer reservada = inventario.getCantidadReservada();
+        if (reservada == null) {
+            return new InventarioAtributos(inventario.getCantidad(), null, null);
+        }
+        return new InventarioAtributos(inventario.getCantidad(), reservada,
+                Math.max(0, inventario.getCantidad() - reservada));
+    }
+
+    private static Relaciones relacionProducto(ProductoDTO producto) {
+        return new Relaciones(new Relacion(new Identificador(TIPO_PRODUCTO, producto.getId().toString())));
+    }
+
+    private static Recurso<ProductoAtributos> recursoProducto(ProductoDTO producto) {
+        return new Recurso<>(TIPO_PRODUCTO, producto.getId().toString(),
+                new ProductoAtributos(producto.getNombre(), producto.getPrecio()));
+    }
+}
@@ -0,0 +1,87 @@
+package com.pruebatec.inventario_service.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Convierte los cuerpos JSON:API de inventario ({@link SolicitudJsonApi} al leer y
+ * {@link JsonApiDocumento} al escribir) con un ObjectReader por tipo de solicitud y un
+ * ObjectWriter creados una sola vez, en lugar de resolverlos en cada petición.
+ * Se registra por delante del conversor Jackson de Spring, que sigue atendiendo el
+ * resto de tipos; la negociación de Content-Type y Accept es la habitual.
+ */
+@Component
+public class JsonApiHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter escritorDocumento;
+    private final Map<Type, ObjectReader> lectores = new ConcurrentHashMap<>();
+
+    public JsonApiHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.objectMapper = objectMapper;
+        // El contenedor cierra la respuesta; el escritor no debe cerrarla antes
+        this.escritorDocumento = objectMapper.writerFor(JsonApiDocumento.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SolicitudJsonApi.class.isAssignableFrom(clazz) || JsonApiDocumento.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        Class<?> clase = ResolvableType.forType(GenericTypeResolver.resolveType(type, contextClass)).resolve();
+        return clase != null && SolicitudJsonApi.class.isAssignableFrom(clase) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return JsonApiDocumento.class.isAssignableFrom(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        Type tipo = GenericTypeResolver.resolveType(type, contextClass);
+        ObjectReader lector = lectores.computeIfAbsent(tipo,
+                t -> objectMapper.readerFor(objectMapper.getTypeFactory().constructType(t)));
+        try {
+            return lector.readValue(inputMessage.getBody());
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException(
+                    "El cuerpo de la solicitud no es un documento JSON:API válido", e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object documento, Type type, HttpOutputMessage outputMessage) throws IOException {
+        try {
+            escritorDocumento.writeValue(outputMessage.getBody(), documento);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("No se pudo serializar la respuesta", e);
+        }
+    }
+}
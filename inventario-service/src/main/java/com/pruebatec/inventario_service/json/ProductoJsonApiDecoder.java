@@ -0,0 +1,263 @@
+package com.pruebatec.inventario_service.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.pruebatec.inventario_service.dto.CambiosProductoDTO;
+import com.pruebatec.inventario_service.dto.ProductoDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodifica la respuesta JSON:API del servicio de productos leyendo el flujo
+ * de tokens directamente, sin pasar por un String ni construir un árbol JsonNode.
+ * Acepta "data" como objeto individual o como arreglo de recursos.
+ */
+public class ProductoJsonApiDecoder {
+
+    private static final String NOMBRE_POR_DEFECTO = "Producto sin nombre";
+    private static final double PRECIO_POR_DEFECTO = 0.0;
+
+    private final JsonFactory jsonFactory;
+
+    public ProductoJsonApiDecoder() {
+        this(new JsonFactory());
+    }
+
+    public ProductoJsonApiDecoder(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /**
+     * Lee el producto con el ID indicado del cuerpo de la respuesta
+     * @param entrada Cuerpo de la respuesta
+     * @param id ID del producto buscado
+     * @return El producto, o null si la respuesta no contiene ese producto con atributos
+     */
+    public ProductoDTO decodificar(InputStream entrada, Long id) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(entrada)) {
+            return leerDocumento(parser, id.toString());
+        }
+    }
+
+    /**
+     * Variante sobre un arreglo de bytes ya leído
+     */
+    public ProductoDTO decodificar(byte[] entrada, Long id) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(entrada)) {
+            return leerDocumento(parser, id.toString());
+        }
+    }
+
+    /**
+     * Lee todos los productos con atributos del cuerpo de la respuesta (consulta por filter[id])
+     * @param entrada Cuerpo de la respuesta
+     * @return Productos por ID, en el orden de la respuesta
+     */
+    public Map<Long, ProductoDTO> decodificarLista(InputStream entrada) throws IOException {
+        Map<Long, ProductoDTO> productos = new LinkedHashMap<>();
+        try (JsonParser parser = jsonFactory.createParser(entrada)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return productos;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+
+                if (!"data".equals(campo)) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                if (valor == JsonToken.START_OBJECT) {
+                    agregar(productos, leerRecurso(parser, null));
+                } else if (valor == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        agregar(productos, leerRecurso(parser, null));
+                    }
+                }
+                return productos;
+            }
+        }
+        return productos;
+    }
+
+    /**
+     * Lee los atributos del primer recurso de la respuesta de /api/productos/cambios
+     * @param entrada Cuerpo de la respuesta
+     * @return Los cambios, o null si la respuesta no contiene un recurso con atributos
+     */
+    public CambiosProductoDTO decodificarCambios(InputStream entrada) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(entrada)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+
+                if (!"data".equals(campo)) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                if (valor == JsonToken.START_ARRAY && parser.nextToken() == JsonToken.START_OBJECT) {
+                    return leerCambios(parser);
+                }
+                return valor == JsonToken.START_OBJECT ? leerCambios(parser) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lee un recurso de cambios (el parser debe estar en su START_OBJECT)
+     */
+    private CambiosProductoDTO leerCambios(JsonParser parser) throws IOException {
+        CambiosProductoDTO cambios = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken valor = parser.nextToken();
+
+            if (!"attributes".equals(campo) || valor != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            cambios = new CambiosProductoDTO();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String atributo = parser.currentName();
+                JsonToken valorAtributo = parser.nextToken();
+
+                if ("instancia".equals(atributo) && esValor(valorAtributo)) {
+                    cambios.setInstancia(parser.getValueAsString());
+                } else if ("version".equals(atributo) && esValor(valorAtributo)) {
+                    cambios.setVersion(parser.getValueAsLong());
+                } else if ("completo".equals(atributo) && esValor(valorAtributo)) {
+                    cambios.setCompleto(parser.getValueAsBoolean());
+                } else if ("productoIds".equals(atributo) && valorAtributo == JsonToken.START_ARRAY) {
+                    List<Long> ids = new ArrayList<>();
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (esValor(parser.currentToken())) {
+                            ids.add(parser.getValueAsLong());
+                        }
+                    }
+                    cambios.setProductoIds(ids);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return cambios;
+    }
+
+    private static void agregar(Map<Long, ProductoDTO> productos, ProductoDTO producto) {
+        if (producto != null) {
+            productos.put(producto.getId(), producto);
+        }
+    }
+
+    private ProductoDTO leerDocumento(JsonParser parser, String idBuscado) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken valor = parser.nextToken();
+
+            if (!"data".equals(campo)) {
+                parser.skipChildren();
+                continue;
+            }
+
+            if (valor == JsonToken.START_OBJECT) {
+                return leerRecurso(parser, idBuscado);
+            }
+
+            if (valor == JsonToken.START_ARRAY) {
+                // Recorrer los recursos hasta encontrar el producto buscado
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    ProductoDTO producto = leerRecurso(parser, idBuscado);
+                    if (producto != null) {
+                        return producto;
+                    }
+                }
+            }
+            return null;
+        }
+        return null;
+    }
+
+    /**
+     * Lee un recurso completo (el parser debe estar en START_OBJECT y queda en su END_OBJECT).
+     * Con idBuscado null se acepta cualquier recurso con ID numérico.
+     */
+    private ProductoDTO leerRecurso(JsonParser parser, String idBuscado) throws IOException {
+        String id = null;
+        String nombre = null;
+        Double precio = null;
+        boolean tieneAtributos = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken valor = parser.nextToken();
+
+            if ("id".equals(campo) && valor.isScalarValue()) {
+                id = parser.getValueAsString();
+            } else if ("attributes".equals(campo) && valor == JsonToken.START_OBJECT) {
+                tieneAtributos = true;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String atributo = parser.currentName();
+                    JsonToken valorAtributo = parser.nextToken();
+
+                    if ("nombre".equals(atributo) && esValor(valorAtributo)) {
+                        nombre = parser.getValueAsString();
+                    } else if ("precio".equals(atributo) && esValor(valorAtributo)) {
+                        precio = parser.getValueAsDouble();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        if (id == null || !tieneAtributos || (idBuscado != null && !idBuscado.equals(id))) {
+            return null;
+        }
+        if (idBuscado == null && !esNumerico(id)) {
+            return null;
+        }
+
+        return new ProductoDTO(
+                Long.parseLong(id),
+                nombre != null ? nombre : NOMBRE_POR_DEFECTO,
+                precio != null ? precio : PRECIO_POR_DEFECTO);
+    }
+
+    private static boolean esNumerico(String id) {
+        if (id.isEmpty() || id.length() > 18) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (!Character.isDigit(id.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean esValor(JsonToken token) {
+        return token.isScalarValue() && token != JsonToken.VALUE_NULL;
+    }
+}
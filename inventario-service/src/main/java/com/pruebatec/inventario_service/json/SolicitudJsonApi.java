@@ -0,0 +1,30 @@
+package com.pruebatec.inventario_service.json;
+
+/**
+ * Cuerpo JSON:API de las solicitudes de inventario: {"data": {"type", "id", "attributes"}}
+ * o, en la compra de varios productos, {"data": [...]}
+ * @param data Recurso o lista de recursos de la solicitud
+ */
+public record SolicitudJsonApi<D>(D data) {
+
+    public record Recurso<A>(String type, String id, A attributes) {
+    }
+
+    /**
+     * Atributos de PATCH /api/inventarios/{productoId}
+     */
+    public record Cantidad(Integer cantidad) {
+    }
+
+    /**
+     * Atributos de una compra; productoId solo se indica en la compra de varios productos
+     */
+    public record Compra(Long productoId, Integer cantidadComprada) {
+    }
+
+    /**
+     * Atributos de POST /api/inventarios/{productoId}/reposiciones
+     */
+    public record Reposicion(Integer cantidadRepuesta) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.pruebatec.inventario_service.repository;
+
+import com.pruebatec.inventario_service.entity.CheckpointDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CheckpointDiarioRepository extends JpaRepository<CheckpointDiario, Integer> {
+}
@@ -0,0 +1,25 @@
+package com.pruebatec.inventario_service.repository;
+
+import com.pruebatec.inventario_service.entity.EventoOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    /**
+     * Eventos pendientes en orden de escritura
+     */
+    List<EventoOutbox> findByOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Fecha de creación del evento pendiente más antiguo (null si no hay pendientes)
+     */
+    @Query("SELECT MIN(e.creadoEn) FROM EventoOutbox e")
+    Instant findCreadoEnMasAntiguo();
+}
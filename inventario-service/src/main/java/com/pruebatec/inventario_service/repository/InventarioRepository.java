@@ -2,13 +2,134 @@ package com.pruebatec.inventario_service.repository;
 
 
 import com.pruebatec.inventario_service.entity.Inventario;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InventarioRepository extends JpaRepository<Inventario, Long> {
     
     Optional<Inventario> findByProductoId(Long productoId);
+    
+    /**
+     * Crea el inventario del producto con cantidad 0 si el producto existe y aún no tiene
+     * inventario, en una sola sentencia MERGE (válida en Oracle y en H2). Si la fila ya
+     * existe no hace nada, por lo que no hace falta consultar antes ni al servicio de productos.
+     * @param productoId ID del producto
+     * @return Número de filas insertadas (0 si ya existía o el producto no existe)
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "MERGE INTO inventarios i " +
+                   "USING (SELECT p.id FROM productos p WHERE p.id = :productoId) p ON (i.producto_id = p.id) " +
+                   "WHEN NOT MATCHED THEN INSERT (producto_id, cantidad, reservado, version) VALUES (p.id, 0, 0, 0)",
+           nativeQuery = true)
+    int crearSiNoExiste(@Param("productoId") Long productoId);
+    
+    /**
+     * Indica si el producto existe en la tabla de productos
+     * @param productoId ID del producto
+     * @return Número de productos con ese ID (0 o 1)
+     */
+    @Query(value = "SELECT COUNT(*) FROM productos WHERE id = :productoId", nativeQuery = true)
+    long contarProductos(@Param("productoId") Long productoId);
+    
+    /**
+     * Obtiene cuáles de los IDs indicados existen en la tabla de productos
+     * @param productoIds IDs de productos
+     * @return IDs existentes (numéricos según el tipo que devuelva el driver)
+     */
+    @Query(value = "SELECT id FROM productos WHERE id IN (:productoIds)", nativeQuery = true)
+    List<Number> findProductosExistentes(@Param("productoIds") Collection<Long> productoIds);
+    
+    /**
+     * Obtiene el inventario bloqueando la fila (SELECT ... FOR UPDATE) hasta el final
+     * de la transacción, para la estrategia de concurrencia pesimista
+     * @param productoId ID del producto
+     * @return Inventario bloqueado, si existe
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+    @Query("SELECT i FROM Inventario i WHERE i.productoId = :productoId")
+    Optional<Inventario> findByProductoIdParaActualizar(@Param("productoId") Long productoId);
+    
+    /**
+     * Descuenta stock en una única sentencia condicional. La fila solo se
+     * actualiza si la cantidad disponible (sin contar lo reservado) alcanza para
+     * la compra, por lo que dos compras concurrentes nunca pueden dejar el stock
+     * en negativo ni tomar unidades apartadas por una reserva.
+     * También incrementa la versión para que las lecturas optimistas detecten el cambio.
+     * @param productoId ID del producto
+     * @param cantidad Cantidad a descontar
+     * @return Número de filas actualizadas (0 si no existe o no hay stock suficiente)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventario i SET i.cantidad = i.cantidad - :cantidad, i.version = i.version + 1 " +
+           "WHERE i.productoId = :productoId AND i.cantidad - i.reservado >= :cantidad")
+    int descontarStock(@Param("productoId") Long productoId, @Param("cantidad") Integer cantidad);
+    
+    /**
+     * Aparta stock para una reserva si la cantidad disponible para prometer
+     * (cantidad menos lo ya reservado) alcanza
+     * @param productoId ID del producto
+     * @param cantidad Cantidad a reservar
+     * @return Número de filas actualizadas (0 si no existe o no hay stock suficiente)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventario i SET i.reservado = i.reservado + :cantidad, i.version = i.version + 1 " +
+           "WHERE i.productoId = :productoId AND i.cantidad - i.reservado >= :cantidad")
+    int reservarStock(@Param("productoId") Long productoId, @Param("cantidad") Integer cantidad);
+    
+    /**
+     * Convierte una reserva en compra: descuenta la cantidad del stock y de lo reservado
+     * @param productoId ID del producto
+     * @param cantidad Cantidad reservada
+     * @return Número de filas actualizadas (0 si el stock ya no cubre la reserva)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventario i SET i.cantidad = i.cantidad - :cantidad, i.reservado = i.reservado - :cantidad, " +
+           "i.version = i.version + 1 " +
+           "WHERE i.productoId = :productoId AND i.reservado >= :cantidad AND i.cantidad >= :cantidad")
+    int confirmarReserva(@Param("productoId") Long productoId, @Param("cantidad") Integer cantidad);
+    
+    /**
+     * Devuelve al stock disponible la cantidad de una reserva liberada o vencida
+     * @param productoId ID del producto
+     * @param cantidad Cantidad reservada
+     * @return Número de filas actualizadas
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventario i SET i.reservado = i.reservado - :cantidad, i.version = i.version + 1 " +
+           "WHERE i.productoId = :productoId AND i.reservado >= :cantidad")
+    int liberarReservado(@Param("productoId") Long productoId, @Param("cantidad") Integer cantidad);
+    
+    /**
+     * Suma (o resta, si es negativo) un cambio neto de stock ya validado en memoria
+     * @param productoId ID del producto
+     * @param delta Cambio neto de la cantidad
+     * @return Número de filas actualizadas
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Inventario i SET i.cantidad = i.cantidad + :delta, i.version = i.version + 1 " +
+           "WHERE i.productoId = :productoId")
+    int aplicarDelta(@Param("productoId") Long productoId, @Param("delta") Integer delta);
+    
+    /**
+     * Obtiene únicamente la cantidad disponible de un producto, sin cargar la entidad
+     * @param productoId ID del producto
+     * @return Cantidad disponible, si existe inventario para el producto
+     */
+    @Query("SELECT i.cantidad FROM Inventario i WHERE i.productoId = :productoId")
+    Optional<Integer> findCantidadByProductoId(@Param("productoId") Long productoId);
 }
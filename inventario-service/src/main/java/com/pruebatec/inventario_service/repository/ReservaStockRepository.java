@@ -0,0 +1,42 @@
+package com.pruebatec.inventario_service.repository;
+
+import com.pruebatec.inventario_service.entity.ReservaStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ReservaStockRepository extends JpaRepository<ReservaStock, String> {
+
+    /**
+     * Guarda una reserva nueva. Se inserta directamente (sin merge), porque el ID lo
+     * asigna el servicio y un save haría antes una consulta para saber si existe
+     * @return Número de filas insertadas
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO inventario_reservas (id, producto_id, cantidad, expira_en) " +
+                   "VALUES (:id, :productoId, :cantidad, :expiraEn)", nativeQuery = true)
+    int registrar(@Param("id") String id, @Param("productoId") Long productoId,
+                  @Param("cantidad") Integer cantidad, @Param("expiraEn") Instant expiraEn);
+
+    /**
+     * Borra la reserva. Si dos instancias lo intentan a la vez solo una borra la fila
+     * @return Número de filas borradas (1 si esta llamada se quedó con la reserva)
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReservaStock r WHERE r.id = :id")
+    int eliminar(@Param("id") String id);
+
+    /**
+     * Reservas ya vencidas, las más antiguas primero
+     */
+    List<ReservaStock> findTop500ByExpiraEnBeforeOrderByExpiraEn(Instant limite);
+}
@@ -0,0 +1,58 @@
+package com.pruebatec.inventario_service.repository;
+
+import com.pruebatec.inventario_service.entity.SolicitudIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface SolicitudIdempotenteRepository extends JpaRepository<SolicitudIdempotente, String> {
+
+    /**
+     * Registra la clave como en curso. Se inserta directamente (sin merge) para que,
+     * si otra instancia ya registró la misma clave, falle por clave primaria duplicada
+     * @return Número de filas insertadas
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO inventario_idempotencia (clave, huella, estado, creado_en) " +
+                   "VALUES (:clave, :huella, 'EN_CURSO', :creadoEn)", nativeQuery = true)
+    int registrarEnCurso(@Param("clave") String clave, @Param("huella") String huella,
+                         @Param("creadoEn") Instant creadoEn);
+
+    /**
+     * Retoma una solicitud EN_CURSO con la misma huella registrada antes del límite,
+     * renovando su fecha. Si dos instancias lo intentan a la vez solo una actualiza la fila
+     * @return Número de filas actualizadas (1 si esta solicitud la retomó)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE SolicitudIdempotente s SET s.creadoEn = :creadoEn " +
+           "WHERE s.clave = :clave AND s.huella = :huella AND s.estado = 'EN_CURSO' AND s.creadoEn < :limite")
+    int retomarAbandonada(@Param("clave") String clave, @Param("huella") String huella,
+                          @Param("creadoEn") Instant creadoEn, @Param("limite") Instant limite);
+
+    /**
+     * Guarda la respuesta de una solicitud en curso
+     * @return Número de filas actualizadas
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE SolicitudIdempotente s SET s.estado = 'COMPLETADA', s.codigo = :codigo, s.cuerpo = :cuerpo " +
+           "WHERE s.clave = :clave")
+    int completar(@Param("clave") String clave, @Param("codigo") Integer codigo, @Param("cuerpo") String cuerpo);
+
+    /**
+     * Borra las solicitudes anteriores al límite indicado
+     * @return Número de filas borradas
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SolicitudIdempotente s WHERE s.creadoEn < :limite")
+    int borrarAnterioresA(@Param("limite") Instant limite);
+}
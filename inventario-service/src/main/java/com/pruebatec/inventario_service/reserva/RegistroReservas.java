@@ -0,0 +1,256 @@
+package com.pruebatec.inventario_service.reserva;
+
+import com.pruebatec.inventario_service.entity.ReservaStock;
+import com.pruebatec.inventario_service.repository.InventarioRepository;
+import com.pruebatec.inventario_service.repository.ReservaStockRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reservas de stock activas. La cantidad reservada de cada producto vive en la columna
+ * reservado de inventarios y cada reserva en la tabla inventario_reservas, guardada en
+ * la misma transacción. Las creadas en esta instancia se vencen con una
+ * {@link RuedaTemporizadora}, sin una tarea programada por reserva ni recorrer la tabla;
+ * las que quedaron de un proceso que se detuvo (reinicio, despliegue, otra instancia
+ * caída) las vence un barrido periódico de la tabla.
+ * Confirmar, liberar o vencer una reserva exige borrar antes su fila, así que aunque
+ * varias instancias lo intenten a la vez solo una mueve su cantidad.
+ */
+@Component
+public class RegistroReservas implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroReservas.class);
+
+    private final InventarioRepository inventarioRepository;
+    private final ReservaStockRepository reservaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock reloj;
+    private final RuedaTemporizadora<Reserva> rueda;
+
+    private final ConcurrentMap<String, RuedaTemporizadora.Entrada<Reserva>> activas = new ConcurrentHashMap<>();
+    // Reservas vencidas que no se pudieron devolver al stock; se reintentan en el siguiente avance
+    private final List<Reserva> liberacionesPendientes = new ArrayList<>();
+    // Lock y no synchronized: dentro se ejecuta una transacción y, con hilos virtuales,
+    // un monitor retendría el hilo portador mientras se espera a la base de datos
+    private final ReentrantLock expiracion = new ReentrantLock();
+
+    private final LongAdder expiradas = new LongAdder();
+    private final LongAdder erroresExpiracion = new LongAdder();
+
+    @Autowired
+    public RegistroReservas(
+            InventarioRepository inventarioRepository,
+            ReservaStockRepository reservaRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${inventario.reservas.tick-ms:100}") long tickMs,
+            @Value("${inventario.reservas.ranuras:4096}") int ranuras) {
+        this(inventarioRepository, reservaRepository, transactionTemplate, tickMs, ranuras, Clock.systemUTC());
+    }
+
+    RegistroReservas(
+            InventarioRepository inventarioRepository,
+            ReservaStockRepository reservaRepository,
+            TransactionTemplate transactionTemplate,
+            long tickMs,
+            int ranuras,
+            Clock reloj) {
+        this.inventarioRepository = inventarioRepository;
+        this.reservaRepository = reservaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.reloj = reloj;
+        this.rueda = new RuedaTemporizadora<>(tickMs, ranuras, reloj.millis());
+    }
+
+    /**
+     * Guarda la reserva en la transacción que apartó su cantidad y empieza a vencerla en
+     * memoria cuando esa transacción se confirma (o inmediatamente si no hay transacción)
+     */
+    public void guardar(Reserva reserva) {
+        reservaRepository.registrar(reserva.id(), reserva.productoId(), reserva.cantidad(), reserva.expiraEn());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            registrar(reserva);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                registrar(reserva);
+            }
+        });
+    }
+
+    /**
+     * Saca una reserva activa para confirmarla o liberarla, borrando su fila en la
+     * transacción en curso. Solo un llamador puede obtenerla, aunque la reserva se creara
+     * en otra instancia: el resto (u otro vencimiento) recibe null.
+     * Si la transacción que la usa se revierte la reserva vuelve a quedar activa.
+     * @param id Identificador de la reserva
+     * @return La reserva, o null si no existe, ya venció o ya se confirmó o liberó
+     */
+    public Reserva reclamar(String id) {
+        Reserva reserva = reservaRepository.findById(id).map(RegistroReservas::aReserva).orElse(null);
+        if (reserva == null || !reserva.expiraEn().isAfter(reloj.instant())) {
+            return null;
+        }
+        if (reservaRepository.eliminar(id) == 0) {
+            // Otra instancia o el vencimiento la reclamó después de leerla
+            return null;
+        }
+
+        RuedaTemporizadora.Entrada<Reserva> entrada = activas.remove(id);
+        if (entrada == null) {
+            // Se creó en otra instancia: si la transacción se revierte la fila vuelve y la vence esa instancia o el barrido
+            return reserva;
+        }
+        entrada.cancelar();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        registrar(reserva);
+                    }
+                }
+            });
+        }
+        return reserva;
+    }
+
+    /**
+     * Vence las reservas de esta instancia cuyo plazo terminó y devuelve su cantidad al
+     * stock disponible, con una sola sentencia por producto
+     */
+    @Scheduled(fixedDelayString = "${inventario.reservas.tick-ms:100}")
+    public void expirar() {
+        List<Reserva> vencidas = rueda.avanzar(reloj.millis());
+
+        expiracion.lock();
+        try {
+            for (Reserva reserva : vencidas) {
+                // Si ya se reclamó (confirmación o liberación en curso) no se toca
+                RuedaTemporizadora.Entrada<Reserva> entrada = activas.get(reserva.id());
+                if (entrada != null && entrada.getElemento() == reserva && activas.remove(reserva.id(), entrada)) {
+                    liberacionesPendientes.add(reserva);
+                }
+            }
+            if (liberacionesPendientes.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> liberarVencidas(liberacionesPendientes));
+                liberacionesPendientes.clear();
+            } catch (RuntimeException e) {
+                erroresExpiracion.increment();
+                log.warn("No se pudo liberar el stock de las reservas vencidas, se reintentará: {}", e.getMessage());
+            }
+        } finally {
+            expiracion.unlock();
+        }
+    }
+
+    /**
+     * Vence las reservas que ninguna instancia tiene en memoria: las de un proceso que se
+     * detuvo antes de vencerlas. Las que esta instancia tiene activas las vence su rueda.
+     */
+    @Scheduled(fixedDelayString = "${inventario.reservas.barrido-ms:1000}")
+    public void barrer() {
+        List<Reserva> vencidas = reservaRepository.findTop500ByExpiraEnBeforeOrderByExpiraEn(reloj.instant()).stream()
+                .map(RegistroReservas::aReserva)
+                .filter(reserva -> !activas.containsKey(reserva.id()))
+                .toList();
+        if (vencidas.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> liberarVencidas(vencidas));
+        } catch (RuntimeException e) {
+            erroresExpiracion.increment();
+            log.warn("No se pudo liberar el stock de las reservas vencidas de otro proceso, se reintentará: {}", e.getMessage());
+        }
+    }
+
+    public int getActivas() {
+        return activas.size();
+    }
+
+    /**
+     * Borra las filas de las reservas vencidas y devuelve al stock solo la cantidad de las
+     * que se borraron aquí: las demás ya se confirmaron, liberaron o vencieron en otro sitio
+     */
+    private void liberarVencidas(Collection<Reserva> vencidas) {
+        Map<Long, Integer> porProducto = new HashMap<>();
+        int liberadas = 0;
+        for (Reserva reserva : vencidas) {
+            if (reservaRepository.eliminar(reserva.id()) == 1) {
+                porProducto.merge(reserva.productoId(), reserva.cantidad(), Integer::sum);
+                liberadas++;
+            }
+        }
+        porProducto.forEach(inventarioRepository::liberarReservado);
+
+        // Se cuentan al terminar el método, que solo se reintenta si la transacción falla
+        if (liberadas > 0) {
+            int total = liberadas;
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        expiradas.add(total);
+                    }
+                });
+            } else {
+                expiradas.add(total);
+            }
+        }
+    }
+
+    private static Reserva aReserva(ReservaStock fila) {
+        return new Reserva(fila.getId(), fila.getProductoId(), fila.getCantidad(), fila.getExpiraEn());
+    }
+
+    private void registrar(Reserva reserva) {
+        RuedaTemporizadora.Entrada<Reserva> entrada = rueda.programar(reserva, reserva.expiraEn().toEpochMilli());
+        activas.put(reserva.id(), entrada);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("inventario.reservas.activas", this, RegistroReservas::getActivas)
+                .description("Reservas de stock activas")
+                .register(registry);
+        Gauge.builder("inventario.reservas.programadas", rueda, RuedaTemporizadora::getProgramadas)
+                .description("Entradas en la rueda de vencimientos, incluidas las canceladas pendientes de descartar")
+                .register(registry);
+        FunctionCounter.builder("inventario.reservas.expiradas", expiradas, LongAdder::sum)
+                .description("Reservas vencidas sin confirmar")
+                .register(registry);
+        FunctionCounter.builder("inventario.reservas.errores", erroresExpiracion, LongAdder::sum)
+                .description("Liberaciones de reservas vencidas que fallaron")
+                .register(registry);
+    }
+}
@@ -0,0 +1,13 @@
+package com.pruebatec.inventario_service.reserva;
+
+import java.time.Instant;
+
+/**
+ * Reserva de stock activa
+ * @param id Identificador de la reserva
+ * @param productoId ID del producto reservado
+ * @param cantidad Cantidad reservada
+ * @param expiraEn Instante en que la reserva vence si no se confirma ni se libera
+ */
+public record Reserva(String id, Long productoId, int cantidad, Instant expiraEn) {
+}
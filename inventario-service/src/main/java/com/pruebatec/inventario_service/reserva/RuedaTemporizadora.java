@@ -0,0 +1,130 @@
+package com.pruebatec.inventario_service.reserva;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rueda de temporización (hashed timing wheel) para vencimientos de corta duración.
+ * Cada elemento se guarda en la ranura de su tick de vencimiento, así que programar y
+ * cancelar cuestan O(1) sin importar cuántos elementos haya, y al avanzar solo se
+ * revisan las ranuras de los ticks transcurridos. Los elementos cuyo vencimiento está
+ * más de una vuelta por delante permanecen en la ranura hasta su vuelta.
+ * Un elemento nunca vence antes de su instante de vencimiento; como mucho un tick después.
+ * @param <T> Tipo de los elementos programados
+ */
+public class RuedaTemporizadora<T> {
+
+    /**
+     * Elemento programado en la rueda
+     */
+    public static final class Entrada<T> {
+
+        private final T elemento;
+        private final long tickVencimiento;
+        private volatile boolean cancelada;
+
+        private Entrada(T elemento, long tickVencimiento) {
+            this.elemento = elemento;
+            this.tickVencimiento = tickVencimiento;
+        }
+
+        public T getElemento() {
+            return elemento;
+        }
+
+        /**
+         * Evita que el elemento venza. La entrada se descarta la próxima vez que se revise su ranura.
+         */
+        public void cancelar() {
+            cancelada = true;
+        }
+    }
+
+    private final long duracionTickMs;
+    private final long inicioMs;
+    private final int mascara;
+    private final List<List<Entrada<T>>> ranuras;
+
+    private long tickActual;
+    private long programadas;
+
+    /**
+     * @param duracionTickMs Resolución de la rueda en milisegundos
+     * @param numRanuras Número de ranuras (se redondea a la siguiente potencia de dos)
+     * @param inicioMs Instante (en milisegundos) que corresponde al tick 0
+     */
+    public RuedaTemporizadora(long duracionTickMs, int numRanuras, long inicioMs) {
+        if (duracionTickMs <= 0 || numRanuras <= 0) {
+            throw new IllegalArgumentException("La duración del tick y el número de ranuras deben ser mayores a cero");
+        }
+        int tamano = Integer.highestOneBit(numRanuras);
+        if (tamano < numRanuras) {
+            tamano <<= 1;
+        }
+        this.duracionTickMs = duracionTickMs;
+        this.inicioMs = inicioMs;
+        this.mascara = tamano - 1;
+        this.ranuras = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            ranuras.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Programa un elemento para que venza en el instante indicado
+     * @param elemento Elemento a programar
+     * @param venceEnMs Instante de vencimiento en milisegundos
+     * @return Entrada que permite cancelar el vencimiento
+     */
+    public synchronized Entrada<T> programar(T elemento, long venceEnMs) {
+        // Redondear hacia arriba para no vencer antes de tiempo
+        long tick = Math.floorDiv(venceEnMs - inicioMs + duracionTickMs - 1, duracionTickMs);
+        Entrada<T> entrada = new Entrada<>(elemento, Math.max(tick, tickActual + 1));
+        ranuras.get((int) (entrada.tickVencimiento & mascara)).add(entrada);
+        programadas++;
+        return entrada;
+    }
+
+    /**
+     * Avanza la rueda hasta el instante indicado y devuelve los elementos vencidos
+     * (sin los cancelados)
+     * @param ahoraMs Instante actual en milisegundos
+     * @return Elementos vencidos, en ningún orden en particular
+     */
+    public synchronized List<T> avanzar(long ahoraMs) {
+        long hasta = Math.floorDiv(ahoraMs - inicioMs, duracionTickMs);
+        if (hasta <= tickActual) {
+            return List.of();
+        }
+
+        // Si pasó más de una vuelta basta con revisar cada ranura una vez
+        long pasos = Math.min(hasta - tickActual, ranuras.size());
+        List<T> vencidos = new ArrayList<>();
+        for (long tick = hasta - pasos + 1; tick <= hasta; tick++) {
+            List<Entrada<T>> ranura = ranuras.get((int) (tick & mascara));
+            for (int i = ranura.size() - 1; i >= 0; i--) {
+                Entrada<T> entrada = ranura.get(i);
+                if (!entrada.cancelada && entrada.tickVencimiento > hasta) {
+                    continue;
+                }
+                if (!entrada.cancelada) {
+                    vencidos.add(entrada.elemento);
+                }
+                // Quitar sin desplazar el resto: mover la última entrada a esta posición
+                int ultima = ranura.size() - 1;
+                ranura.set(i, ranura.get(ultima));
+                ranura.remove(ultima);
+                programadas--;
+            }
+        }
+        tickActual = hasta;
+        return vencidos;
+    }
+
+    /**
+     * Entradas en la rueda, incluidas las canceladas que aún no se han descartado
+     */
+    public synchronized long getProgramadas() {
+        return programadas;
+    }
+}
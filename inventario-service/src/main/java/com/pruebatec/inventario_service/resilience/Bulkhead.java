@@ -0,0 +1,98 @@
+package com.pruebatec.inventario_service.resilience;
+
+import com.pruebatec.inventario_service.exception.CommunicationException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Limita el número de llamadas concurrentes a una dependencia, para que una
+ * dependencia lenta no pueda ocupar todos los hilos que atienden peticiones.
+ */
+public class Bulkhead {
+
+    private final String nombre;
+    private final int maxConcurrentes;
+    private final long esperaMaximaMs;
+    private final Semaphore permisos;
+    private final LongAdder rechazadas = new LongAdder();
+
+    public Bulkhead(String nombre, int maxConcurrentes, long esperaMaximaMs) {
+        if (maxConcurrentes <= 0) {
+            throw new IllegalArgumentException("El máximo de llamadas concurrentes debe ser mayor a cero");
+        }
+        this.nombre = nombre;
+        this.maxConcurrentes = maxConcurrentes;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.permisos = new Semaphore(maxConcurrentes);
+    }
+
+    /**
+     * Ejecuta la llamada si hay un permiso libre (esperando como máximo el tiempo configurado)
+     * @param llamada Llamada a la dependencia
+     * @return Resultado de la llamada
+     * @throws CommunicationException si no se obtuvo un permiso a tiempo
+     */
+    public <T> T ejecutar(Supplier<T> llamada) {
+        if (!adquirir()) {
+            rechazadas.increment();
+            throw new CommunicationException("Demasiadas llamadas concurrentes al servicio " + nombre);
+        }
+
+        try {
+            return llamada.get();
+        } finally {
+            permisos.release();
+        }
+    }
+
+    /**
+     * Variante para llamadas asíncronas: el permiso se ocupa hasta que el futuro termina,
+     * no solo mientras se inicia la llamada
+     * @param llamada Inicia la llamada a la dependencia
+     * @return Futuro con el resultado, o fallido con CommunicationException si no hubo permiso
+     */
+    public <T> CompletableFuture<T> ejecutarAsync(Supplier<CompletableFuture<T>> llamada) {
+        if (!adquirir()) {
+            rechazadas.increment();
+            return CompletableFuture.failedFuture(
+                    new CommunicationException("Demasiadas llamadas concurrentes al servicio " + nombre));
+        }
+
+        CompletableFuture<T> futuro;
+        try {
+            futuro = llamada.get();
+        } catch (RuntimeException | Error e) {
+            permisos.release();
+            throw e;
+        }
+        return futuro.whenComplete((resultado, error) -> permisos.release());
+    }
+
+    private boolean adquirir() {
+        if (esperaMaximaMs <= 0) {
+            return permisos.tryAcquire();
+        }
+        try {
+            return permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public int getEnUso() {
+        return maxConcurrentes - permisos.availablePermits();
+    }
+
+    public int getMaxConcurrentes() {
+        return maxConcurrentes;
+    }
+
+    public long getRechazadas() {
+        return rechazadas.sum();
+    }
+}
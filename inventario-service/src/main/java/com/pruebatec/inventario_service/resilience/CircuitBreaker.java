@@ -0,0 +1,211 @@
+package com.pruebatec.inventario_service.resilience;
+
+import com.pruebatec.inventario_service.exception.CommunicationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Circuito que deja de llamar a una dependencia tras varios fallos consecutivos.
+ * <ul>
+ *     <li>CERRADO: las llamadas pasan; al alcanzar el umbral de fallos se abre.</li>
+ *     <li>ABIERTO: las llamadas fallan de inmediato hasta que pasa el tiempo de apertura.</li>
+ *     <li>SEMIABIERTO: se deja pasar un número limitado de llamadas de prueba;
+ *     si tienen éxito se cierra y si fallan se vuelve a abrir.</li>
+ * </ul>
+ */
+public class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum Estado {
+        CERRADO,
+        ABIERTO,
+        SEMIABIERTO
+    }
+
+    private final String nombre;
+    private final int umbralFallos;
+    private final long aperturaNanos;
+    private final int llamadasDePrueba;
+    private final LongSupplier reloj;
+
+    private volatile Estado estado = Estado.CERRADO;
+    private final AtomicInteger fallosConsecutivos = new AtomicInteger();
+    private long abiertoHasta;
+    private int pruebasEnCurso;
+
+    private final LongAdder rechazadas = new LongAdder();
+    private final LongAdder aperturas = new LongAdder();
+
+    public CircuitBreaker(String nombre, int umbralFallos, long aperturaMs, int llamadasDePrueba) {
+        this(nombre, umbralFallos, aperturaMs, llamadasDePrueba, System::nanoTime);
+    }
+
+    CircuitBreaker(String nombre, int umbralFallos, long aperturaMs, int llamadasDePrueba, LongSupplier reloj) {
+        if (umbralFallos <= 0 || llamadasDePrueba <= 0) {
+            throw new IllegalArgumentException("El umbral de fallos y las llamadas de prueba deben ser mayores a cero");
+        }
+        this.nombre = nombre;
+        this.umbralFallos = umbralFallos;
+        this.aperturaNanos = TimeUnit.MILLISECONDS.toNanos(aperturaMs);
+        this.llamadasDePrueba = llamadasDePrueba;
+        this.reloj = reloj;
+    }
+
+    /**
+     * Ejecuta la llamada si el circuito lo permite
+     * @param llamada Llamada a la dependencia
+     * @param esFallo Indica qué excepciones cuentan como fallo de la dependencia
+     * @return Resultado de la llamada
+     * @throws CommunicationException si el circuito está abierto
+     */
+    public <T> T ejecutar(Supplier<T> llamada, Predicate<RuntimeException> esFallo) {
+        if (!permitir()) {
+            throw new CommunicationException("Circuito abierto: el servicio " + nombre + " no está disponible temporalmente");
+        }
+
+        T resultado;
+        try {
+            resultado = llamada.get();
+        } catch (RuntimeException e) {
+            if (esFallo.test(e)) {
+                registrarFallo();
+            } else {
+                registrarExito();
+            }
+            throw e;
+        }
+        registrarExito();
+        return resultado;
+    }
+
+    /**
+     * Variante para llamadas asíncronas: el resultado se registra cuando termina el futuro
+     * @param llamada Inicia la llamada a la dependencia
+     * @param esFallo Indica qué excepciones cuentan como fallo de la dependencia
+     * @return Futuro con el resultado, o fallido con CommunicationException si el circuito está abierto
+     */
+    public <T> CompletableFuture<T> ejecutarAsync(Supplier<CompletableFuture<T>> llamada,
+                                                  Predicate<RuntimeException> esFallo) {
+        if (!permitir()) {
+            return CompletableFuture.failedFuture(new CommunicationException(
+                    "Circuito abierto: el servicio " + nombre + " no está disponible temporalmente"));
+        }
+
+        CompletableFuture<T> futuro;
+        try {
+            futuro = llamada.get();
+        } catch (RuntimeException e) {
+            futuro = CompletableFuture.failedFuture(e);
+        }
+
+        return futuro.whenComplete((resultado, error) -> {
+            if (error == null) {
+                registrarExito();
+                return;
+            }
+            Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (causa instanceof RuntimeException e) {
+                if (esFallo.test(e)) {
+                    registrarFallo();
+                } else {
+                    registrarExito();
+                }
+            }
+        });
+    }
+
+    boolean permitir() {
+        if (estado == Estado.CERRADO) {
+            return true;
+        }
+
+        synchronized (this) {
+            if (estado == Estado.ABIERTO) {
+                if (reloj.getAsLong() - abiertoHasta < 0) {
+                    rechazadas.increment();
+                    return false;
+                }
+                log.info("Circuito {} semiabierto: probando la dependencia", nombre);
+                estado = Estado.SEMIABIERTO;
+                pruebasEnCurso = 0;
+            }
+
+            if (estado == Estado.SEMIABIERTO) {
+                if (pruebasEnCurso < llamadasDePrueba) {
+                    pruebasEnCurso++;
+                    return true;
+                }
+                rechazadas.increment();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    void registrarExito() {
+        if (estado == Estado.CERRADO) {
+            if (fallosConsecutivos.get() != 0) {
+                fallosConsecutivos.set(0);
+            }
+            return;
+        }
+
+        synchronized (this) {
+            if (estado == Estado.SEMIABIERTO) {
+                log.info("Circuito {} cerrado: la dependencia respondió correctamente", nombre);
+                estado = Estado.CERRADO;
+                fallosConsecutivos.set(0);
+            }
+        }
+    }
+
+    void registrarFallo() {
+        if (estado == Estado.CERRADO) {
+            if (fallosConsecutivos.incrementAndGet() >= umbralFallos) {
+                synchronized (this) {
+                    if (estado == Estado.CERRADO) {
+                        abrir();
+                    }
+                }
+            }
+            return;
+        }
+
+        synchronized (this) {
+            if (estado == Estado.SEMIABIERTO) {
+                abrir();
+            }
+        }
+    }
+
+    private void abrir() {
+        log.warn("Circuito {} abierto durante {} ms tras fallos de la dependencia",
+                nombre, TimeUnit.NANOSECONDS.toMillis(aperturaNanos));
+        estado = Estado.ABIERTO;
+        abiertoHasta = reloj.getAsLong() + aperturaNanos;
+        fallosConsecutivos.set(0);
+        aperturas.increment();
+    }
+
+    public Estado getEstado() {
+        return estado;
+    }
+
+    public long getRechazadas() {
+        return rechazadas.sum();
+    }
+
+    public long getAperturas() {
+        return aperturas.sum();
+    }
+}
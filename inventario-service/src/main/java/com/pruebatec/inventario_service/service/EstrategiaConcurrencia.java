@@ -0,0 +1,19 @@
+package com.pruebatec.inventario_service.service;
+
+/**
+ * Cómo se protegen las operaciones que leen y luego modifican un inventario
+ */
+public enum EstrategiaConcurrencia {
+
+    /**
+     * Se lee sin bloquear y la columna version detecta escrituras concurrentes;
+     * la operación en conflicto se revierte y se reintenta
+     */
+    OPTIMISTA,
+
+    /**
+     * Se bloquea la fila al leerla (SELECT ... FOR UPDATE) y las demás
+     * transacciones esperan a que termine
+     */
+    PESIMISTA
+}
@@ -2,6 +2,9 @@ package com.pruebatec.inventario_service.service;
 
 
 import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.LineaCompraDTO;
+
+import java.util.List;
 
 public interface InventarioService {
     
@@ -13,6 +16,15 @@ public interface InventarioService {
      */
     InventarioDTO getInventarioByProductoId(Long productoId);
     
+    /**
+     * Obtiene el inventario de varios productos con una sola lectura en base de datos
+     * y una sola consulta al servicio de productos. Los productos sin inventario se
+     * informan con cantidad 0 y los que no existen se omiten.
+     * @param productoIds IDs de los productos (los repetidos se consideran una vez)
+     * @return Inventarios en el orden de los IDs solicitados
+     */
+    List<InventarioDTO> getInventariosByProductoIds(List<Long> productoIds);
+    
     /**
      * Actualiza la cantidad de un producto en el inventario
      * @param productoId ID del producto
@@ -29,6 +41,14 @@ public interface InventarioService {
      */
     InventarioDTO registrarCompra(Long productoId, Integer cantidadComprada);
     
+    /**
+     * Registra en una sola transacción todas las líneas de un carrito.
+     * Si alguna línea no tiene stock suficiente no se aplica ninguna.
+     * @param lineas Líneas de compra (ID de producto y cantidad comprada)
+     * @return Inventarios actualizados, ordenados por ID de producto
+     */
+    List<InventarioDTO> registrarCompras(List<LineaCompraDTO> lineas);
+    
     /**
      * Registra una reposición de stock, aumentando la cantidad disponible
      * @param productoId ID del producto
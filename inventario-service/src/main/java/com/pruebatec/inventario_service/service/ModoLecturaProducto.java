@@ -0,0 +1,22 @@
+package com.pruebatec.inventario_service.service;
+
+/**
+ * Cómo se obtiene el producto al consultar un inventario
+ */
+public enum ModoLecturaProducto {
+
+    /**
+     * Se consulta el servicio de productos y un error de comunicación hace fallar la petición (503)
+     */
+    SINCRONO,
+
+    /**
+     * Se consulta el servicio de productos y, si no responde, se devuelve el inventario sin el producto
+     */
+    RESPALDO,
+
+    /**
+     * Solo se usa la caché local; si el producto no está se devuelve sin él y se refresca en segundo plano
+     */
+    CACHE
+}
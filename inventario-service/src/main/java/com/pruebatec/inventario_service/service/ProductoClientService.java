@@ -2,6 +2,8 @@ package com.pruebatec.inventario_service.service;
 
 import com.pruebatec.inventario_service.dto.ProductoDTO;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interfaz para el cliente que comunica con el servicio de productos
  */
@@ -14,6 +16,13 @@ public interface ProductoClientService {
      */
     ProductoDTO getProductoById(Long id);
     
+    /**
+     * Obtiene un producto por su ID sin bloquear el hilo que llama
+     * @param id ID del producto a buscar
+     * @return Futuro con el producto; falla con las mismas excepciones que {@link #getProductoById(Long)}
+     */
+    CompletableFuture<ProductoDTO> getProductoByIdAsync(Long id);
+    
     /**
      * Clase interna para manejar la respuesta JSON API
      */
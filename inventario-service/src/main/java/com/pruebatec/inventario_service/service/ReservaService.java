@@ -0,0 +1,31 @@
+package com.pruebatec.inventario_service.service;
+
+
+import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.ReservaDTO;
+
+public interface ReservaService {
+    
+    /**
+     * Aparta stock de un producto durante un tiempo limitado. Mientras la reserva está
+     * activa esa cantidad no se puede vender ni reservar de nuevo; si no se confirma
+     * ni se libera antes de vencer vuelve a estar disponible.
+     * @param productoId ID del producto
+     * @param cantidad Cantidad a reservar
+     * @return Reserva creada, con su vencimiento y el stock disponible restante
+     */
+    ReservaDTO reservar(Long productoId, Integer cantidad);
+    
+    /**
+     * Confirma una reserva activa descontando su cantidad del inventario
+     * @param reservaId ID de la reserva
+     * @return InventarioDTO actualizado
+     */
+    InventarioDTO confirmar(String reservaId);
+    
+    /**
+     * Libera una reserva activa devolviendo su cantidad al stock disponible
+     * @param reservaId ID de la reserva
+     */
+    void liberar(String reservaId);
+}
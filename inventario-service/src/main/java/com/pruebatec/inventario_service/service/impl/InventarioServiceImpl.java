@@ -1,21 +1,51 @@
 package com.pruebatec.inventario_service.service.impl;
 
 import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.LineaCompraDTO;
 import com.pruebatec.inventario_service.dto.ProductoDTO;
 import com.pruebatec.inventario_service.entity.Inventario;
 import com.pruebatec.inventario_service.event.InventarioEventPublisher;
 import com.pruebatec.inventario_service.exception.CommunicationException;
+import com.pruebatec.inventario_service.exception.ProductoNotFoundException;
 import com.pruebatec.inventario_service.exception.ResourceNotFoundException;
 import com.pruebatec.inventario_service.mapper.InventarioMapper;
 import com.pruebatec.inventario_service.repository.InventarioRepository;
+import com.pruebatec.inventario_service.service.EstrategiaConcurrencia;
 import com.pruebatec.inventario_service.service.InventarioService;
+import com.pruebatec.inventario_service.service.ModoLecturaProducto;
+import com.pruebatec.inventario_service.stock.LibroStockCaliente;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
 @Service
-public class InventarioServiceImpl implements InventarioService {
+public class InventarioServiceImpl implements InventarioService, MeterBinder {
 
     private static final Logger log = LoggerFactory.getLogger(InventarioServiceImpl.class);
     
@@ -24,6 +54,28 @@ public class InventarioServiceImpl implements InventarioService {
     private final ProductoClientServiceImpl productoClientService;
     private final InventarioEventPublisher eventPublisher;
     
+    @Value("${inventario.lectura.modo-producto:SINCRONO}")
+    private ModoLecturaProducto modoLecturaProducto = ModoLecturaProducto.SINCRONO;
+    
+    // Plazo común de la lectura del inventario y de la consulta del producto, que corren en paralelo
+    @Value("${inventario.lectura.plazo-ms:3000}")
+    private long plazoLecturaMs = 3000;
+    
+    @Value("${inventario.lectura.max-ids:100}")
+    private int maxIdsPorLectura = 100;
+    
+    @Value("${inventario.concurrencia.estrategia:OPTIMISTA}")
+    private EstrategiaConcurrencia estrategiaConcurrencia = EstrategiaConcurrencia.OPTIMISTA;
+    
+    // Solo existe si está activo el stock en memoria para productos calientes
+    @Autowired(required = false)
+    private LibroStockCaliente libroStockCaliente;
+    
+    // Latencia de cada tramo de la lectura; sin registro de métricas (pruebas unitarias) no se mide
+    private volatile Timer tramoInventario;
+    private volatile Timer tramoProducto;
+    private final LongAdder plazosAgotados = new LongAdder();
+    
     public InventarioServiceImpl(
             InventarioRepository inventarioRepository,
             InventarioMapper inventarioMapper,
@@ -39,23 +91,49 @@ public class InventarioServiceImpl implements InventarioService {
     public InventarioDTO getInventarioByProductoId(Long productoId) {
         log.info("Obteniendo inventario para el producto ID: {}", productoId);
         
-        // Buscar inventario por ID de producto
-        Inventario inventario = inventarioRepository.findByProductoId(productoId)
-                .orElseGet(() -> {
-                    // Si no existe, crear uno nuevo con cantidad 0
-                    log.info("No se encontró inventario para el producto ID: {}. Creando nuevo.", productoId);
-                    Inventario nuevo = new Inventario();
-                    nuevo.setProductoId(productoId);
-                    nuevo.setCantidad(0);
-                    return inventarioRepository.save(nuevo);
-                });
+        // Los dos tramos corren en paralelo y comparten el mismo plazo: el producto se pide
+        // antes de leer el inventario y se espera solo el tiempo que quede al terminar la lectura
+        // (en modo caché no se espera al servicio)
+        long inicio = System.nanoTime();
+        long limite = inicio + TimeUnit.MILLISECONDS.toNanos(plazoLecturaMs);
+        CompletableFuture<ProductoDTO> productoPendiente = null;
+        if (modoLecturaProducto != ModoLecturaProducto.CACHE) {
+            productoPendiente = productoClientService.getProductoByIdAsync(productoId);
+            productoPendiente.whenComplete((producto, error) -> registrarTramo(tramoProducto, inicio));
+        }
+        
+        // Buscar inventario por ID de producto; si no existe, crearlo con cantidad 0
+        Inventario inventario;
+        try {
+            inventario = inventarioRepository.findByProductoId(productoId)
+                    .or(() -> crearInventario(productoId))
+                    .orElseThrow(() -> new ProductoNotFoundException(productoId));
+        } finally {
+            registrarTramo(tramoInventario, inicio);
+        }
         
         // Convertir a DTO
         InventarioDTO inventarioDTO = inventarioMapper.toDTO(inventario);
+        inventarioDTO.setCantidadReservada(inventario.getReservado());
+        
+        // El stock de los productos calientes está al día en memoria, no en la fila
+        if (esCaliente(productoId)) {
+            inventarioDTO.setCantidad(libroStockCaliente.disponible(productoId));
+        }
+        
+        if (modoLecturaProducto == ModoLecturaProducto.CACHE) {
+            completarProductoDesdeCache(inventarioDTO);
+            return inventarioDTO;
+        }
+        
+        if (modoLecturaProducto == ModoLecturaProducto.RESPALDO) {
+            completarProductoConRespaldo(inventarioDTO, productoPendiente, limite);
+            return inventarioDTO;
+        }
         
         try {
             // Obtener información del producto desde el servicio de productos
-            ProductoDTO productoDTO = productoClientService.getProductoById(productoId);
+            ProductoDTO productoDTO = esperarProducto(productoPendiente, limite);
             inventarioDTO.setProducto(productoDTO);
         } catch (CommunicationException e) {
             log.error("Error al comunicarse con el servicio de productos: {}", e.getMessage());
@@ -72,9 +150,194 @@ public class InventarioServiceImpl implements InventarioService {
         
         return inventarioDTO;
     }
+    
+    @Override
+    public List<InventarioDTO> getInventariosByProductoIds(List<Long> productoIds) {
+        if (productoIds == null || productoIds.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un ID de producto");
+        }
+        Set<Long> ids = new LinkedHashSet<>(productoIds);
+        if (ids.size() > maxIdsPorLectura) {
+            throw new IllegalArgumentException(
+                    "No se pueden consultar más de " + maxIdsPorLectura + " inventarios por solicitud");
+        }
+        log.info("Obteniendo inventario de {} productos", ids.size());
+        
+        // Una sola lectura de todas las filas (el ID del inventario es el del producto)
+        Map<Long, Inventario> inventariosPorProducto = new HashMap<>();
+        for (Inventario inventario : inventarioRepository.findAllById(ids)) {
+            inventariosPorProducto.put(inventario.getProductoId(), inventario);
+        }
+        
+        // Los productos sin fila se informan con cantidad 0 sin crearla: la lectura no escribe
+        Set<Long> existentesSinInventario = new HashSet<>();
+        if (inventariosPorProducto.size() < ids.size()) {
+            List<Long> sinInventario = ids.stream().filter(id -> !inventariosPorProducto.containsKey(id)).toList();
+            for (Number id : inventarioRepository.findProductosExistentes(sinInventario)) {
+                existentesSinInventario.add(id.longValue());
+            }
+        }
+        
+        List<InventarioDTO> inventarios = new ArrayList<>(ids.size());
+        for (Long productoId : ids) {
+            Inventario inventario = inventariosPorProducto.get(productoId);
+            if (inventario == null) {
+                if (!existentesSinInventario.contains(productoId)) {
+                    log.debug("El producto ID {} no existe, se omite de la respuesta", productoId);
+                    continue;
+                }
+                inventario = new Inventario(productoId, 0);
+            }
+            
+            InventarioDTO inventarioDTO = inventarioMapper.toDTO(inventario);
+            inventarioDTO.setCantidadReservada(inventario.getReservado());
+            if (esCaliente(productoId)) {
+                inventarioDTO.setCantidad(libroStockCaliente.disponible(productoId));
+            }
+            inventarios.add(inventarioDTO);
+        }
+        
+        completarProductos(inventarios);
+        return inventarios;
+    }
+    
+    /**
+     * Completa los productos de varios inventarios según el modo de lectura: en modo caché
+     * solo con la caché local; en los demás con una sola consulta al servicio de productos.
+     * Si el servicio no responde, el modo síncrono falla y el de respaldo omite los productos.
+     */
+    private void completarProductos(List<InventarioDTO> inventarios) {
+        if (inventarios.isEmpty()) {
+            return;
+        }
+        
+        if (modoLecturaProducto == ModoLecturaProducto.CACHE) {
+            inventarios.forEach(this::completarProductoDesdeCache);
+            return;
+        }
+        
+        Map<Long, ProductoDTO> productos;
+        try {
+            productos = productoClientService.getProductosByIds(
+                    inventarios.stream().map(InventarioDTO::getProductoId).toList());
+        } catch (CommunicationException e) {
+            if (modoLecturaProducto == ModoLecturaProducto.SINCRONO) {
+                log.error("Error al comunicarse con el servicio de productos: {}", e.getMessage());
+                throw e;
+            }
+            log.warn("Servicio de productos no disponible, se devuelven {} inventarios sin el producto: {}",
+                    inventarios.size(), e.getMessage());
+            inventarios.forEach(inventarioDTO -> inventarioDTO.setProductoNoDisponible(true));
+            return;
+        }
+        
+        for (InventarioDTO inventarioDTO : inventarios) {
+            ProductoDTO productoDTO = productos.get(inventarioDTO.getProductoId());
+            if (productoDTO != null) {
+                inventarioDTO.setProducto(productoDTO);
+            } else {
+                inventarioDTO.setProductoNoDisponible(true);
+            }
+        }
+    }
+    
+    /**
+     * Completa el producto solo con la caché local, sin esperar al servicio de productos.
+     * Si no está en caché se omite y se pide en segundo plano para las siguientes lecturas.
+     */
+    private void completarProductoDesdeCache(InventarioDTO inventarioDTO) {
+        Long productoId = inventarioDTO.getProductoId();
+        ProductoDTO productoDTO = productoClientService.getProductoEnCache(productoId);
+        
+        if (productoDTO != null) {
+            inventarioDTO.setProducto(productoDTO);
+            return;
+        }
+        
+        log.debug("Producto con ID {} no está en caché, se omite de la respuesta", productoId);
+        inventarioDTO.setProductoNoDisponible(true);
+        productoClientService.refrescarEnSegundoPlano(productoId);
+    }
+    
+    /**
+     * Completa el producto consultando el servicio de productos; si no responde
+     * se devuelve el inventario sin el producto en lugar de fallar la petición
+     */
+    private void completarProductoConRespaldo(InventarioDTO inventarioDTO, CompletableFuture<ProductoDTO> productoPendiente,
+                                              long limite) {
+        try {
+            inventarioDTO.setProducto(esperarProducto(productoPendiente, limite));
+        } catch (CommunicationException e) {
+            log.warn("Servicio de productos no disponible, se devuelve el inventario {} sin el producto: {}",
+                    inventarioDTO.getProductoId(), e.getMessage());
+            inventarioDTO.setProductoNoDisponible(true);
+        }
+    }
+
+    /**
+     * Espera al producto pedido en paralelo como mucho hasta el límite de la lectura y relanza
+     * el error original de la consulta (CommunicationException, ResourceNotFoundException).
+     * Si se agota el plazo se abandona la espera; la consulta compartida sigue su curso y
+     * deja el producto en caché para las siguientes lecturas.
+     */
+    private ProductoDTO esperarProducto(CompletableFuture<ProductoDTO> productoPendiente, long limite) {
+        try {
+            return productoPendiente.get(Math.max(limite - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new CommunicationException("Error al obtener el producto", e.getCause());
+        } catch (TimeoutException e) {
+            plazosAgotados.increment();
+            productoPendiente.cancel(false);
+            throw new CommunicationException("Plazo de " + plazoLecturaMs + " ms agotado esperando al servicio de productos");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommunicationException("Lectura del producto interrumpida", e);
+        }
+    }
+    
+    private static void registrarTramo(Timer tramo, long inicio) {
+        if (tramo != null) {
+            tramo.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * Veces que la consulta del producto no terminó dentro del plazo de la lectura
+     */
+    public long getPlazosAgotados() {
+        return plazosAgotados.sum();
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Histograma por tramo para ajustar el plazo de la lectura (inventario.lectura.plazo-ms)
+        tramoInventario = Timer.builder("inventario.lectura.tramo")
+                .description("Duración de cada tramo de la lectura de un inventario, desde que empieza la lectura")
+                .tag("tramo", "inventario")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        tramoProducto = Timer.builder("inventario.lectura.tramo")
+                .description("Duración de cada tramo de la lectura de un inventario, desde que empieza la lectura")
+                .tag("tramo", "producto")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        FunctionCounter.builder("inventario.lectura.plazos_agotados", this, InventarioServiceImpl::getPlazosAgotados)
+                .description("Lecturas en las que el producto no llegó dentro del plazo")
+                .register(registry);
+    }
 
     @Override
     @Transactional
+    @Retryable(
+            retryFor = {ConcurrencyFailureException.class, DataIntegrityViolationException.class},
+            maxAttemptsExpression = "${inventario.concurrencia.max-intentos:5}",
+            backoff = @Backoff(delayExpression = "${inventario.concurrencia.espera-ms:5}", multiplier = 2, random = true),
+            listeners = "inventarioConflictosListener")
     public InventarioDTO actualizarCantidad(Long productoId, Integer cantidad) {
         log.info("Actualizando cantidad en inventario para producto ID: {} a {}", productoId, cantidad);
         
@@ -82,22 +345,21 @@ public class InventarioServiceImpl implements InventarioService {
             throw new IllegalArgumentException("La cantidad no puede ser negativa");
         }
         
-        // Buscar inventario por ID de producto
-        Inventario inventario = inventarioRepository.findByProductoId(productoId)
-                .orElseGet(() -> {
-                    try {
-                        // Si no existe, verificar que el producto existe en el servicio de productos
-                        productoClientService.getProductoById(productoId);
-                    } catch (CommunicationException e) {
-                        log.warn("No se pudo verificar el producto. Asumiendo que existe.");
-                    }
-                    
-                    // Crear nuevo registro de inventario
-                    Inventario nuevo = new Inventario();
-                    nuevo.setProductoId(productoId);
-                    nuevo.setCantidad(0);
-                    return nuevo;
-                });
+        if (esCaliente(productoId)) {
+            int cantidadFijada = libroStockCaliente.fijar(productoId, cantidad);
+            return publicarCambioCaliente(productoId, cantidadFijada, InventarioEventPublisher.TipoOperacion.ACTUALIZACIÓN);
+        }
+        
+        // Buscar inventario por ID de producto según la estrategia de concurrencia
+        Inventario inventario = buscarOCrearParaModificar(productoId);
+        
+        // No dejar menos stock del que ya está apartado por reservas activas; una reserva
+        // simultánea cambia la versión, así que la comprobación vale también en modo optimista
+        if (cantidad < inventario.getReservado()) {
+            throw new IllegalArgumentException(String.format(
+                    "La cantidad %d es menor que la reservada (%d) para el producto %d",
+                    cantidad, inventario.getReservado(), productoId));
+        }
         
         // Actualizar cantidad
         inventario.setCantidad(cantidad);
@@ -123,38 +385,27 @@ public class InventarioServiceImpl implements InventarioService {
             throw new IllegalArgumentException("La cantidad comprada debe ser mayor a cero");
         }
         
-        // Buscar inventario por ID de producto
-        Inventario inventario = inventarioRepository.findByProductoId(productoId)
-                .orElseGet(() -> {
-                    try {
-                        // Si no existe, verificar que el producto existe en el servicio de productos
-                        productoClientService.getProductoById(productoId);
-                    } catch (CommunicationException e) {
-                        log.warn("No se pudo verificar el producto. Asumiendo que existe.");
-                    }
-                    
-                    // Crear nuevo registro de inventario
-                    Inventario nuevo = new Inventario();
-                    nuevo.setProductoId(productoId);
-                    nuevo.setCantidad(0);
-                    return inventarioRepository.save(nuevo);
-                });
-        
-        // Verificar si hay suficiente stock
-        if (inventario.getCantidad() < cantidadComprada) {
-            throw new IllegalArgumentException(
-                    String.format("Stock insuficiente. Stock actual: %d, Cantidad solicitada: %d", 
-                            inventario.getCantidad(), cantidadComprada));
+        if (esCaliente(productoId)) {
+            Integer restante = libroStockCaliente.comprar(productoId, cantidadComprada);
+            if (restante == null) {
+                throw stockInsuficiente(productoId, cantidadComprada);
+            }
+            return publicarCambioCaliente(productoId, restante, InventarioEventPublisher.TipoOperacion.COMPRA);
         }
         
-        // Actualizar cantidad (restar la cantidad comprada)
-        inventario.setCantidad(inventario.getCantidad() - cantidadComprada);
+        // Descontar el stock en una sola sentencia condicional (sin leer y guardar la entidad)
+        int filasActualizadas = inventarioRepository.descontarStock(productoId, cantidadComprada);
         
-        // Guardar en base de datos
-        Inventario inventarioActualizado = inventarioRepository.save(inventario);
+        if (filasActualizadas == 0) {
+            throw stockInsuficiente(productoId, cantidadComprada);
+        }
+        
+        // Leer la cantidad resultante dentro de la misma transacción
+        Integer nuevaCantidad = inventarioRepository.findCantidadByProductoId(productoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventario", "productoId", productoId));
         
         // Convertir a DTO
-        InventarioDTO inventarioDTO = inventarioMapper.toDTO(inventarioActualizado);
+        InventarioDTO inventarioDTO = inventarioMapper.toDTO(new Inventario(productoId, nuevaCantidad));
         
         // Publicar evento de cambio de inventario
         eventPublisher.publicarCambioInventario(inventarioDTO, InventarioEventPublisher.TipoOperacion.COMPRA);
@@ -164,6 +415,61 @@ public class InventarioServiceImpl implements InventarioService {
     
     @Override
     @Transactional
+    public List<InventarioDTO> registrarCompras(List<LineaCompraDTO> lineas) {
+        if (lineas == null || lineas.isEmpty()) {
+            throw new IllegalArgumentException("La compra debe contener al menos una línea");
+        }
+        
+        // Agrupar líneas del mismo producto y ordenar por ID para que todas las
+        // transacciones bloqueen las filas en el mismo orden y no haya interbloqueos
+        Map<Long, Integer> cantidadesPorProducto = new TreeMap<>();
+        for (LineaCompraDTO linea : lineas) {
+            if (linea == null || linea.getProductoId() == null || linea.getCantidadComprada() == null) {
+                throw new IllegalArgumentException("Cada línea debe indicar productoId y cantidadComprada");
+            }
+            if (linea.getCantidadComprada() <= 0) {
+                throw new IllegalArgumentException("La cantidad comprada debe ser mayor a cero");
+            }
+            cantidadesPorProducto.merge(linea.getProductoId(), linea.getCantidadComprada(), Integer::sum);
+        }
+        
+        log.info("Registrando compra de {} productos en una sola transacción", cantidadesPorProducto.size());
+        
+        List<InventarioDTO> inventariosActualizados = new ArrayList<>(cantidadesPorProducto.size());
+        for (Map.Entry<Long, Integer> entrada : cantidadesPorProducto.entrySet()) {
+            Long productoId = entrada.getKey();
+            Integer cantidadComprada = entrada.getValue();
+            
+            // Si una línea falla, la excepción revierte las líneas ya descontadas
+            Integer nuevaCantidad;
+            if (esCaliente(productoId)) {
+                nuevaCantidad = libroStockCaliente.comprar(productoId, cantidadComprada);
+                if (nuevaCantidad == null) {
+                    throw stockInsuficiente(productoId, cantidadComprada);
+                }
+            } else {
+                if (inventarioRepository.descontarStock(productoId, cantidadComprada) == 0) {
+                    throw stockInsuficiente(productoId, cantidadComprada);
+                }
+                nuevaCantidad = inventarioRepository.findCantidadByProductoId(productoId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Inventario", "productoId", productoId));
+            }
+            inventariosActualizados.add(inventarioMapper.toDTO(new Inventario(productoId, nuevaCantidad)));
+        }
+        
+        // Publicar un único evento con todos los cambios del carrito
+        eventPublisher.publicarCambiosInventario(inventariosActualizados, InventarioEventPublisher.TipoOperacion.COMPRA);
+        
+        return inventariosActualizados;
+    }
+    
+    @Override
+    @Transactional
+    @Retryable(
+            retryFor = {ConcurrencyFailureException.class, DataIntegrityViolationException.class},
+            maxAttemptsExpression = "${inventario.concurrencia.max-intentos:5}",
+            backoff = @Backoff(delayExpression = "${inventario.concurrencia.espera-ms:5}", multiplier = 2, random = true),
+            listeners = "inventarioConflictosListener")
     public InventarioDTO registrarReposicion(Long productoId, Integer cantidadRepuesta) {
         log.info("Registrando reposición de stock para producto ID: {}, cantidad: {}", productoId, cantidadRepuesta);
         
@@ -171,22 +477,13 @@ public class InventarioServiceImpl implements InventarioService {
             throw new IllegalArgumentException("La cantidad repuesta debe ser mayor a cero");
         }
         
-        // Buscar inventario por ID de producto
-        Inventario inventario = inventarioRepository.findByProductoId(productoId)
-                .orElseGet(() -> {
-                    try {
-                        // Si no existe, verificar que el producto existe en el servicio de productos
-                        productoClientService.getProductoById(productoId);
-                    } catch (CommunicationException e) {
-                        log.warn("No se pudo verificar el producto. Asumiendo que existe.");
-                    }
-                    
-                    // Crear nuevo registro de inventario
-                    Inventario nuevo = new Inventario();
-                    nuevo.setProductoId(productoId);
-                    nuevo.setCantidad(0);
-                    return inventarioRepository.save(nuevo);
-                });
+        if (esCaliente(productoId)) {
+            int nuevaCantidad = libroStockCaliente.reponer(productoId, cantidadRepuesta);
+            return publicarCambioCaliente(productoId, nuevaCantidad, InventarioEventPublisher.TipoOperacion.REPOSICIÓN);
+        }
+        
+        // Buscar inventario por ID de producto según la estrategia de concurrencia
+        Inventario inventario = buscarOCrearParaModificar(productoId);
         
         // Actualizar cantidad (sumar la cantidad repuesta)
         inventario.setCantidad(inventario.getCantidad() + cantidadRepuesta);
@@ -202,4 +499,80 @@ public class InventarioServiceImpl implements InventarioService {
         
         return inventarioDTO;
     }
+    
+    private boolean esCaliente(Long productoId) {
+        return libroStockCaliente != null && libroStockCaliente.gestiona(productoId);
+    }
+    
+    /**
+     * Publica el cambio de un producto caliente, cuyo stock ya se registró en memoria
+     */
+    private InventarioDTO publicarCambioCaliente(Long productoId, int cantidad, InventarioEventPublisher.TipoOperacion tipoOperacion) {
+        InventarioDTO inventarioDTO = inventarioMapper.toDTO(new Inventario(productoId, cantidad));
+        eventPublisher.publicarCambioInventario(inventarioDTO, tipoOperacion);
+        return inventarioDTO;
+    }
+    
+    /**
+     * Crea el inventario del producto con cantidad 0 (si el producto existe) y lo lee.
+     * Fuera de una transacción la creación se confirma por sí sola; si otra solicitud
+     * creó la fila al mismo tiempo se lee la suya.
+     */
+    private Optional<Inventario> crearInventario(Long productoId) {
+        log.info("No se encontró inventario para el producto ID: {}. Creando nuevo.", productoId);
+        try {
+            inventarioRepository.crearSiNoExiste(productoId);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("El inventario del producto ID {} se creó en otra solicitud", productoId);
+        }
+        return inventarioRepository.findByProductoId(productoId);
+    }
+    
+    /**
+     * Lee el inventario que se va a modificar y, si el producto aún no tiene, lo crea
+     * con cantidad 0. La existencia del producto se comprueba en la misma sentencia de
+     * creación, sin llamar al servicio de productos con la transacción abierta.
+     * Si otra solicitud crea la fila al mismo tiempo, la clave única de producto_id
+     * rechaza el duplicado y el reintento de la operación lee la fila ya creada.
+     */
+    private Inventario buscarOCrearParaModificar(Long productoId) {
+        return buscarParaModificar(productoId)
+                .or(() -> {
+                    log.info("No se encontró inventario para el producto ID: {}. Creando nuevo.", productoId);
+                    inventarioRepository.crearSiNoExiste(productoId);
+                    return buscarParaModificar(productoId);
+                })
+                .orElseThrow(() -> new ProductoNotFoundException(productoId));
+    }
+    
+    /**
+     * Lee el inventario que se va a modificar: con la estrategia pesimista bloquea la fila;
+     * con la optimista la lee sin bloqueo y la versión detecta los conflictos al guardar
+     */
+    private Optional<Inventario> buscarParaModificar(Long productoId) {
+        if (estrategiaConcurrencia == EstrategiaConcurrencia.PESIMISTA) {
+            return inventarioRepository.findByProductoIdParaActualizar(productoId);
+        }
+        return inventarioRepository.findByProductoId(productoId);
+    }
+    
+    /**
+     * Construye el error de stock insuficiente para una compra que no pudo descontarse.
+     * Si el producto no tiene inventario se verifica que exista en la tabla de productos
+     * y se informa stock 0.
+     */
+    private RuntimeException stockInsuficiente(Long productoId, Integer cantidadComprada) {
+        Optional<Integer> cantidadRegistrada = esCaliente(productoId)
+                ? Optional.of(libroStockCaliente.disponible(productoId))
+                : inventarioRepository.findCantidadByProductoId(productoId);
+        
+        if (cantidadRegistrada.isEmpty() && inventarioRepository.contarProductos(productoId) == 0) {
+            return new ProductoNotFoundException(productoId);
+        }
+        Integer stockActual = cantidadRegistrada.orElse(0);
+        
+        return new IllegalArgumentException(
+                String.format("Stock insuficiente para el producto %d. Stock actual: %d, Cantidad solicitada: %d", 
+                        productoId, stockActual, cantidadComprada));
+    }
 }
\ No newline at end of file
@@ -1,116 +1,210 @@
 package com.pruebatec.inventario_service.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebatec.inventario_service.cache.ConsultasEnVuelo;
+import com.pruebatec.inventario_service.cache.ProductoCache;
+import com.pruebatec.inventario_service.dto.CambiosProductoDTO;
 import com.pruebatec.inventario_service.dto.ProductoDTO;
 import com.pruebatec.inventario_service.exception.CommunicationException;
 import com.pruebatec.inventario_service.exception.ResourceNotFoundException;
+import com.pruebatec.inventario_service.json.ProductoJsonApiDecoder;
+import com.pruebatec.inventario_service.resilience.Bulkhead;
+import com.pruebatec.inventario_service.resilience.CircuitBreaker;
 import com.pruebatec.inventario_service.service.ProductoClientService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
 @Service
-public class ProductoClientServiceImpl implements ProductoClientService {
+public class ProductoClientServiceImpl implements ProductoClientService, MeterBinder {
 
     private static final Logger log = LoggerFactory.getLogger(ProductoClientServiceImpl.class);
     
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final ProductoJsonApiDecoder productoDecoder;
+    private final ProductoCache productoCache;
+    private final ConsultasEnVuelo<Long, ProductoDTO> consultasEnVuelo = new ConsultasEnVuelo<>();
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Executor refrescoExecutor;
+    private final HttpClient httpClientAsync;
     
     @Value("${producto.service.url}")
     private String productoServiceUrl;
     
-    public ProductoClientServiceImpl(RestTemplate restTemplate) {
+    @Value("${api.key}")
+    private String apiKey;
+    
+    @Value("${resttemplate.read.timeout:5000}")
+    private long readTimeout = 5000;
+    
+    // Límite de IDs por consulta del servicio de productos (producto.bulk.max-ids)
+    @Value("${producto.client.bulk.max-ids:100}")
+    private int maxIdsPorConsulta = 100;
+    
+    public ProductoClientServiceImpl(RestTemplate restTemplate, ProductoCache productoCache,
+                                     CircuitBreaker productoCircuitBreaker, Bulkhead productoBulkhead,
+                                     @Qualifier("productoRefrescoExecutor") Executor refrescoExecutor,
+                                     HttpClient productoHttpClientAsync) {
         this.restTemplate = restTemplate;
         this.objectMapper = new ObjectMapper();
+        this.productoDecoder = new ProductoJsonApiDecoder(objectMapper.getFactory());
+        this.productoCache = productoCache;
+        this.circuitBreaker = productoCircuitBreaker;
+        this.bulkhead = productoBulkhead;
+        this.refrescoExecutor = refrescoExecutor;
+        this.httpClientAsync = productoHttpClientAsync;
     }
     
     @Override
     public ProductoDTO getProductoById(Long id) {
+        // Servir desde la caché local si el producto se consultó recientemente
+        ProductoDTO enCache = productoCache.get(id);
+        if (enCache != null) {
+            log.debug("Producto con ID {} obtenido de la caché local", id);
+            return enCache;
+        }
+        
+        // Las peticiones concurrentes por el mismo producto comparten una sola llamada remota
+        return consultasEnVuelo.ejecutar(id, clave -> llamarProtegido(() -> consultarProducto(clave)));
+    }
+    
+    @Override
+    public CompletableFuture<ProductoDTO> getProductoByIdAsync(Long id) {
+        ProductoDTO enCache = productoCache.get(id);
+        if (enCache != null) {
+            log.debug("Producto con ID {} obtenido de la caché local", id);
+            return CompletableFuture.completedFuture(enCache);
+        }
+        
+        // Comparte la consulta con las síncronas y asíncronas en curso por el mismo producto
+        return consultasEnVuelo.ejecutarAsync(id, clave -> bulkhead.ejecutarAsync(
+                () -> circuitBreaker.ejecutarAsync(() -> consultarProductoAsync(clave),
+                        e -> e instanceof CommunicationException)));
+    }
+    
+    /**
+     * Obtiene varios productos: los que están en la caché local se sirven de ella y el resto
+     * se piden con una sola consulta filter[id] por cada bloque de hasta producto.client.bulk.max-ids.
+     * Los IDs que no existen en el servicio de productos no aparecen en el resultado.
+     * @param ids IDs de los productos
+     * @return Productos encontrados por ID
+     */
+    public Map<Long, ProductoDTO> getProductosByIds(Collection<Long> ids) {
+        Map<Long, ProductoDTO> productos = new HashMap<>();
+        Set<Long> faltantes = new LinkedHashSet<>();
+        for (Long id : ids) {
+            ProductoDTO enCache = productoCache.get(id);
+            if (enCache != null) {
+                productos.put(id, enCache);
+            } else {
+                faltantes.add(id);
+            }
+        }
+        
+        List<Long> pendientes = new ArrayList<>(faltantes);
+        
+        for (int desde = 0; desde < pendientes.size(); desde += maxIdsPorConsulta) {
+            List<Long> bloque = pendientes.subList(desde, Math.min(desde + maxIdsPorConsulta, pendientes.size()));
+            productos.putAll(llamarProtegido(() -> consultarProductos(bloque)));
+        }
+        return productos;
+    }
+    
+    /**
+     * Obtiene el producto solo de la caché local, sin llamar al servicio de productos
+     * @param id ID del producto
+     * @return El producto, o null si no está en caché
+     */
+    public ProductoDTO getProductoEnCache(Long id) {
+        return productoCache.get(id);
+    }
+    
+    /**
+     * Consulta el producto en segundo plano para dejarlo en la caché local.
+     * Si la cola de refrescos está llena la petición se descarta.
+     * @param id ID del producto
+     */
+    public void refrescarEnSegundoPlano(Long id) {
+        try {
+            refrescoExecutor.execute(() -> {
+                try {
+                    getProductoById(id);
+                } catch (RuntimeException e) {
+                    log.debug("No se pudo refrescar el producto con ID {}: {}", id, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Cola de refrescos llena, se descarta el refresco del producto con ID {}", id);
+        }
+    }
+    
+    /**
+     * Ejecuta una llamada al servicio de productos limitando la concurrencia y a través
+     * del circuito, para fallar rápido en lugar de acumular hilos esperando a un servicio lento.
+     * El rechazo del bulkhead no cuenta como fallo del servicio; solo los errores de comunicación abren el circuito.
+     */
+    private <T> T llamarProtegido(Supplier<T> llamada) {
+        return bulkhead.ejecutar(() -> circuitBreaker.ejecutar(llamada, e -> e instanceof CommunicationException));
+    }
+    
+    /**
+     * Consulta un producto al servicio de productos y lo guarda en la caché local
+     */
+    private ProductoDTO consultarProducto(Long id) {
+        long generacionCache = productoCache.generacion();
         try {
             log.info("Obteniendo producto con ID: {}", id);
             // Construir URL para obtener un producto específico
             String url = productoServiceUrl + "/api/productos/" + id;
             
-            // Para depuración
-            log.info("Realizando petición a: {}", url);
-            
-            // Obtener la respuesta como String para procesarla manualmente
-            ResponseEntity<String> responseEntity = restTemplate.getForEntity(url, String.class);
-            String jsonResponse = responseEntity.getBody();
+            log.debug("Realizando petición a: {}", url);
             
-            log.info("Respuesta recibida: {}", jsonResponse);
+            // Decodificar el cuerpo directamente desde el flujo de la respuesta
+            ProductoDTO productoDTO = restTemplate.execute(url, HttpMethod.GET, null,
+                    response -> productoDecoder.decodificar(response.getBody(), id));
             
-            if (jsonResponse == null || jsonResponse.isEmpty()) {
-                log.error("La respuesta del servicio de productos está vacía");
+            // Si la respuesta no contiene el producto con sus atributos
+            if (productoDTO == null) {
+                log.error("No se encontró el producto con ID: {} en la respuesta", id);
                 throw new ResourceNotFoundException("Producto", "id", id);
             }
             
-            // Deserializar el JSON
-            JsonNode rootNode = objectMapper.readTree(jsonResponse);
-            JsonNode dataNode = rootNode.get("data");
-            
-            // Verificar si data existe
-            if (dataNode == null) {
-                log.error("La respuesta no contiene el nodo 'data'");
-                throw new ResourceNotFoundException("Producto", "id", id);
-            }
-            
-            // Procesar el nodo data
-            JsonNode productoNode = null;
-            
-            // Si data es un array, buscar el producto con el ID correcto
-            if (dataNode.isArray()) {
-                for (JsonNode node : dataNode) {
-                    if (node.has("id") && node.get("id").asText().equals(id.toString())) {
-                        productoNode = node;
-                        break;
-                    }
-                }
-            } else {
-                // Si data es un objeto individual, verificar si es el ID correcto
-                if (dataNode.has("id") && dataNode.get("id").asText().equals(id.toString())) {
-                    productoNode = dataNode;
-                }
-            }
-            
-            // Si no se encontró el producto
-            if (productoNode == null) {
-                log.error("No se encontró el producto con ID: {}", id);
-                throw new ResourceNotFoundException("Producto", "id", id);
-            }
-            
-            // Verificar si tiene atributos
-            JsonNode attributesNode = productoNode.get("attributes");
-            if (attributesNode == null) {
-                log.error("El producto no tiene atributos definidos");
-                throw new ResourceNotFoundException("Producto", "id", id);
-            }
-            
-            // Extraer datos del producto
-            ProductoDTO productoDTO = new ProductoDTO();
-            productoDTO.setId(Long.parseLong(productoNode.get("id").asText()));
-            
-            // Extraer nombre y precio de attributes
-            if (attributesNode.has("nombre")) {
-                productoDTO.setNombre(attributesNode.get("nombre").asText());
-            } else {
-                productoDTO.setNombre("Producto sin nombre");
-            }
-            
-            if (attributesNode.has("precio")) {
-                productoDTO.setPrecio(attributesNode.get("precio").asDouble());
-            } else {
-                productoDTO.setPrecio(0.0);
-            }
+            // Solo se guardan en caché respuestas reales, nunca el producto temporal
+            productoCache.put(id, productoDTO, generacionCache);
             
             return productoDTO;
             
@@ -141,6 +235,168 @@ public class ProductoClientServiceImpl implements ProductoClientService {
         }
     }
     
+    /**
+     * Consulta un producto con el cliente no bloqueante. La petición no ocupa ningún hilo
+     * mientras espera la respuesta; al llegar las cabeceras el cuerpo se decodifica desde
+     * el flujo a medida que se recibe, sin copiarlo antes a un arreglo.
+     * Los errores se traducen igual que en {@link #consultarProducto(Long)}.
+     */
+    private CompletableFuture<ProductoDTO> consultarProductoAsync(Long id) {
+        long generacionCache = productoCache.generacion();
+        log.info("Obteniendo producto con ID: {} (asíncrono)", id);
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(productoServiceUrl + "/api/productos/" + id))
+                .timeout(Duration.ofMillis(readTimeout))
+                .header("X-API-KEY", apiKey)
+                .GET()
+                .build();
+        
+        return httpClientAsync.sendAsync(peticion, HttpResponse.BodyHandlers.ofInputStream())
+                .handle((respuesta, error) -> {
+                    if (error != null) {
+                        Throwable causa = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error;
+                        log.error("Error de conexión con el servicio de productos: {}", causa.getMessage());
+                        throw new CommunicationException("Error de conexión con el servicio de productos", causa);
+                    }
+                    return procesarRespuesta(id, respuesta, generacionCache);
+                });
+    }
+    
+    private ProductoDTO procesarRespuesta(Long id, HttpResponse<InputStream> respuesta, long generacionCache) {
+        // Cerrar el cuerpo siempre, también en las respuestas de error, para liberar la conexión
+        try (InputStream cuerpo = respuesta.body()) {
+            return decodificarRespuesta(id, respuesta.statusCode(), cuerpo, generacionCache);
+        } catch (IOException e) {
+            log.error("Respuesta inválida del servicio de productos para el ID {}: {}", id, e.getMessage());
+            log.info("Generando producto temporal para pruebas debido al error");
+            return new ProductoDTO(id, "Producto temporal (error de comunicación)", 0.0);
+        }
+    }
+    
+    private ProductoDTO decodificarRespuesta(Long id, int estado, InputStream cuerpo, long generacionCache)
+            throws IOException {
+        if (estado == HttpStatus.NOT_FOUND.value()) {
+            log.error("Producto no encontrado con ID: {}", id);
+            throw new ResourceNotFoundException("Producto", "id", id);
+        }
+        if (estado >= 500) {
+            log.error("Error en el servidor de productos: {}", estado);
+            throw new CommunicationException("Error en el servidor de productos: " + estado);
+        }
+        if (estado >= 400) {
+            log.error("Error en la petición al servicio de productos: {}", estado);
+            throw new CommunicationException("Error en la petición al servicio de productos: " + estado);
+        }
+        
+        ProductoDTO productoDTO = productoDecoder.decodificar(cuerpo, id);
+        if (productoDTO == null) {
+            log.error("No se encontró el producto con ID: {} en la respuesta", id);
+            throw new ResourceNotFoundException("Producto", "id", id);
+        }
+        
+        productoCache.put(id, productoDTO, generacionCache);
+        return productoDTO;
+    }
+    
+    /**
+     * Consulta varios productos al servicio de productos en una sola petición y los guarda en la caché local
+     */
+    private Map<Long, ProductoDTO> consultarProductos(List<Long> ids) {
+        long generacionCache = productoCache.generacion();
+        StringBuilder filtro = new StringBuilder();
+        for (Long id : ids) {
+            if (filtro.length() > 0) {
+                filtro.append(',');
+            }
+            filtro.append(id);
+        }
+        
+        try {
+            log.info("Obteniendo {} productos en una sola consulta", ids.size());
+            String url = productoServiceUrl + "/api/productos?filter[id]=" + filtro;
+            Map<Long, ProductoDTO> productos = restTemplate.execute(url, HttpMethod.GET, null,
+                    response -> productoDecoder.decodificarLista(response.getBody()));
+            
+            if (productos == null) {
+                throw new CommunicationException("La respuesta del servicio de productos no tiene cuerpo");
+            }
+            productos.forEach((id, producto) -> productoCache.put(id, producto, generacionCache));
+            return productos;
+            
+        } catch (HttpClientErrorException e) {
+            log.error("Error en la petición al servicio de productos: {} - {}", e.getStatusCode(), e.getMessage());
+            throw new CommunicationException("Error en la petición al servicio de productos: " + e.getMessage(), e);
+        } catch (HttpServerErrorException e) {
+            log.error("Error en el servidor de productos: {} - {}", e.getStatusCode(), e.getMessage());
+            throw new CommunicationException("Error en el servidor de productos: " + e.getMessage(), e);
+        } catch (ResourceAccessException e) {
+            log.error("Error de conexión con el servicio de productos: {}", e.getMessage());
+            throw new CommunicationException("Error de conexión con el servicio de productos", e);
+        }
+    }
+    
+    /**
+     * Obtiene los IDs de productos modificados o eliminados desde una versión
+     * del registro de cambios del servicio de productos
+     * @param desde Última versión procesada (-1 si no se ha procesado ninguna)
+     * @return Cambios posteriores a la versión indicada
+     */
+    public CambiosProductoDTO getCambiosProductos(long desde) {
+        return llamarProtegido(() -> consultarCambios(desde));
+    }
+    
+    private CambiosProductoDTO consultarCambios(long desde) {
+        try {
+            String url = productoServiceUrl + "/api/productos/cambios?desde=" + desde;
+            // Se consulta cada pocos segundos: decodificar desde el flujo, sin String ni árbol intermedio
+            CambiosProductoDTO cambios = restTemplate.execute(url, HttpMethod.GET, null,
+                    response -> productoDecoder.decodificarCambios(response.getBody()));
+            
+            if (cambios == null) {
+                throw new CommunicationException("La respuesta de cambios de productos no contiene atributos");
+            }
+            
+            return cambios;
+        } catch (CommunicationException e) {
+            throw e;
+        } catch (Exception e) {
+            log.debug("Error al obtener los cambios de productos: {}", e.getMessage());
+            throw new CommunicationException("Error al obtener los cambios de productos", e);
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("producto.cliente.consultas", consultasEnVuelo, ConsultasEnVuelo::getEjecutadas)
+                .description("Consultas de productos enviadas al servicio de productos")
+                .register(registry);
+        FunctionCounter.builder("producto.cliente.colapsadas", consultasEnVuelo, ConsultasEnVuelo::getColapsadas)
+                .description("Consultas de productos resueltas uniéndose a otra ya en curso")
+                .register(registry);
+        Gauge.builder("producto.cliente.en_curso", consultasEnVuelo, ConsultasEnVuelo::getEnCurso)
+                .description("Productos con una consulta remota en curso")
+                .register(registry);
+        Gauge.builder("producto.cliente.circuito.estado", circuitBreaker, c -> c.getEstado().ordinal())
+                .description("Estado del circuito hacia el servicio de productos (0 cerrado, 1 abierto, 2 semiabierto)")
+                .register(registry);
+        FunctionCounter.builder("producto.cliente.circuito.aperturas", circuitBreaker, CircuitBreaker::getAperturas)
+                .description("Veces que se abrió el circuito hacia el servicio de productos")
+                .register(registry);
+        FunctionCounter.builder("producto.cliente.circuito.rechazadas", circuitBreaker, CircuitBreaker::getRechazadas)
+                .description("Llamadas rechazadas por el circuito abierto")
+                .register(registry);
+        Gauge.builder("producto.cliente.bulkhead.en_uso", bulkhead, Bulkhead::getEnUso)
+                .description("Llamadas concurrentes en curso al servicio de productos")
+                .register(registry);
+        Gauge.builder("producto.cliente.bulkhead.maximo", bulkhead, Bulkhead::getMaxConcurrentes)
+                .description("Máximo de llamadas concurrentes al servicio de productos")
+                .register(registry);
+        FunctionCounter.builder("producto.cliente.bulkhead.rechazadas", bulkhead, Bulkhead::getRechazadas)
+                .description("Llamadas rechazadas por superar el límite de concurrencia")
+                .register(registry);
+    }
+    
     /**
      * Método para obtener todos los productos con paginación
      * (por si necesitas implementarlo en el futuro)
@@ -148,8 +404,10 @@ public class ProductoClientServiceImpl implements ProductoClientService {
     public Object getAllProductos(int page, int size) {
         try {
             String url = productoServiceUrl + "/api/productos?page=" + page + "&size=" + size;
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            return objectMapper.readTree(response.getBody());
+            // El documento completo es el resultado, así que sigue siendo un árbol, pero se
+            // construye desde el flujo de la respuesta sin copiarlo antes a un String
+            return restTemplate.execute(url, HttpMethod.GET, null,
+                    response -> objectMapper.readTree(response.getBody()));
         } catch (Exception e) {
             log.error("Error al obtener los productos: {}", e.getMessage());
             throw new CommunicationException("Error al obtener los productos", e);
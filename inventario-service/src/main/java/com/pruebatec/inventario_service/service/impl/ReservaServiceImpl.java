@@ -0,0 +1,135 @@
+package com.pruebatec.inventario_service.service.impl;
+
+import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.ReservaDTO;
+import com.pruebatec.inventario_service.entity.Inventario;
+import com.pruebatec.inventario_service.event.InventarioEventPublisher;
+import com.pruebatec.inventario_service.exception.ResourceNotFoundException;
+import com.pruebatec.inventario_service.mapper.InventarioMapper;
+import com.pruebatec.inventario_service.repository.InventarioRepository;
+import com.pruebatec.inventario_service.reserva.RegistroReservas;
+import com.pruebatec.inventario_service.reserva.Reserva;
+import com.pruebatec.inventario_service.service.ReservaService;
+import com.pruebatec.inventario_service.stock.LibroStockCaliente;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Service
+public class ReservaServiceImpl implements ReservaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservaServiceImpl.class);
+    
+    private final InventarioRepository inventarioRepository;
+    private final InventarioMapper inventarioMapper;
+    private final RegistroReservas registroReservas;
+    private final InventarioEventPublisher eventPublisher;
+    
+    @Value("${inventario.reservas.ttl-ms:900000}")
+    private long ttlMs = 900_000;
+    
+    // Solo existe si está activo el stock en memoria para productos calientes
+    @Autowired(required = false)
+    private LibroStockCaliente libroStockCaliente;
+    
+    public ReservaServiceImpl(
+            InventarioRepository inventarioRepository,
+            InventarioMapper inventarioMapper,
+            RegistroReservas registroReservas,
+            InventarioEventPublisher eventPublisher) {
+        this.inventarioRepository = inventarioRepository;
+        this.inventarioMapper = inventarioMapper;
+        this.registroReservas = registroReservas;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public ReservaDTO reservar(Long productoId, Integer cantidad) {
+        log.info("Reservando {} unidades del producto ID: {}", cantidad, productoId);
+        
+        if (cantidad == null || cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad a reservar debe ser mayor a cero");
+        }
+        
+        if (libroStockCaliente != null && libroStockCaliente.gestiona(productoId)) {
+            throw new IllegalArgumentException(
+                    String.format("El producto %d gestiona su stock en memoria y no admite reservas", productoId));
+        }
+        
+        // Apartar el stock en una sola sentencia condicional sobre la fila del producto
+        if (inventarioRepository.reservarStock(productoId, cantidad) == 0) {
+            int disponible = inventarioRepository.findByProductoId(productoId)
+                    .map(ReservaServiceImpl::disponibleParaPrometer)
+                    .orElse(0);
+            throw new IllegalArgumentException(
+                    String.format("Stock insuficiente para reservar el producto %d. Disponible: %d, Cantidad solicitada: %d",
+                            productoId, disponible, cantidad));
+        }
+        
+        Inventario inventario = inventarioRepository.findByProductoId(productoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventario", "productoId", productoId));
+        
+        Reserva reserva = new Reserva(UUID.randomUUID().toString(), productoId, cantidad,
+                Instant.now().plusMillis(ttlMs));
+        
+        // Se guarda con el stock apartado y solo empieza a vencer si la transacción se confirma
+        registroReservas.guardar(reserva);
+        
+        return new ReservaDTO(reserva.id(), productoId, cantidad, reserva.expiraEn(),
+                disponibleParaPrometer(inventario));
+    }
+    
+    @Override
+    @Transactional
+    public InventarioDTO confirmar(String reservaId) {
+        log.info("Confirmando reserva ID: {}", reservaId);
+        
+        Reserva reserva = reclamar(reservaId);
+        
+        if (inventarioRepository.confirmarReserva(reserva.productoId(), reserva.cantidad()) == 0) {
+            throw new IllegalArgumentException(
+                    String.format("No se puede confirmar la reserva %s: el stock del producto %d ya no cubre la cantidad reservada",
+                            reservaId, reserva.productoId()));
+        }
+        
+        Integer nuevaCantidad = inventarioRepository.findCantidadByProductoId(reserva.productoId())
+                .orElseThrow(() -> new ResourceNotFoundException("Inventario", "productoId", reserva.productoId()));
+        
+        InventarioDTO inventarioDTO = inventarioMapper.toDTO(new Inventario(reserva.productoId(), nuevaCantidad));
+        
+        // Publicar evento de cambio de inventario
+        eventPublisher.publicarCambioInventario(inventarioDTO, InventarioEventPublisher.TipoOperacion.COMPRA);
+        
+        return inventarioDTO;
+    }
+    
+    @Override
+    @Transactional
+    public void liberar(String reservaId) {
+        log.info("Liberando reserva ID: {}", reservaId);
+        
+        Reserva reserva = reclamar(reservaId);
+        inventarioRepository.liberarReservado(reserva.productoId(), reserva.cantidad());
+    }
+    
+    private Reserva reclamar(String reservaId) {
+        Reserva reserva = registroReservas.reclamar(reservaId);
+        if (reserva == null) {
+            // No existe, ya venció o ya se confirmó o liberó
+            throw new ResourceNotFoundException(
+                    String.format("Reserva no encontrada o vencida con id: '%s'", reservaId));
+        }
+        return reserva;
+    }
+    
+    private static int disponibleParaPrometer(Inventario inventario) {
+        return Math.max(0, inventario.getCantidad() - inventario.getReservado());
+    }
+}
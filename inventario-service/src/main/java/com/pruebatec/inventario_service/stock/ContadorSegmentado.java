@@ -0,0 +1,120 @@
+package com.pruebatec.inventario_service.stock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock disponible de un producto repartido en varios segmentos independientes.
+ * Cada hilo descuenta de "su" segmento con un compareAndSet, así que las compras
+ * concurrentes del mismo producto no compiten por una única variable. Solo cuando
+ * ningún segmento alcanza por sí solo se reúne la cantidad de varios bajo un lock.
+ */
+public class ContadorSegmentado {
+
+    // Cada segmento ocupa su propia línea de caché (8 longs = 64 bytes)
+    private static final int RELLENO = 8;
+
+    private final int numSegmentos;
+    private final AtomicLongArray segmentos;
+
+    public ContadorSegmentado(int numSegmentos, long inicial) {
+        if (numSegmentos <= 0) {
+            throw new IllegalArgumentException("El número de segmentos debe ser mayor a cero");
+        }
+        this.numSegmentos = numSegmentos;
+        this.segmentos = new AtomicLongArray(numSegmentos * RELLENO);
+        repartir(inicial);
+    }
+
+    /**
+     * Reserva la cantidad si hay stock suficiente
+     * @return false si el stock disponible no alcanza
+     */
+    public boolean reservar(long cantidad) {
+        int inicio = segmentoDelHilo();
+        for (int i = 0; i < numSegmentos; i++) {
+            int indice = ((inicio + i) % numSegmentos) * RELLENO;
+            long actual = segmentos.get(indice);
+            while (actual >= cantidad) {
+                if (segmentos.compareAndSet(indice, actual, actual - cantidad)) {
+                    return true;
+                }
+                actual = segmentos.get(indice);
+            }
+        }
+        return reservarRepartido(cantidad);
+    }
+
+    /**
+     * Devuelve stock al contador (reposición o compra revertida)
+     */
+    public void liberar(long cantidad) {
+        segmentos.addAndGet(segmentoDelHilo() * RELLENO, cantidad);
+    }
+
+    /**
+     * Stock disponible (aproximado mientras haya operaciones en curso)
+     */
+    public long disponible() {
+        long total = 0;
+        for (int i = 0; i < numSegmentos; i++) {
+            total += segmentos.get(i * RELLENO);
+        }
+        return total;
+    }
+
+    /**
+     * Sustituye el stock disponible por un valor absoluto
+     * @return Stock que había antes del cambio
+     */
+    public synchronized long reemplazar(long nuevo) {
+        long anterior = 0;
+        for (int i = 0; i < numSegmentos; i++) {
+            anterior += segmentos.getAndSet(i * RELLENO, 0);
+        }
+        repartir(nuevo);
+        return anterior;
+    }
+
+    /**
+     * Reúne la cantidad tomando de varios segmentos. Se sincroniza con
+     * {@link #reemplazar(long)} para no ver los segmentos vacíos a mitad de un cambio.
+     */
+    private synchronized boolean reservarRepartido(long cantidad) {
+        long reunido = 0;
+        for (int i = 0; i < numSegmentos && reunido < cantidad; i++) {
+            int indice = i * RELLENO;
+            long actual = segmentos.get(indice);
+            while (actual > 0) {
+                long tomar = Math.min(actual, cantidad - reunido);
+                if (segmentos.compareAndSet(indice, actual, actual - tomar)) {
+                    reunido += tomar;
+                    break;
+                }
+                actual = segmentos.get(indice);
+            }
+        }
+
+        if (reunido < cantidad) {
+            // No alcanza: devolver lo reunido
+            if (reunido > 0) {
+                liberar(reunido);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void repartir(long total) {
+        long porSegmento = total / numSegmentos;
+        long resto = total % numSegmentos;
+        for (int i = 0; i < numSegmentos; i++) {
+            segmentos.addAndGet(i * RELLENO, porSegmento + (i < resto ? 1 : 0));
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private int segmentoDelHilo() {
+        long mezcla = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) ((mezcla >>> 32) % numSegmentos);
+    }
+}
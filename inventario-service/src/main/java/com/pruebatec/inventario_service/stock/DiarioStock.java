@@ -0,0 +1,291 @@
+package com.pruebatec.inventario_service.stock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Diario de solo escritura con los cambios de stock de los productos calientes.
+ * Cada cambio se escribe como una línea "secuencia;productoId;delta" y se fuerza a
+ * disco antes de confirmar la operación; varios hilos que esperan a la vez comparten
+ * un mismo fsync. El diario se divide en segmentos: al volcar los cambios a la base
+ * de datos se abre un segmento nuevo y los anteriores se borran tras el commit.
+ * Se usan ReentrantLock en lugar de synchronized porque dentro se escribe y se fuerza
+ * a disco: con hilos virtuales, un synchronized retendría el hilo portador durante el fsync.
+ */
+public class DiarioStock implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(DiarioStock.class);
+
+    private static final String PREFIJO = "diario-";
+    private static final String EXTENSION = ".log";
+
+    /**
+     * Cambios acumulados por producto hasta una secuencia, junto con los segmentos que los contienen
+     */
+    public record Corte(Map<Long, Long> deltas, long secuencia, List<Path> segmentos) {
+    }
+
+    private final Path directorio;
+    private final ReentrantLock escritura = new ReentrantLock();
+    private final ReentrantLock sincronizacion = new ReentrantLock();
+
+    // Protegidos por "escritura"
+    private FileChannel canal;
+    private long numeroSegmento;
+    private long secuencia;
+    private Map<Long, Long> deltasPendientes = new HashMap<>();
+    private final List<Path> segmentosCerrados = new ArrayList<>();
+    private boolean averiado;
+
+    private volatile long secuenciaDurable;
+
+    /**
+     * Abre un segmento nuevo a continuación de los existentes
+     * @param directorio Directorio del diario
+     * @param secuenciaInicial Última secuencia ya usada
+     */
+    public DiarioStock(Path directorio, long secuenciaInicial) throws IOException {
+        this.directorio = directorio;
+        this.secuencia = secuenciaInicial;
+        this.secuenciaDurable = secuenciaInicial;
+        Files.createDirectories(directorio);
+        this.numeroSegmento = segmentos(directorio).stream()
+                .mapToLong(DiarioStock::numeroDe)
+                .max()
+                .orElse(0);
+        abrirSegmento();
+    }
+
+    /**
+     * Escribe un cambio de stock (sin esperar a que llegue a disco)
+     * @return Secuencia asignada al cambio, para {@link #sincronizar(long)}
+     */
+    public long registrar(long productoId, long delta) throws IOException {
+        escritura.lock();
+        try {
+            if (averiado) {
+                throw new IOException("El diario de stock no está disponible tras un error de escritura");
+            }
+
+            long nueva = secuencia + 1;
+            ByteBuffer linea = ByteBuffer.wrap((nueva + ";" + productoId + ";" + delta + "\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            try {
+                while (linea.hasRemaining()) {
+                    canal.write(linea);
+                }
+            } catch (IOException e) {
+                // Una línea a medias dejaría el diario ilegible a partir de ese punto
+                averiado = true;
+                throw e;
+            }
+
+            secuencia = nueva;
+            deltasPendientes.merge(productoId, delta, Long::sum);
+            return nueva;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    /**
+     * Espera a que el cambio con la secuencia indicada esté en disco. Si otro hilo
+     * está forzando el diario, al terminar probablemente ya cubra esta secuencia.
+     */
+    public void sincronizar(long secuenciaCambio) throws IOException {
+        if (secuenciaDurable >= secuenciaCambio) {
+            return;
+        }
+
+        sincronizacion.lock();
+        try {
+            if (secuenciaDurable >= secuenciaCambio) {
+                return;
+            }
+
+            FileChannel actual;
+            long hasta;
+            escritura.lock();
+            try {
+                actual = canal;
+                hasta = secuencia;
+            } finally {
+                escritura.unlock();
+            }
+            actual.force(false);
+            secuenciaDurable = hasta;
+        } finally {
+            sincronizacion.unlock();
+        }
+    }
+
+    /**
+     * Cierra el segmento actual y devuelve los cambios acumulados desde el último corte.
+     * Tras aplicarlos en la base de datos hay que llamar a {@link #confirmar(Corte)},
+     * o a {@link #restaurar(Corte)} si no se pudieron aplicar.
+     */
+    public Corte cortar() throws IOException {
+        sincronizacion.lock();
+        escritura.lock();
+        try {
+            canal.force(false);
+            canal.close();
+            secuenciaDurable = secuencia;
+            segmentosCerrados.add(rutaSegmento(numeroSegmento));
+
+            Map<Long, Long> deltas = deltasPendientes;
+            deltasPendientes = new HashMap<>();
+            abrirSegmento();
+
+            return new Corte(deltas, secuencia, List.copyOf(segmentosCerrados));
+        } finally {
+            escritura.unlock();
+            sincronizacion.unlock();
+        }
+    }
+
+    /**
+     * Borra los segmentos ya aplicados en la base de datos
+     */
+    public void confirmar(Corte corte) {
+        escritura.lock();
+        try {
+            segmentosCerrados.removeAll(corte.segmentos());
+        } finally {
+            escritura.unlock();
+        }
+        for (Path segmento : corte.segmentos()) {
+            try {
+                Files.deleteIfExists(segmento);
+            } catch (IOException e) {
+                log.warn("No se pudo borrar el segmento del diario {}: {}", segmento, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Devuelve los cambios de un corte que no se pudo aplicar para incluirlos en el siguiente
+     */
+    public void restaurar(Corte corte) {
+        escritura.lock();
+        try {
+            corte.deltas().forEach((productoId, delta) -> deltasPendientes.merge(productoId, delta, Long::sum));
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    /**
+     * Última secuencia escrita
+     */
+    public long getSecuencia() {
+        escritura.lock();
+        try {
+            return secuencia;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sincronizacion.lock();
+        escritura.lock();
+        try {
+            canal.force(false);
+            canal.close();
+        } finally {
+            escritura.unlock();
+            sincronizacion.unlock();
+        }
+    }
+
+    /**
+     * Lee los segmentos existentes y acumula los cambios posteriores a una secuencia ya aplicada.
+     * Una última línea incompleta (caída a mitad de escritura) se ignora: ese cambio no llegó
+     * a confirmarse.
+     * @param directorio Directorio del diario
+     * @param secuenciaAplicada Última secuencia aplicada en la base de datos
+     */
+    public static Corte recuperar(Path directorio, long secuenciaAplicada) throws IOException {
+        Map<Long, Long> deltas = new HashMap<>();
+        long maxima = secuenciaAplicada;
+        List<Path> segmentos = segmentos(directorio);
+
+        for (Path segmento : segmentos) {
+            try (BufferedReader reader = Files.newBufferedReader(segmento, StandardCharsets.US_ASCII)) {
+                String linea;
+                while ((linea = reader.readLine()) != null) {
+                    String[] campos = linea.split(";");
+                    if (campos.length != 3) {
+                        log.warn("Línea incompleta en el diario {}: '{}'", segmento, linea);
+                        break;
+                    }
+                    long secuenciaLinea;
+                    long productoId;
+                    long delta;
+                    try {
+                        secuenciaLinea = Long.parseLong(campos[0]);
+                        productoId = Long.parseLong(campos[1]);
+                        delta = Long.parseLong(campos[2]);
+                    } catch (NumberFormatException e) {
+                        log.warn("Línea inválida en el diario {}: '{}'", segmento, linea);
+                        break;
+                    }
+                    if (secuenciaLinea > secuenciaAplicada) {
+                        deltas.merge(productoId, delta, Long::sum);
+                    }
+                    maxima = Math.max(maxima, secuenciaLinea);
+                }
+            }
+        }
+
+        return new Corte(deltas, maxima, segmentos);
+    }
+
+    private void abrirSegmento() throws IOException {
+        numeroSegmento++;
+        canal = FileChannel.open(rutaSegmento(numeroSegmento),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path rutaSegmento(long numero) {
+        return directorio.resolve(String.format("%s%020d%s", PREFIJO, numero, EXTENSION));
+    }
+
+    private static List<Path> segmentos(Path directorio) throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return List.of();
+        }
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos
+                    .filter(archivo -> {
+                        String nombre = archivo.getFileName().toString();
+                        return nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long numeroDe(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+    }
+}
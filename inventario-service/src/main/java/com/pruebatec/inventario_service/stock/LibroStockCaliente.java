@@ -0,0 +1,269 @@
+package com.pruebatec.inventario_service.stock;
+
+import com.pruebatec.inventario_service.entity.CheckpointDiario;
+import com.pruebatec.inventario_service.repository.CheckpointDiarioRepository;
+import com.pruebatec.inventario_service.repository.InventarioRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stock en memoria para productos calientes (ventas flash).
+ * Las operaciones sobre estos productos no tocan la fila de inventarios: se validan
+ * contra un {@link ContadorSegmentado}, se escriben en el {@link DiarioStock} y se
+ * confirman cuando el cambio está en disco. Periódicamente los cambios netos se
+ * vuelcan a la tabla inventarios en una sola transacción junto con la secuencia del
+ * diario aplicada; al arrancar se aplican los cambios del diario posteriores a ella.
+ * Solo es válido con una única instancia del servicio escribiendo estos productos.
+ */
+@Component
+@ConditionalOnProperty(name = "inventario.stock-caliente.enabled", havingValue = "true")
+public class LibroStockCaliente implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(LibroStockCaliente.class);
+
+    private final InventarioRepository inventarioRepository;
+    private final CheckpointDiarioRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final List<Long> productosCalientes;
+    private final int numSegmentos;
+    private final Path directorioDiario;
+
+    private final Map<Long, ContadorSegmentado> contadores = new ConcurrentHashMap<>();
+    private DiarioStock diario;
+    private volatile long secuenciaAplicada;
+
+    private final LongAdder volcados = new LongAdder();
+    private final LongAdder erroresVolcado = new LongAdder();
+
+    public LibroStockCaliente(
+            InventarioRepository inventarioRepository,
+            CheckpointDiarioRepository checkpointRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${inventario.stock-caliente.productos:}") List<Long> productosCalientes,
+            @Value("${inventario.stock-caliente.segmentos:16}") int numSegmentos,
+            @Value("${inventario.stock-caliente.directorio-diario:diario-stock}") String directorioDiario) {
+        this.inventarioRepository = inventarioRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.productosCalientes = productosCalientes;
+        this.numSegmentos = numSegmentos;
+        this.directorioDiario = Path.of(directorioDiario);
+    }
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        long checkpoint = checkpointRepository.findById(CheckpointDiario.ID_UNICO)
+                .map(CheckpointDiario::getSecuencia)
+                .orElse(0L);
+
+        // Aplicar los cambios confirmados que no llegaron a volcarse antes de la última parada
+        DiarioStock.Corte pendiente = DiarioStock.recuperar(directorioDiario, checkpoint);
+        if (!pendiente.deltas().isEmpty() || pendiente.secuencia() > checkpoint) {
+            log.info("Recuperando {} productos del diario de stock hasta la secuencia {}",
+                    pendiente.deltas().size(), pendiente.secuencia());
+            transactionTemplate.executeWithoutResult(status -> aplicar(pendiente));
+        }
+        for (Path segmento : pendiente.segmentos()) {
+            Files.deleteIfExists(segmento);
+        }
+        secuenciaAplicada = pendiente.secuencia();
+        diario = new DiarioStock(directorioDiario, secuenciaAplicada);
+
+        for (Long productoId : productosCalientes) {
+            inventarioRepository.findCantidadByProductoId(productoId).ifPresentOrElse(
+                    cantidad -> contadores.put(productoId, new ContadorSegmentado(numSegmentos, cantidad)),
+                    () -> log.warn("El producto caliente {} no tiene inventario; se gestiona en la base de datos", productoId));
+        }
+        log.info("Stock en memoria activo para los productos {}", contadores.keySet());
+    }
+
+    /**
+     * Indica si el stock del producto se gestiona en memoria
+     */
+    public boolean gestiona(Long productoId) {
+        return contadores.containsKey(productoId);
+    }
+
+    /**
+     * Stock disponible del producto
+     */
+    public int disponible(Long productoId) {
+        return (int) contadores.get(productoId).disponible();
+    }
+
+    /**
+     * Descuenta una compra. Cuando termina, el cambio ya está en el diario en disco.
+     * @return Stock restante, o null si no hay stock suficiente
+     */
+    public Integer comprar(Long productoId, int cantidad) {
+        ContadorSegmentado contador = contadores.get(productoId);
+        if (!contador.reservar(cantidad)) {
+            return null;
+        }
+
+        try {
+            registrarEnDiario(productoId, -cantidad);
+        } catch (IOException e) {
+            contador.liberar(cantidad);
+            throw new UncheckedIOException("No se pudo registrar la compra en el diario de stock", e);
+        }
+        compensarSiSeRevierte(productoId, -cantidad);
+        return (int) contador.disponible();
+    }
+
+    /**
+     * Suma stock repuesto
+     * @return Stock resultante
+     */
+    public int reponer(Long productoId, int cantidad) {
+        ajustar(productoId, cantidad);
+        compensarSiSeRevierte(productoId, cantidad);
+        return (int) contadores.get(productoId).disponible();
+    }
+
+    /**
+     * Sustituye el stock por un valor absoluto
+     * @return Stock resultante
+     */
+    public int fijar(Long productoId, int cantidad) {
+        ContadorSegmentado contador = contadores.get(productoId);
+        long anterior = contador.reemplazar(cantidad);
+        long delta = cantidad - anterior;
+
+        try {
+            registrarEnDiario(productoId, delta);
+        } catch (IOException e) {
+            contador.reemplazar(anterior);
+            throw new UncheckedIOException("No se pudo registrar el cambio en el diario de stock", e);
+        }
+        compensarSiSeRevierte(productoId, delta);
+        return cantidad;
+    }
+
+    @Scheduled(
+            initialDelayString = "${inventario.stock-caliente.volcado-ms:200}",
+            fixedDelayString = "${inventario.stock-caliente.volcado-ms:200}")
+    public void volcar() {
+        if (diario.getSecuencia() == secuenciaAplicada) {
+            return;
+        }
+
+        DiarioStock.Corte corte;
+        try {
+            corte = diario.cortar();
+        } catch (IOException e) {
+            erroresVolcado.increment();
+            log.error("No se pudo cerrar el segmento del diario de stock: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> aplicar(corte));
+        } catch (RuntimeException e) {
+            // Los cambios siguen en memoria y en el diario; se reintentan en el siguiente volcado
+            erroresVolcado.increment();
+            diario.restaurar(corte);
+            log.warn("No se pudieron volcar los cambios de stock en memoria: {}", e.getMessage());
+            return;
+        }
+
+        secuenciaAplicada = corte.secuencia();
+        diario.confirmar(corte);
+        volcados.increment();
+    }
+
+    @PreDestroy
+    public void detener() throws IOException {
+        volcar();
+        diario.close();
+    }
+
+    public long getPendientes() {
+        return diario.getSecuencia() - secuenciaAplicada;
+    }
+
+    private void aplicar(DiarioStock.Corte corte) {
+        corte.deltas().forEach((productoId, delta) -> {
+            if (delta != 0 && inventarioRepository.aplicarDelta(productoId, Math.toIntExact(delta)) == 0) {
+                log.error("No existe inventario para aplicar el cambio {} del producto {}", delta, productoId);
+            }
+        });
+        checkpointRepository.save(new CheckpointDiario(CheckpointDiario.ID_UNICO, corte.secuencia()));
+    }
+
+    private void ajustar(Long productoId, long delta) {
+        try {
+            registrarEnDiario(productoId, delta);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo registrar el cambio en el diario de stock", e);
+        }
+        contadores.get(productoId).liberar(delta);
+    }
+
+    private void registrarEnDiario(Long productoId, long delta) throws IOException {
+        long secuencia = diario.registrar(productoId, delta);
+        diario.sincronizar(secuencia);
+    }
+
+    /**
+     * Si la transacción que hizo el cambio se revierte (por ejemplo otra línea del
+     * carrito sin stock) se registra el cambio contrario
+     */
+    private void compensarSiSeRevierte(Long productoId, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    try {
+                        ajustar(productoId, -delta);
+                    } catch (UncheckedIOException e) {
+                        log.error("No se pudo revertir el cambio {} del producto {}: {}", delta, productoId, e.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("inventario.stock_caliente.pendientes", this, LibroStockCaliente::getPendientes)
+                .description("Cambios del diario de stock pendientes de volcar a la base de datos")
+                .register(registry);
+        FunctionCounter.builder("inventario.stock_caliente.volcados", volcados, LongAdder::sum)
+                .description("Volcados del stock en memoria a la base de datos")
+                .register(registry);
+        FunctionCounter.builder("inventario.stock_caliente.errores", erroresVolcado, LongAdder::sum)
+                .description("Volcados del stock en memoria que fallaron")
+                .register(registry);
+        contadores.forEach((productoId, contador) ->
+                Gauge.builder("inventario.stock_caliente.disponible", contador, ContadorSegmentado::disponible)
+                        .tag("producto", productoId.toString())
+                        .description("Stock disponible en memoria del producto")
+                        .register(registry));
+    }
+}
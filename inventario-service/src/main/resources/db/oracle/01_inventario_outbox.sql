@@ -0,0 +1,10 @@
+-- Scripts de Oracle para dev y prod (H2 usa schema-test.sql). Se ejecutan en orden
+-- antes de desplegar, porque dev valida el esquema (ddl-auto=validate) y no lo crea.
+
+-- Crear tabla outbox de eventos de inventario
+CREATE TABLE inventario_outbox (
+    id NUMBER(19) GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tipo_operacion VARCHAR2(30 CHAR) NOT NULL,
+    payload CLOB NOT NULL,
+    creado_en TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,27 @@
+-- Columna de versión para el control de concurrencia optimista de inventarios.
+-- Si el perfil prod ya la añadió como nullable (ddl-auto=update), se rellenan
+-- las filas con 0 y se fija el DEFAULT y el NOT NULL igual que en schema-test.sql
+DECLARE
+    existe NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO existe FROM user_tab_columns
+    WHERE table_name = 'INVENTARIOS' AND column_name = 'VERSION';
+
+    IF existe = 0 THEN
+        EXECUTE IMMEDIATE 'ALTER TABLE inventarios ADD (version NUMBER(19) DEFAULT 0 NOT NULL)';
+    ELSE
+        EXECUTE IMMEDIATE 'UPDATE inventarios SET version = 0 WHERE version IS NULL';
+        EXECUTE IMMEDIATE 'ALTER TABLE inventarios MODIFY (version DEFAULT 0)';
+        BEGIN
+            EXECUTE IMMEDIATE 'ALTER TABLE inventarios MODIFY (version NOT NULL)';
+        EXCEPTION
+            -- ORA-01442: la columna ya era NOT NULL
+            WHEN OTHERS THEN
+                IF SQLCODE != -1442 THEN
+                    RAISE;
+                END IF;
+        END;
+    END IF;
+    COMMIT;
+END;
+/
@@ -0,0 +1,5 @@
+-- Crear tabla con la última secuencia del diario de stock aplicada
+CREATE TABLE inventario_diario_checkpoint (
+    id NUMBER(10) PRIMARY KEY,
+    secuencia NUMBER(19) NOT NULL
+);
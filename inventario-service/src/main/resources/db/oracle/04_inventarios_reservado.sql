@@ -0,0 +1,27 @@
+-- Columna con la cantidad apartada por reservas activas. Con DEFAULT en el mismo
+-- ALTER, Oracle rellena las filas existentes y el NOT NULL no falla (ORA-01758).
+-- Si el perfil prod ya la añadió como nullable, se rellena y se fija igual que en schema-test.sql
+DECLARE
+    existe NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO existe FROM user_tab_columns
+    WHERE table_name = 'INVENTARIOS' AND column_name = 'RESERVADO';
+
+    IF existe = 0 THEN
+        EXECUTE IMMEDIATE 'ALTER TABLE inventarios ADD (reservado NUMBER(10) DEFAULT 0 NOT NULL)';
+    ELSE
+        EXECUTE IMMEDIATE 'UPDATE inventarios SET reservado = 0 WHERE reservado IS NULL';
+        EXECUTE IMMEDIATE 'ALTER TABLE inventarios MODIFY (reservado DEFAULT 0)';
+        BEGIN
+            EXECUTE IMMEDIATE 'ALTER TABLE inventarios MODIFY (reservado NOT NULL)';
+        EXCEPTION
+            -- ORA-01442: la columna ya era NOT NULL
+            WHEN OTHERS THEN
+                IF SQLCODE != -1442 THEN
+                    RAISE;
+                END IF;
+        END;
+    END IF;
+    COMMIT;
+END;
+/
@@ -0,0 +1,12 @@
+-- Crear tabla de solicitudes con clave de idempotencia y su respuesta
+CREATE TABLE inventario_idempotencia (
+    clave VARCHAR2(100 CHAR) PRIMARY KEY,
+    huella VARCHAR2(64 CHAR) NOT NULL,
+    estado VARCHAR2(20 CHAR) NOT NULL,
+    codigo NUMBER(10),
+    cuerpo CLOB,
+    creado_en TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- La purga borra por antigüedad
+CREATE INDEX inv_idempotencia_creado_idx ON inventario_idempotencia (creado_en);
@@ -0,0 +1,22 @@
+-- Un solo inventario por producto: la entidad usa producto_id como identificador y la
+-- creación concurrente (MERGE) depende de esta clave para rechazar los duplicados.
+-- Si la tabla la creó el perfil prod (ddl-auto=update), producto_id ya es la clave
+-- primaria y no se añade nada (otra restricción sobre la misma columna daría ORA-02261).
+-- Si ya hay duplicados el ALTER falla; se listan con:
+--   SELECT producto_id, COUNT(*) FROM inventarios GROUP BY producto_id HAVING COUNT(*) > 1;
+DECLARE
+    existe NUMBER;
+BEGIN
+    SELECT COUNT(*) INTO existe FROM user_constraints c
+    WHERE c.table_name = 'INVENTARIOS'
+      AND c.constraint_type IN ('P', 'U')
+      AND EXISTS (SELECT 1 FROM user_cons_columns cc
+                  WHERE cc.constraint_name = c.constraint_name AND cc.column_name = 'PRODUCTO_ID')
+      AND NOT EXISTS (SELECT 1 FROM user_cons_columns cc
+                      WHERE cc.constraint_name = c.constraint_name AND cc.column_name <> 'PRODUCTO_ID');
+
+    IF existe = 0 THEN
+        EXECUTE IMMEDIATE 'ALTER TABLE inventarios ADD CONSTRAINT uk_inventarios_producto UNIQUE (producto_id)';
+    END IF;
+END;
+/
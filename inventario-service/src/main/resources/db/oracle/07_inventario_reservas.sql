@@ -0,0 +1,10 @@
+-- Crear tabla de reservas de stock activas
+CREATE TABLE inventario_reservas (
+    id VARCHAR2(36 CHAR) PRIMARY KEY,
+    producto_id NUMBER(19) NOT NULL,
+    cantidad NUMBER(10) NOT NULL,
+    expira_en TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- El barrido busca las reservas vencidas
+CREATE INDEX inv_reservas_expira_idx ON inventario_reservas (expira_en);
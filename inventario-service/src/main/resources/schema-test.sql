@@ -1,4 +1,8 @@
 -- Eliminar tablas si existen
+DROP TABLE IF EXISTS inventario_reservas;
+DROP TABLE IF EXISTS inventario_idempotencia;
+DROP TABLE IF EXISTS inventario_outbox;
+DROP TABLE IF EXISTS inventario_diario_checkpoint;
 DROP TABLE IF EXISTS inventarios;
 DROP TABLE IF EXISTS productos;
 
@@ -14,5 +18,40 @@ CREATE TABLE inventarios (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     producto_id BIGINT NOT NULL,
     cantidad INT NOT NULL,
+    reservado INT DEFAULT 0 NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT uk_inventarios_producto UNIQUE (producto_id),
     FOREIGN KEY (producto_id) REFERENCES productos(id)
+);
+
+-- Crear tabla outbox de eventos de inventario
+CREATE TABLE inventario_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tipo_operacion VARCHAR(30) NOT NULL,
+    payload CLOB NOT NULL,
+    creado_en TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Crear tabla con la última secuencia del diario de stock aplicada
+CREATE TABLE inventario_diario_checkpoint (
+    id INT PRIMARY KEY,
+    secuencia BIGINT NOT NULL
+);
+
+-- Crear tabla de solicitudes con clave de idempotencia y su respuesta
+CREATE TABLE inventario_idempotencia (
+    clave VARCHAR(100) PRIMARY KEY,
+    huella VARCHAR(64) NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    codigo INT,
+    cuerpo CLOB,
+    creado_en TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- Crear tabla de reservas de stock activas
+CREATE TABLE inventario_reservas (
+    id VARCHAR(36) PRIMARY KEY,
+    producto_id BIGINT NOT NULL,
+    cantidad INT NOT NULL,
+    expira_en TIMESTAMP WITH TIME ZONE NOT NULL
 );
\ No newline at end of file
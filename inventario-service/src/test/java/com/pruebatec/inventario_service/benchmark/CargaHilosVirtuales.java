@@ -0,0 +1,246 @@
+package com.pruebatec.inventario_service.benchmark;
+
+import com.pruebatec.inventario_service.InventarioServiceApplication;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga de GET /api/inventarios/{productoId} con hilos de plataforma o virtuales.
+ * Levanta un servicio de productos simulado con una latencia fija, arranca inventario-service
+ * (perfil de pruebas, H2) sin caché de productos y lanza las peticiones con una concurrencia fija.
+ * <p>
+ * Informa el máximo de peticiones en curso dentro del servicio, las latencias p50/p99, el
+ * rendimiento, el pico de heap y los eventos jdk.VirtualThreadPinned (hilo virtual bloqueado
+ * dentro de un synchronized o de código nativo) con el marco de nuestro código que los provocó.
+ * <p>
+ * Para comparar los dos modos con el mismo heap se ejecuta una vez por modo en JVM separadas:
+ * <pre>
+ * java -Xmx512m -cp ... com.pruebatec.inventario_service.benchmark.CargaHilosVirtuales plataforma
+ * java -Xmx512m -cp ... com.pruebatec.inventario_service.benchmark.CargaHilosVirtuales virtual
+ * </pre>
+ * Parámetros opcionales: -Dpeticiones=20000 -Dconcurrencia=1000 -DlatenciaMs=50
+ */
+public class CargaHilosVirtuales {
+
+    private static final int PETICIONES = Integer.getInteger("peticiones", 20000);
+    private static final int CONCURRENCIA = Integer.getInteger("concurrencia", 1000);
+    private static final int LATENCIA_PRODUCTO_MS = Integer.getInteger("latenciaMs", 50);
+    private static final int PRODUCTOS = 10;
+    private static final String API_KEY = "secretKey_2025_prod";
+
+    private static final AtomicInteger enVuelo = new AtomicInteger();
+    private static final AtomicInteger maxEnVuelo = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        boolean virtuales = args.length > 0 && "virtual".equalsIgnoreCase(args[0]);
+        HttpServer productoSimulado = iniciarProductoSimulado();
+
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(InventarioServiceApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().registerSingleton("medidorEnVuelo", medidorEnVuelo()))
+                .run("--spring.profiles.active=test",
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtuales,
+                        "--producto.service.url=http://localhost:" + productoSimulado.getAddress().getPort(),
+                        "--producto.cache.enabled=false",
+                        "--producto.cache.invalidacion.enabled=false",
+                        // Que el límite sea el modelo de hilos y no el bulkhead ni el pool HTTP
+                        "--producto.client.bulkhead.max-concurrent=100000",
+                        "--producto.client.pool.max-total=" + CONCURRENCIA,
+                        "--producto.client.pool.max-per-route=" + CONCURRENCIA,
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.pruebatec=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+
+        LongAdder fijados = new LongAdder();
+        Map<String, LongAdder> fijadosPorMarco = new ConcurrentHashMap<>();
+
+        try (RecordingStream jfr = new RecordingStream();
+             ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            jfr.enable("jdk.VirtualThreadPinned").withStackTrace().withThreshold(Duration.ofMillis(1));
+            jfr.onEvent("jdk.VirtualThreadPinned", evento -> {
+                fijados.increment();
+                fijadosPorMarco.computeIfAbsent(primerMarcoPropio(evento.getStackTrace().getFrames()),
+                        marco -> new LongAdder()).increment();
+            });
+            jfr.startAsync();
+
+            int puerto = ((ServletWebServerApplicationContext) contexto).getWebServer().getPort();
+            HttpClient cliente = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientes)
+                    .build();
+
+            // Calentamiento (JIT, pools de conexiones) fuera de la medición
+            lanzar(cliente, clientes, puerto, PETICIONES / 10);
+            enVuelo.set(0);
+            maxEnVuelo.set(0);
+            ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+
+            long inicio = System.nanoTime();
+            long[] latencias = lanzar(cliente, clientes, puerto, PETICIONES);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            jfr.stop();
+
+            Arrays.sort(latencias);
+            long picoHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                    .sum();
+
+            System.out.printf("%nModo: %s (heap máximo %d MB)%n",
+                    virtuales ? "hilos virtuales" : "hilos de plataforma", Runtime.getRuntime().maxMemory() >> 20);
+            System.out.printf("Peticiones: %d, concurrencia: %d, latencia de productos: %d ms%n",
+                    PETICIONES, CONCURRENCIA, LATENCIA_PRODUCTO_MS);
+            System.out.printf("Máximo de peticiones en curso: %d%n", maxEnVuelo.get());
+            System.out.printf("Latencia p50: %.1f ms, p99: %.1f ms, máx: %.1f ms%n",
+                    percentil(latencias, 0.50), percentil(latencias, 0.99), latencias[latencias.length - 1] / 1e6);
+            System.out.printf("Rendimiento: %.0f peticiones/s%n", PETICIONES / segundos);
+            System.out.printf("Pico de heap: %d MB%n", picoHeap >> 20);
+            System.out.printf("Eventos de hilo virtual fijado: %d%n", fijados.sum());
+            fijadosPorMarco.forEach((marco, total) -> System.out.printf("  %6d  %s%n", total.sum(), marco));
+        } finally {
+            contexto.close();
+            productoSimulado.stop(0);
+        }
+    }
+
+    /**
+     * Lanza las peticiones con como máximo CONCURRENCIA a la vez
+     * @return Latencia de cada petición en nanosegundos
+     */
+    private static long[] lanzar(HttpClient cliente, ExecutorService clientes, int puerto, int total)
+            throws InterruptedException {
+        long[] latencias = new long[total];
+        Semaphore permisos = new Semaphore(CONCURRENCIA);
+        LongAdder errores = new LongAdder();
+
+        for (int i = 0; i < total; i++) {
+            permisos.acquire();
+            int indice = i;
+            HttpRequest peticion = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + puerto + "/api/inventarios/" + (i % PRODUCTOS + 1)))
+                    .header("X-API-KEY", API_KEY)
+                    .GET()
+                    .build();
+            clientes.execute(() -> {
+                long inicio = System.nanoTime();
+                try {
+                    HttpResponse<Void> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.discarding());
+                    if (respuesta.statusCode() != 200) {
+                        errores.increment();
+                    }
+                } catch (IOException | InterruptedException e) {
+                    errores.increment();
+                } finally {
+                    latencias[indice] = System.nanoTime() - inicio;
+                    permisos.release();
+                }
+            });
+        }
+
+        permisos.acquire(CONCURRENCIA);
+        permisos.release(CONCURRENCIA);
+        if (errores.sum() > 0) {
+            System.out.printf("Peticiones con error: %d de %d%n", errores.sum(), total);
+        }
+        return latencias;
+    }
+
+    /**
+     * Servicio de productos que responde tras una espera fija, sin limitar la concurrencia
+     */
+    private static HttpServer iniciarProductoSimulado() throws IOException {
+        HttpServer servidor = HttpServer.create(new InetSocketAddress("localhost", 0), CONCURRENCIA);
+        servidor.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        servidor.createContext("/api/productos/", intercambio -> {
+            String ruta = intercambio.getRequestURI().getPath();
+            String id = ruta.substring(ruta.lastIndexOf('/') + 1);
+            try {
+                TimeUnit.MILLISECONDS.sleep(LATENCIA_PRODUCTO_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] cuerpo = ("{\"data\":{\"type\":\"productos\",\"id\":\"" + id
+                    + "\",\"attributes\":{\"nombre\":\"Producto " + id + "\",\"precio\":10.0}}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        });
+        servidor.start();
+        return servidor;
+    }
+
+    /**
+     * Cuenta las peticiones que están dentro del servicio (ya aceptadas por un hilo de Tomcat)
+     */
+    private static FilterRegistrationBean<OncePerRequestFilter> medidorEnVuelo() {
+        FilterRegistrationBean<OncePerRequestFilter> registro = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                maxEnVuelo.accumulateAndGet(enVuelo.incrementAndGet(), Math::max);
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    enVuelo.decrementAndGet();
+                }
+            }
+        });
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+
+    private static String primerMarcoPropio(List<RecordedFrame> marcos) {
+        for (RecordedFrame marco : marcos) {
+            String tipo = marco.getMethod().getType().getName();
+            if (tipo.startsWith("com.pruebatec.")) {
+                return tipo + "." + marco.getMethod().getName() + ":" + marco.getLineNumber();
+            }
+        }
+        return marcos.isEmpty() ? "(sin pila)" : marcos.get(0).getMethod().getType().getName() + "."
+                + marcos.get(0).getMethod().getName();
+    }
+
+    private static double percentil(long[] ordenadas, double percentil) {
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(indice, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,151 @@
+package com.pruebatec.inventario_service.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.ProductoDTO;
+import com.pruebatec.inventario_service.json.JsonApiDocumento;
+import com.pruebatec.inventario_service.json.SolicitudJsonApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el trabajo por solicitud de InventarioController con el mismo ObjectMapper:
+ * <ul>
+ *     <li>{@code respuestaMapas}: mapas anidados + Object[] serializados con writeValueAsBytes (implementación anterior)</li>
+ *     <li>{@code respuestaTipada}: {@link JsonApiDocumento} con un ObjectWriter ya preparado</li>
+ *     <li>{@code solicitudMapa}: cuerpo leído como Map y atributos extraídos con casts (implementación anterior)</li>
+ *     <li>{@code solicitudTipada}: {@link SolicitudJsonApi} con un ObjectReader ya preparado</li>
+ * </ul>
+ * Se ejecuta con el método main (incluye el GCProfiler para ver gc.alloc.rate.norm, bytes/op).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventarioJsonApiBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectWriter escritorDocumento;
+    private ObjectReader lectorCompra;
+    private InventarioDTO inventario;
+    private byte[] solicitud;
+
+    @Setup
+    public void setUp() {
+        escritorDocumento = objectMapper.writerFor(JsonApiDocumento.class);
+        lectorCompra = objectMapper.readerFor(
+                new TypeReference<SolicitudJsonApi<SolicitudJsonApi.Recurso<SolicitudJsonApi.Compra>>>() {});
+
+        // Respuesta típica de GET /api/inventarios/{productoId}
+        inventario = new InventarioDTO(7L, 120, new ProductoDTO(7L, "Producto 7", 107.5));
+        inventario.setCantidadReservada(15);
+
+        solicitud = "{\"data\":{\"type\":\"compras\",\"attributes\":{\"cantidadComprada\":5}}}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] respuestaMapas() throws IOException {
+        return objectMapper.writeValueAsBytes(formatJsonApiResponse(inventario));
+    }
+
+    @Benchmark
+    public byte[] respuestaTipada() throws IOException {
+        return escritorDocumento.writeValueAsBytes(JsonApiDocumento.desdeInventario(inventario));
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Integer solicitudMapa() throws IOException {
+        Map<String, Object> requestBody = objectMapper.readValue(solicitud, Map.class);
+        Map<String, Object> data = (Map<String, Object>) requestBody.get("data");
+        Map<String, Object> attributes = (Map<String, Object>) data.get("attributes");
+        return (Integer) attributes.get("cantidadComprada");
+    }
+
+    @Benchmark
+    public Integer solicitudTipada() throws IOException {
+        SolicitudJsonApi<SolicitudJsonApi.Recurso<SolicitudJsonApi.Compra>> cuerpo = lectorCompra.readValue(solicitud);
+        return cuerpo.data().attributes().cantidadComprada();
+    }
+
+    /**
+     * Copia del formateo anterior de InventarioController, como referencia
+     */
+    private static Map<String, Object> formatJsonApiResponse(InventarioDTO inventario) {
+        Map<String, Object> response = new HashMap<>();
+        Map<String, Object> data = new HashMap<>();
+        Map<String, Object> attributes = new HashMap<>();
+        Map<String, Object> relationships = new HashMap<>();
+
+        attributes.put("cantidad_restante_Inventario", inventario.getCantidad());
+        if (inventario.getCantidadReservada() != null) {
+            attributes.put("cantidad_reservada", inventario.getCantidadReservada());
+            attributes.put("cantidad_disponible", Math.max(0, inventario.getCantidad() - inventario.getCantidadReservada()));
+        }
+
+        data.put("type", "inventarios");
+        data.put("id", inventario.getProductoId().toString());
+        data.put("attributes", attributes);
+
+        if (inventario.getProducto() != null) {
+            Map<String, Object> productoRelationship = new HashMap<>();
+            Map<String, Object> productoData = new HashMap<>();
+            productoData.put("type", "productos");
+            productoData.put("id", inventario.getProducto().getId().toString());
+            productoRelationship.put("data", productoData);
+            relationships.put("producto", productoRelationship);
+            data.put("relationships", relationships);
+
+            Map<String, Object> included = new HashMap<>();
+            Map<String, Object> productoAttributes = new HashMap<>();
+            productoAttributes.put("nombre", inventario.getProducto().getNombre());
+            productoAttributes.put("precio", inventario.getProducto().getPrecio());
+            included.put("type", "productos");
+            included.put("id", inventario.getProducto().getId().toString());
+            included.put("attributes", productoAttributes);
+            response.put("included", new Object[]{included});
+        }
+
+        if (inventario.isProductoNoDisponible()) {
+            Map<String, Object> meta = new HashMap<>();
+            meta.put("producto_no_disponible", true);
+            response.put("meta", meta);
+        }
+
+        response.put("data", data);
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opciones = new OptionsBuilder()
+                .include(InventarioJsonApiBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opciones).run();
+    }
+}
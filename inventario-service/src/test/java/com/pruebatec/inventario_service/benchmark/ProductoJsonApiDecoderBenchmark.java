@@ -0,0 +1,113 @@
+package com.pruebatec.inventario_service.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebatec.inventario_service.dto.ProductoDTO;
+import com.pruebatec.inventario_service.json.ProductoJsonApiDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la decodificación de la respuesta del servicio de productos:
+ * <ul>
+ *     <li>{@code stringYArbol}: cuerpo como String + readTree + búsqueda lineal (implementación anterior)</li>
+ *     <li>{@code streaming}: {@link ProductoJsonApiDecoder} leyendo el flujo de bytes</li>
+ * </ul>
+ * Se ejecuta con el método main (incluye el GCProfiler para ver gc.alloc.rate.norm, bytes/op).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductoJsonApiDecoderBenchmark {
+
+    private static final Long ID_BUSCADO = 7L;
+
+    /**
+     * Número de recursos en "data": 1 es la respuesta de GET /api/productos/{id},
+     * valores mayores simulan una respuesta en arreglo donde hay que buscar el ID
+     */
+    @Param({"1", "20"})
+    private int recursos;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ProductoJsonApiDecoder decoder;
+    private byte[] cuerpo;
+
+    @Setup
+    public void setUp() {
+        decoder = new ProductoJsonApiDecoder(objectMapper.getFactory());
+
+        StringBuilder json = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < recursos; i++) {
+            long id = recursos == 1 ? ID_BUSCADO : i;
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"type\":\"productos\",\"id\":\"").append(id)
+                    .append("\",\"attributes\":{\"nombre\":\"Producto ").append(id)
+                    .append("\",\"precio\":").append(100 + id).append(".5}}");
+        }
+        json.append("],\"meta\":null}");
+        cuerpo = json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ProductoDTO stringYArbol() throws IOException {
+        String jsonResponse = new String(cuerpo, StandardCharsets.UTF_8);
+        JsonNode dataNode = objectMapper.readTree(jsonResponse).get("data");
+
+        JsonNode productoNode = null;
+        if (dataNode.isArray()) {
+            for (JsonNode node : dataNode) {
+                if (node.has("id") && node.get("id").asText().equals(ID_BUSCADO.toString())) {
+                    productoNode = node;
+                    break;
+                }
+            }
+        } else if (dataNode.has("id") && dataNode.get("id").asText().equals(ID_BUSCADO.toString())) {
+            productoNode = dataNode;
+        }
+
+        JsonNode attributesNode = productoNode.get("attributes");
+        ProductoDTO productoDTO = new ProductoDTO();
+        productoDTO.setId(Long.parseLong(productoNode.get("id").asText()));
+        productoDTO.setNombre(attributesNode.get("nombre").asText());
+        productoDTO.setPrecio(attributesNode.get("precio").asDouble());
+        return productoDTO;
+    }
+
+    @Benchmark
+    public ProductoDTO streaming() throws IOException {
+        return decoder.decodificar(new ByteArrayInputStream(cuerpo), ID_BUSCADO);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opciones = new OptionsBuilder()
+                .include(ProductoJsonApiDecoderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opciones).run();
+    }
+}
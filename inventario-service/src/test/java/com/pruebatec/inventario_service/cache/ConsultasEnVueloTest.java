@@ -0,0 +1,126 @@
+package com.pruebatec.inventario_service.cache;
+
+import com.pruebatec.inventario_service.exception.CommunicationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsultasEnVueloTest {
+
+    private static final int HILOS = 16;
+
+    @Test
+    @DisplayName("Test consultas concurrentes por la misma clave se ejecutan una sola vez")
+    void testColapsaConsultasConcurrentes() throws Exception {
+        // Arrange
+        ConsultasEnVuelo<Long, String> consultas = new ConsultasEnVuelo<>();
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger llamadas = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+
+        try {
+            // Act
+            List<Future<String>> resultados = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                resultados.add(executor.submit(() -> consultas.ejecutar(1L, id -> {
+                    llamadas.incrementAndGet();
+                    try {
+                        liberar.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "producto-" + id;
+                })));
+            }
+
+            // Esperar a que todos los hilos estén esperando la misma consulta
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (consultas.getColapsadas() < HILOS - 1 && System.nanoTime() < limite) {
+                Thread.sleep(5);
+            }
+            liberar.countDown();
+
+            // Assert
+            for (Future<String> resultado : resultados) {
+                assertEquals("producto-1", resultado.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, llamadas.get());
+            assertEquals(1, consultas.getEjecutadas());
+            assertEquals(HILOS - 1, consultas.getColapsadas());
+            assertEquals(0, consultas.getEnCurso());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test la excepción de la consulta se propaga y la clave queda libre")
+    void testPropagaExcepcion() {
+        // Arrange
+        ConsultasEnVuelo<Long, String> consultas = new ConsultasEnVuelo<>();
+
+        // Act & Assert
+        assertThrows(CommunicationException.class, () -> consultas.ejecutar(1L, id -> {
+            throw new CommunicationException("Error de conexión");
+        }));
+        assertEquals("ok", consultas.ejecutar(1L, id -> "ok"));
+        assertEquals(2, consultas.getEjecutadas());
+        assertEquals(0, consultas.getEnCurso());
+    }
+
+    @Test
+    @DisplayName("Test las consultas asíncronas por la misma clave comparten la que está en curso")
+    void testColapsaConsultasAsincronas() {
+        // Arrange
+        ConsultasEnVuelo<Long, String> consultas = new ConsultasEnVuelo<>();
+        CompletableFuture<String> remota = new CompletableFuture<>();
+        AtomicInteger llamadas = new AtomicInteger();
+
+        // Act
+        CompletableFuture<String> primera = consultas.ejecutarAsync(1L, id -> {
+            llamadas.incrementAndGet();
+            return remota;
+        });
+        CompletableFuture<String> segunda = consultas.ejecutarAsync(1L, id -> {
+            llamadas.incrementAndGet();
+            return CompletableFuture.completedFuture("otra");
+        });
+        assertFalse(primera.isDone());
+        remota.complete("producto");
+
+        // Assert
+        assertEquals("producto", primera.join());
+        assertEquals("producto", segunda.join());
+        assertEquals(1, llamadas.get());
+        assertEquals(1, consultas.getColapsadas());
+        assertEquals(0, consultas.getEnCurso());
+    }
+
+    @Test
+    @DisplayName("Test el error de la consulta asíncrona llega sin envolver y la clave queda libre")
+    void testErrorConsultaAsincrona() {
+        // Arrange
+        ConsultasEnVuelo<Long, String> consultas = new ConsultasEnVuelo<>();
+
+        // Act
+        CompletableFuture<String> fallida = consultas.ejecutarAsync(1L,
+                id -> CompletableFuture.failedFuture(new CommunicationException("caído")));
+
+        // Assert
+        CompletionException ex = assertThrows(CompletionException.class, fallida::join);
+        assertInstanceOf(CommunicationException.class, ex.getCause());
+        assertEquals("ok", consultas.ejecutarAsync(1L, id -> CompletableFuture.completedFuture("ok")).join());
+    }
+}
@@ -0,0 +1,80 @@
+package com.pruebatec.inventario_service.cache;
+
+import com.pruebatec.inventario_service.dto.CambiosProductoDTO;
+import com.pruebatec.inventario_service.exception.CommunicationException;
+import com.pruebatec.inventario_service.service.impl.ProductoClientServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductoCacheInvalidadorTest {
+
+    @Mock
+    private ProductoClientServiceImpl productoClientService;
+
+    @Mock
+    private ProductoCache productoCache;
+
+    @InjectMocks
+    private ProductoCacheInvalidador invalidador;
+
+    @Test
+    @DisplayName("Test primer sondeo vacía la caché y los siguientes invalidan solo lo cambiado")
+    void testInvalidacionPrecisa() {
+        // Arrange
+        when(productoClientService.getCambiosProductos(-1L))
+                .thenReturn(new CambiosProductoDTO("A", 10L, false, List.of()));
+        when(productoClientService.getCambiosProductos(10L))
+                .thenReturn(new CambiosProductoDTO("A", 12L, true, List.of(3L, 7L)));
+
+        // Act
+        invalidador.sondearCambios();
+        invalidador.sondearCambios();
+
+        // Assert
+        verify(productoCache, times(1)).invalidateAll();
+        verify(productoCache).invalidate(3L);
+        verify(productoCache).invalidate(7L);
+    }
+
+    @Test
+    @DisplayName("Test reinicio del servicio de productos vacía la caché")
+    void testReinicioServicioProductos() {
+        // Arrange
+        when(productoClientService.getCambiosProductos(-1L))
+                .thenReturn(new CambiosProductoDTO("A", 10L, false, List.of()));
+        when(productoClientService.getCambiosProductos(10L))
+                .thenReturn(new CambiosProductoDTO("B", 15L, true, List.of(1L)));
+
+        // Act
+        invalidador.sondearCambios();
+        invalidador.sondearCambios();
+
+        // Assert
+        verify(productoCache, times(2)).invalidateAll();
+        verify(productoCache, never()).invalidate(anyLong());
+    }
+
+    @Test
+    @DisplayName("Test error de comunicación no modifica la caché")
+    void testErrorComunicacion() {
+        // Arrange
+        when(productoClientService.getCambiosProductos(anyLong()))
+                .thenThrow(new CommunicationException("Error de conexión"));
+
+        // Act
+        invalidador.sondearCambios();
+
+        // Assert
+        verifyNoInteractions(productoCache);
+    }
+}
@@ -0,0 +1,119 @@
+package com.pruebatec.inventario_service.cache;
+
+import com.pruebatec.inventario_service.dto.ProductoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductoCacheTest {
+
+    private AtomicLong reloj;
+    private ProductoCache cache;
+
+    @BeforeEach
+    void setUp() {
+        reloj = new AtomicLong();
+        cache = new ProductoCache(true, 2, 1000, reloj::get);
+    }
+
+    @Test
+    @DisplayName("Test acierto y fallo de caché")
+    void testAciertoYFallo() {
+        // Arrange
+        ProductoDTO producto = new ProductoDTO(1L, "Laptop", 1200.0);
+
+        // Act
+        ProductoDTO antes = cache.get(1L);
+        cache.put(1L, producto);
+        ProductoDTO despues = cache.get(1L);
+
+        // Assert
+        assertNull(antes);
+        assertSame(producto, despues);
+        assertEquals(1, cache.getAciertos());
+        assertEquals(1, cache.getFallos());
+    }
+
+    @Test
+    @DisplayName("Test expiración por tiempo de vida")
+    void testExpiracion() {
+        // Arrange
+        cache.put(1L, new ProductoDTO(1L, "Laptop", 1200.0));
+
+        // Act
+        reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001));
+
+        // Assert
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getDesalojos());
+    }
+
+    @Test
+    @DisplayName("Test desalojo por tamaño máximo")
+    void testDesalojoPorTamano() {
+        // Act
+        cache.put(1L, new ProductoDTO(1L, "Laptop", 1200.0));
+        cache.put(2L, new ProductoDTO(2L, "Smartphone", 800.0));
+        cache.put(3L, new ProductoDTO(3L, "Tablet", 400.0));
+
+        // Assert
+        assertEquals(2, cache.size());
+        assertNull(cache.get(1L));
+        assertNotNull(cache.get(3L));
+        assertEquals(1, cache.getDesalojos());
+    }
+
+    @Test
+    @DisplayName("Test el desalojo descarta la entrada usada hace más tiempo")
+    void testDesalojoMenosUsada() {
+        // Arrange
+        cache.put(1L, new ProductoDTO(1L, "Laptop", 1200.0));
+        cache.put(2L, new ProductoDTO(2L, "Smartphone", 800.0));
+        cache.get(1L);
+
+        // Act
+        cache.put(3L, new ProductoDTO(3L, "Tablet", 400.0));
+
+        // Assert: el producto 1 se consultó después del 2 y se conserva
+        assertNotNull(cache.get(1L));
+        assertNull(cache.get(2L));
+        assertNotNull(cache.get(3L));
+    }
+
+    @Test
+    @DisplayName("Test invalidación y caché deshabilitada")
+    void testInvalidacionYDeshabilitada() {
+        // Arrange
+        ProductoCache deshabilitada = new ProductoCache(false, 2, 1000, reloj::get);
+        cache.put(1L, new ProductoDTO(1L, "Laptop", 1200.0));
+        deshabilitada.put(1L, new ProductoDTO(1L, "Laptop", 1200.0));
+
+        // Act
+        cache.invalidate(1L);
+
+        // Assert
+        assertNull(cache.get(1L));
+        assertNull(deshabilitada.get(1L));
+        assertEquals(0, deshabilitada.size());
+    }
+
+    @Test
+    @DisplayName("Test no se guarda un valor consultado antes de una invalidación")
+    void testPutTrasInvalidacion() {
+        // Arrange
+        long generacion = cache.generacion();
+
+        // Act
+        cache.invalidate(1L);
+        cache.put(1L, new ProductoDTO(1L, "Laptop", 1200.0), generacion);
+
+        // Assert
+        assertNull(cache.get(1L));
+    }
+}
@@ -3,9 +3,11 @@ package com.pruebatec.inventario_service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.LineaCompraDTO;
 import com.pruebatec.inventario_service.dto.ProductoDTO;
 import com.pruebatec.inventario_service.exception.CommunicationException;
 import com.pruebatec.inventario_service.exception.ResourceNotFoundException;
+import com.pruebatec.inventario_service.idempotencia.AlmacenIdempotencia;
 import com.pruebatec.inventario_service.service.InventarioService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,14 +16,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +47,9 @@ class InventarioControllerTest {
     @MockBean
     private InventarioService inventarioService;
 
+    @MockBean
+    private AlmacenIdempotencia almacenIdempotencia;
+
     private InventarioDTO inventarioDTO;
     private ProductoDTO productoDTO;
     private final Long PRODUCTO_ID = 1L;
@@ -76,6 +88,23 @@ class InventarioControllerTest {
                 .andExpect(jsonPath("$.included[0].attributes.precio").value(100.0));
     }
 
+    @Test
+    @DisplayName("GET /api/inventarios/{productoId} - Producto no disponible se indica en meta")
+    void getInventarioProductoNoDisponible() throws Exception {
+        // Arrange
+        inventarioDTO.setProducto(null);
+        inventarioDTO.setProductoNoDisponible(true);
+        when(inventarioService.getInventarioByProductoId(PRODUCTO_ID)).thenReturn(inventarioDTO);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/inventarios/{productoId}", PRODUCTO_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.attributes.cantidad_restante_Inventario").value(10))
+                .andExpect(jsonPath("$.data.relationships").doesNotExist())
+                .andExpect(jsonPath("$.included").doesNotExist())
+                .andExpect(jsonPath("$.meta.producto_no_disponible").value(true));
+    }
+
     @Test
     @DisplayName("GET /api/inventarios/{productoId} - Producto no encontrado")
     void getInventarioProductNotFound() throws Exception {
@@ -155,6 +184,36 @@ class InventarioControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("PATCH /api/inventarios/{productoId} - Cuerpo sin atributos o inválido")
+    void actualizarInventarioCuerpoInvalido() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/api/inventarios/{productoId}", PRODUCTO_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"data\":{\"type\":\"inventarios\"}}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/inventarios/{productoId}", PRODUCTO_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"data\":"))
+                .andExpect(status().isBadRequest());
+
+        // Verify
+        verify(inventarioService, never()).actualizarCantidad(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/inventarios/{productoId} - Tipo de contenido no soportado")
+    void actualizarInventarioTipoContenidoNoSoportado() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/api/inventarios/{productoId}", PRODUCTO_ID)
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("{\"data\":{\"type\":\"inventarios\",\"attributes\":{\"cantidad\":20}}}"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        // Verify
+        verify(inventarioService, never()).actualizarCantidad(anyLong(), anyInt());
+    }
+
     @Test
     @DisplayName("POST /api/inventarios/{productoId}/compras - Éxito")
     void registrarCompraSuccess() throws Exception {
@@ -184,6 +243,39 @@ class InventarioControllerTest {
                 .andExpect(jsonPath("$.data.attributes.cantidad_restante_Inventario").value(5));
     }
 
+    @Test
+    @DisplayName("POST /api/inventarios/{productoId}/compras - Reintento con Idempotency-Key")
+    void registrarCompraConClaveIdempotencia() throws Exception {
+        // Arrange
+        String respuestaGuardada = "{\"data\":{\"type\":\"inventarios\",\"id\":\"1\",\"attributes\":{\"cantidad_restante_Inventario\":5}}}";
+        doReturn(ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(AlmacenIdempotencia.CABECERA_REPETIDA, "true")
+                .body(respuestaGuardada))
+                .when(almacenIdempotencia).ejecutar(eq("clave-1"), eq("POST /api/inventarios/1/compras"), any(), any());
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("cantidadComprada", 5);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "compras");
+        data.put("attributes", attributes);
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("data", data);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/inventarios/{productoId}/compras", PRODUCTO_ID)
+                .header("Idempotency-Key", "clave-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(AlmacenIdempotencia.CABECERA_REPETIDA, "true"))
+                .andExpect(jsonPath("$.data.attributes.cantidad_restante_Inventario").value(5));
+
+        verify(inventarioService, never()).registrarCompra(anyLong(), anyInt());
+    }
+
     @Test
     @DisplayName("POST /api/inventarios/{productoId}/compras - Stock insuficiente")
     void registrarCompraInsufficientStock() throws Exception {
@@ -260,4 +352,111 @@ class InventarioControllerTest {
                 .content(objectMapper.writeValueAsString(requestBody)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("POST /api/inventarios/compras - Éxito")
+    void registrarComprasSuccess() throws Exception {
+        // Arrange
+        when(inventarioService.registrarCompras(anyList())).thenReturn(List.of(
+                new InventarioDTO(1L, 8, null),
+                new InventarioDTO(2L, 14, null)));
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("data", List.of(lineaCompra(2L, 1), lineaCompra(1L, 2)));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/inventarios/compras")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[0].type").value("inventarios"))
+                .andExpect(jsonPath("$.data[0].id").value("1"))
+                .andExpect(jsonPath("$.data[0].attributes.cantidad_restante_Inventario").value(8))
+                .andExpect(jsonPath("$.data[1].id").value("2"))
+                .andExpect(jsonPath("$.data[1].attributes.cantidad_restante_Inventario").value(14));
+
+        verify(inventarioService).registrarCompras(List.of(
+                new LineaCompraDTO(2L, 1),
+                new LineaCompraDTO(1L, 2)));
+    }
+
+    @Test
+    @DisplayName("POST /api/inventarios/compras - Stock insuficiente")
+    void registrarComprasInsufficientStock() throws Exception {
+        // Arrange
+        when(inventarioService.registrarCompras(anyList()))
+                .thenThrow(new IllegalArgumentException("Stock insuficiente"));
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("data", List.of(lineaCompra(1L, 200)));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/inventarios/compras")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Map<String, Object> lineaCompra(Long productoId, int cantidadComprada) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("productoId", productoId);
+        attributes.put("cantidadComprada", cantidadComprada);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("type", "compras");
+        data.put("attributes", attributes);
+        return data;
+    }
+
+    @Test
+    @DisplayName("GET /api/inventarios?filter[productoId] - Varios inventarios con productos incluidos una vez")
+    void getInventariosPorIds() throws Exception {
+        // Arrange
+        ProductoDTO otroProducto = new ProductoDTO(2L, "Otro producto", 5.0);
+        InventarioDTO otroInventario = new InventarioDTO();
+        otroInventario.setProductoId(2L);
+        otroInventario.setCantidad(3);
+        otroInventario.setCantidadReservada(1);
+        otroInventario.setProducto(otroProducto);
+        InventarioDTO sinProducto = new InventarioDTO();
+        sinProducto.setProductoId(3L);
+        sinProducto.setCantidad(0);
+        sinProducto.setProductoNoDisponible(true);
+        InventarioDTO repetido = new InventarioDTO();
+        repetido.setProductoId(4L);
+        repetido.setCantidad(7);
+        repetido.setProducto(productoDTO);
+        when(inventarioService.getInventariosByProductoIds(List.of(1L, 2L, 3L, 4L)))
+                .thenReturn(List.of(inventarioDTO, otroInventario, sinProducto, repetido));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/inventarios").param("filter[productoId]", "1, 2,3,4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(4))
+                .andExpect(jsonPath("$.data[0].id").value("1"))
+                .andExpect(jsonPath("$.data[0].relationships.producto.data.id").value("1"))
+                .andExpect(jsonPath("$.data[1].attributes.cantidad_restante_Inventario").value(3))
+                .andExpect(jsonPath("$.data[1].attributes.cantidad_disponible").value(2))
+                .andExpect(jsonPath("$.data[2].relationships").doesNotExist())
+                .andExpect(jsonPath("$.data[2].meta.producto_no_disponible").value(true))
+                .andExpect(jsonPath("$.data[3].relationships.producto.data.id").value("1"))
+                .andExpect(jsonPath("$.included.length()").value(2))
+                .andExpect(jsonPath("$.included[0].id").value("1"))
+                .andExpect(jsonPath("$.included[1].id").value("2"))
+                .andExpect(jsonPath("$.included[1].attributes.nombre").value("Otro producto"));
+    }
+
+    @Test
+    @DisplayName("GET /api/inventarios?filter[productoId] - IDs inválidos")
+    void getInventariosPorIdsInvalidos() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/inventarios").param("filter[productoId]", "1,abc"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/inventarios").param("filter[productoId]", " , "))
+                .andExpect(status().isBadRequest());
+
+        // Verify
+        verify(inventarioService, never()).getInventariosByProductoIds(anyList());
+    }
+}
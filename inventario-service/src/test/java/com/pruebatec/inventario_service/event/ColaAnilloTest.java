@@ -0,0 +1,85 @@
+package com.pruebatec.inventario_service.event;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColaAnilloTest {
+
+    @Test
+    @DisplayName("Test la cola respeta el orden y su capacidad")
+    void testOrdenYCapacidad() {
+        // Arrange
+        ColaAnillo<Integer> cola = new ColaAnillo<>(3);
+
+        // Act & Assert
+        assertEquals(4, cola.capacidad());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(cola.offer(i));
+        }
+        assertFalse(cola.offer(4));
+        assertEquals(4, cola.size());
+
+        assertEquals(0, cola.poll());
+        assertTrue(cola.offer(4));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, cola.poll());
+        }
+        assertNull(cola.poll());
+        assertEquals(0, cola.size());
+    }
+
+    @Test
+    @DisplayName("Test varios productores concurrentes no pierden ni duplican elementos")
+    void testProductoresConcurrentes() throws Exception {
+        // Arrange
+        int productores = 8;
+        int porProductor = 20000;
+        ColaAnillo<Integer> cola = new ColaAnillo<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(productores);
+        boolean[] recibidos = new boolean[productores * porProductor];
+
+        try {
+            // Act
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int p = 0; p < productores; p++) {
+                int base = p * porProductor;
+                tareas.add(executor.submit(() -> {
+                    for (int i = 0; i < porProductor; i++) {
+                        while (!cola.offer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }));
+            }
+
+            int consumidos = 0;
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (consumidos < recibidos.length && System.nanoTime() < limite) {
+                Integer elemento = cola.poll();
+                if (elemento != null) {
+                    assertFalse(recibidos[elemento], "Elemento duplicado: " + elemento);
+                    recibidos[elemento] = true;
+                    consumidos++;
+                }
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(10, TimeUnit.SECONDS);
+            }
+
+            // Assert
+            assertEquals(recibidos.length, consumidos);
+            assertNull(cola.poll());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.pruebatec.inventario_service.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.event.InventarioEventPublisher.TipoOperacion;
+import com.pruebatec.inventario_service.repository.EventoOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InventarioEventPublisherTest {
+
+    private PipelineEventos<EventoInventario> pipeline;
+    private InventarioEventPublisher publisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Sin iniciar el consumidor, para que la cola no se vacíe
+        pipeline = new PipelineEventos<>("prueba", 2, PoliticaContrapresion.FALLAR, 10, lote -> { });
+        ObjectProvider<PipelineEventos<EventoInventario>> proveedor = mock(ObjectProvider.class);
+        when(proveedor.getIfAvailable()).thenReturn(pipeline);
+        publisher = new InventarioEventPublisher(mock(EventoOutboxRepository.class), new ObjectMapper(), proveedor);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static EventoInventario evento() {
+        return new EventoInventario(TipoOperacion.COMPRA, List.of(new InventarioDTO(1L, 5, null)), Instant.now());
+    }
+
+    private static void confirmar() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    @Test
+    @DisplayName("Test con FALLAR y la cola llena antes del commit la operación falla")
+    void testColaLlenaAntesDelCommit() {
+        // Arrange
+        pipeline.publicar(evento());
+        pipeline.publicar(evento());
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> publisher.publicarCambioInventario(new InventarioDTO(1L, 5, null), TipoOperacion.COMPRA));
+        assertEquals(0, publisher.getPerdidos());
+    }
+
+    @Test
+    @DisplayName("Test con FALLAR el evento de una transacción confirmada que no cabe se cuenta como perdido")
+    void testColaLlenaTrasElCommit() {
+        // Arrange
+        publisher.publicarCambioInventario(new InventarioDTO(1L, 5, null), TipoOperacion.COMPRA);
+        pipeline.publicar(evento());
+        pipeline.publicar(evento());
+
+        // Act
+        confirmar();
+
+        // Assert
+        assertEquals(1, publisher.getPerdidos());
+        assertEquals(2, pipeline.getEnCola());
+    }
+}
@@ -0,0 +1,89 @@
+package com.pruebatec.inventario_service.event;
+
+import com.pruebatec.inventario_service.entity.EventoOutbox;
+import com.pruebatec.inventario_service.repository.EventoOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final Instant AHORA = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Mock
+    private EventoOutboxRepository outboxRepository;
+
+    @Mock
+    private EventoSink eventoSink;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxRepository, eventoSink, 2, 10, Clock.fixed(AHORA, ZoneOffset.UTC));
+    }
+
+    private EventoOutbox evento(long id) {
+        return new EventoOutbox(id, "COMPRA", "{\"tipoOperacion\":\"COMPRA\",\"cambios\":[]}", AHORA.minusSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Test entrega los lotes en orden y los borra del outbox")
+    void testDrenaEnLotes() throws IOException {
+        // Arrange
+        List<EventoOutbox> primerLote = List.of(evento(1), evento(2));
+        List<EventoOutbox> segundoLote = List.of(evento(3));
+        when(outboxRepository.findByOrderByIdAsc(any(Pageable.class))).thenReturn(primerLote, segundoLote);
+        when(outboxRepository.count()).thenReturn(0L);
+        when(outboxRepository.findCreadoEnMasAntiguo()).thenReturn(null);
+
+        // Act
+        relay.drenar();
+
+        // Assert
+        verify(eventoSink).publicar(primerLote);
+        verify(eventoSink).publicar(segundoLote);
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(3L));
+        assertEquals(3, relay.getPublicados());
+        assertEquals(0, relay.getPendientes());
+        assertEquals(0, relay.getRetrasoMs());
+    }
+
+    @Test
+    @DisplayName("Test si el destino falla el lote no se borra y se mide el retraso")
+    void testDestinoFalla() throws IOException {
+        // Arrange
+        List<EventoOutbox> lote = List.of(evento(1), evento(2));
+        when(outboxRepository.findByOrderByIdAsc(any(Pageable.class))).thenReturn(lote);
+        doThrow(new IOException("Destino no disponible")).when(eventoSink).publicar(lote);
+        when(outboxRepository.count()).thenReturn(2L);
+        when(outboxRepository.findCreadoEnMasAntiguo()).thenReturn(AHORA.minusSeconds(5));
+
+        // Act
+        relay.drenar();
+
+        // Assert
+        verify(outboxRepository, never()).deleteAllByIdInBatch(anyList());
+        assertEquals(0, relay.getPublicados());
+        assertEquals(1, relay.getErrores());
+        assertEquals(2, relay.getPendientes());
+        assertEquals(5000, relay.getRetrasoMs());
+    }
+}
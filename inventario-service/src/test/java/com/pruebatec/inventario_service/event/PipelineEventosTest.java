@@ -0,0 +1,108 @@
+package com.pruebatec.inventario_service.event;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineEventosTest {
+
+    @Test
+    @DisplayName("Test los eventos se entregan en orden y en lotes acotados")
+    void testEntregaEnLotes() throws InterruptedException {
+        // Arrange
+        List<List<Integer>> lotes = new CopyOnWriteArrayList<>();
+        PipelineEventos<Integer> pipeline = new PipelineEventos<>(
+                "prueba", 1024, PoliticaContrapresion.BLOQUEAR, 10, lotes::add);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            assertTrue(pipeline.publicar(i));
+        }
+        pipeline.iniciar();
+        pipeline.detener();
+
+        // Assert
+        List<Integer> entregados = lotes.stream().flatMap(List::stream).toList();
+        assertEquals(100, entregados.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, entregados.get(i));
+        }
+        assertTrue(lotes.stream().allMatch(lote -> lote.size() <= 10));
+        assertEquals(100, pipeline.getEntregados());
+    }
+
+    @Test
+    @DisplayName("Test con la cola llena DESCARTAR_ANTIGUO conserva los eventos más recientes")
+    void testDescartarAntiguo() {
+        // Arrange
+        PipelineEventos<Integer> pipeline = new PipelineEventos<>(
+                "prueba", 2, PoliticaContrapresion.DESCARTAR_ANTIGUO, 10, lote -> { });
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertTrue(pipeline.publicar(i));
+        }
+
+        // Assert
+        assertEquals(2, pipeline.getEnCola());
+        assertEquals(3, pipeline.getDescartados());
+    }
+
+    @Test
+    @DisplayName("Test con la cola llena FALLAR rechaza el evento")
+    void testFallar() {
+        // Arrange
+        PipelineEventos<Integer> pipeline = new PipelineEventos<>(
+                "prueba", 2, PoliticaContrapresion.FALLAR, 10, lote -> { });
+
+        // Act & Assert
+        assertTrue(pipeline.publicar(1));
+        assertTrue(pipeline.publicar(2));
+        assertFalse(pipeline.hayEspacio());
+        assertFalse(pipeline.publicar(3));
+        assertEquals(1, pipeline.getRechazados());
+    }
+
+    @Test
+    @DisplayName("Test con la cola llena BLOQUEAR espera a que el consumidor libere espacio")
+    void testBloquear() throws InterruptedException {
+        // Arrange
+        CountDownLatch liberar = new CountDownLatch(1);
+        List<Integer> entregados = new CopyOnWriteArrayList<>();
+        PipelineEventos<Integer> pipeline = new PipelineEventos<>(
+                "prueba", 2, PoliticaContrapresion.BLOQUEAR, 1, lote -> {
+                    liberar.await(10, TimeUnit.SECONDS);
+                    entregados.addAll(lote);
+                });
+        pipeline.iniciar();
+        Thread liberador = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            liberar.countDown();
+        });
+        liberador.start();
+
+        try {
+            // Act: la cola se llena mientras el consumidor está bloqueado entregando
+            for (int i = 0; i < 5; i++) {
+                assertTrue(pipeline.publicar(i));
+            }
+        } finally {
+            pipeline.detener();
+            liberador.join();
+        }
+
+        // Assert
+        assertEquals(List.of(0, 1, 2, 3, 4), entregados);
+        assertEquals(0, pipeline.getRechazados());
+    }
+}
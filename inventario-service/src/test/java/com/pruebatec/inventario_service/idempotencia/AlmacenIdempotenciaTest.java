@@ -0,0 +1,307 @@
+package com.pruebatec.inventario_service.idempotencia;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebatec.inventario_service.entity.SolicitudIdempotente;
+import com.pruebatec.inventario_service.exception.ClaveIdempotenciaReutilizadaException;
+import com.pruebatec.inventario_service.exception.SolicitudEnCursoException;
+import com.pruebatec.inventario_service.repository.SolicitudIdempotenteRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AlmacenIdempotenciaTest {
+
+    private static final String OPERACION = "POST /api/inventarios/1/compras";
+    private static final Map<String, Object> CUERPO = Map.of("data", Map.of("attributes", Map.of("cantidadComprada", 5)));
+
+    @Mock
+    private SolicitudIdempotenteRepository repository;
+
+    private final Instant ahora = Instant.parse("2025-01-01T00:00:00Z");
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+    private AlmacenIdempotencia almacen;
+
+    @BeforeEach
+    void setUp() {
+        almacen = new AlmacenIdempotencia(repository, new ObjectMapper(), 100, 60_000, 5_000, Clock.fixed(ahora, ZoneOffset.UTC));
+    }
+
+    private Supplier<ResponseEntity<?>> compra() {
+        return () -> {
+            ejecuciones.incrementAndGet();
+            return ResponseEntity.ok(Map.of("data", Map.of("id", "1")));
+        };
+    }
+
+    @Test
+    @DisplayName("Test un reintento con la misma clave devuelve la respuesta guardada sin ejecutar de nuevo")
+    void testReintentoRepiteRespuesta() {
+        // Arrange
+        when(repository.findById("clave-1")).thenReturn(Optional.empty());
+
+        // Act
+        ResponseEntity<?> primera = almacen.ejecutar("clave-1", OPERACION, CUERPO, compra());
+        ResponseEntity<?> repetida = almacen.ejecutar("clave-1", OPERACION, CUERPO, compra());
+
+        // Assert
+        assertEquals(1, ejecuciones.get());
+        assertEquals(HttpStatus.OK, primera.getStatusCode());
+        assertEquals(HttpStatus.OK, repetida.getStatusCode());
+        assertEquals("{\"data\":{\"id\":\"1\"}}", repetida.getBody());
+        assertEquals("true", repetida.getHeaders().getFirst(AlmacenIdempotencia.CABECERA_REPETIDA));
+        verify(repository).registrarEnCurso(eq("clave-1"), anyString(), eq(ahora));
+        verify(repository).completar("clave-1", 200, "{\"data\":{\"id\":\"1\"}}");
+    }
+
+    @Test
+    @DisplayName("Test una respuesta ya serializada se guarda y se repite tal cual")
+    void testRespuestaSerializada() {
+        // Arrange
+        String json = "{\"data\":{\"type\":\"inventarios\",\"id\":\"1\"}}";
+        when(repository.findById("clave-1")).thenReturn(Optional.empty());
+        Supplier<ResponseEntity<?>> accion = () -> ResponseEntity.ok(json.getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        almacen.ejecutar("clave-1", OPERACION, CUERPO, accion);
+        ResponseEntity<?> repetida = almacen.ejecutar("clave-1", OPERACION, CUERPO, accion);
+
+        // Assert
+        assertEquals(json, repetida.getBody());
+        verify(repository).completar("clave-1", 200, json);
+    }
+
+    @Test
+    @DisplayName("Test la misma clave con otra solicitud se rechaza")
+    void testClaveReutilizada() {
+        // Arrange
+        when(repository.findById("clave-1")).thenReturn(Optional.empty());
+        almacen.ejecutar("clave-1", OPERACION, CUERPO, compra());
+
+        // Act & Assert
+        assertThrows(ClaveIdempotenciaReutilizadaException.class, () ->
+                almacen.ejecutar("clave-1", "POST /api/inventarios/2/compras", CUERPO, compra()));
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    @DisplayName("Test si la operación falla la clave se libera para el reintento")
+    void testOperacionFallida() {
+        // Arrange
+        when(repository.findById("clave-1")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> almacen.ejecutar("clave-1", OPERACION, CUERPO, () -> {
+            throw new IllegalArgumentException("Stock insuficiente");
+        }));
+        verify(repository).deleteById("clave-1");
+        verify(repository, never()).completar(anyString(), anyInt(), anyString());
+
+        almacen.ejecutar("clave-1", OPERACION, CUERPO, compra());
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    @DisplayName("Test una respuesta guardada en la tabla se repite aunque no esté en memoria")
+    void testRepiteDesdeTabla() {
+        // Arrange: otra instancia ya completó la solicitud con la misma huella
+        when(repository.findById("clave-1")).thenReturn(Optional.empty());
+        almacen.ejecutar("clave-1", OPERACION, CUERPO, compra());
+        AlmacenIdempotencia otraInstancia = new AlmacenIdempotencia(
+                repository, new ObjectMapper(), 100, 60_000, 5_000, Clock.fixed(ahora, ZoneOffset.UTC));
+        String huella = capturarHuella();
+        when(repository.findById("clave-1")).thenReturn(Optional.of(new SolicitudIdempotente(
+                "clave-1", huella, SolicitudIdempotente.COMPLETADA, 200, "{\"data\":{\"id\":\"1\"}}", ahora)));
+
+        // Act
+        ResponseEntity<?> repetida = otraInstancia.ejecutar("clave-1", OPERACION, CUERPO, compra());
+
+        // Assert
+        assertEquals(1, ejecuciones.get());
+        assertEquals("{\"data\":{\"id\":\"1\"}}", repetida.getBody());
+    }
+
+    @Test
+    @DisplayName("Test una solicitud en curso en otra instancia responde conflicto")
+    void testSolicitudEnCurso() {
+        // Arrange
+        when(repository.findById("clave-1")).thenReturn(Optional.empty());
+        almacen.ejecutar("clave-1", OPERACION, CUERPO, compra());
+        String huella = capturarHuella();
+        AlmacenIdempotencia otraInstancia = new AlmacenIdempotencia(
+                repository, new ObjectMapper(), 100, 60_000, 5_000, Clock.fixed(ahora, ZoneOffset.UTC));
+        when(repository.findById("clave-1")).thenReturn(Optional.of(new SolicitudIdempotente(
+                "clave-1", huella, SolicitudIdempotente.EN_CURSO, null, null, ahora)));
+
+        // Act & Assert
+        assertThrows(SolicitudEnCursoException.class, () ->
+                otraInstancia.ejecutar("clave-1", OPERACION, CUERPO, compra()));
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    @DisplayName("Test la misma clave con otro cuerpo mientras la primera sigue en curso se rechaza")
+    void testClaveReutilizadaEnCurso() throws Exception {
+        // Arrange: la tabla refleja la fila EN_CURSO que registra la primera solicitud
+        AtomicReference<String> huellaEnCurso = new AtomicReference<>();
+        when(repository.findById("clave-1")).thenAnswer(invocacion -> Optional.ofNullable(huellaEnCurso.get())
+                .map(huella -> new SolicitudIdempotente("clave-1", huella, SolicitudIdempotente.EN_CURSO, null, null, ahora)));
+        when(repository.registrarEnCurso(eq("clave-1"), anyString(), eq(ahora))).thenAnswer(invocacion -> {
+            huellaEnCurso.set(invocacion.getArgument(1));
+            return 1;
+        });
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<ResponseEntity<?>> primera = executor.submit(() -> almacen.ejecutar("clave-1", OPERACION, CUERPO, () -> {
+                enCurso.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return compra().get();
+            }));
+            assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+
+            // Act & Assert: no se une a la ejecución en curso ni espera a que termine
+            Map<String, Object> otroCuerpo = Map.of("data", Map.of("attributes", Map.of("cantidadComprada", 9)));
+            assertThrows(ClaveIdempotenciaReutilizadaException.class, () ->
+                    almacen.ejecutar("clave-1", OPERACION, otroCuerpo, compra()));
+            liberar.countDown();
+
+            assertEquals(HttpStatus.OK, primera.get(5, TimeUnit.SECONDS).getStatusCode());
+            assertEquals(1, ejecuciones.get());
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test la misma solicitud simultánea espera a la primera y recibe su respuesta como repetida")
+    void testSolicitudSimultaneaRepetida() throws Exception {
+        // Arrange
+        when(repository.findById("clave-1")).thenReturn(Optional.empty());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        almacen.bindTo(registry);
+        CountDownLatch enCurso = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<ResponseEntity<?>> primera = executor.submit(() -> almacen.ejecutar("clave-1", OPERACION, CUERPO, () -> {
+                enCurso.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return compra().get();
+            }));
+            assertTrue(enCurso.await(5, TimeUnit.SECONDS));
+
+            // Act
+            Future<ResponseEntity<?>> segunda = executor.submit(() -> almacen.ejecutar("clave-1", OPERACION, CUERPO, compra()));
+            // Liberar la primera solo cuando la segunda ya se unió a ella
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (registry.get("inventario.idempotencia.colapsadas").functionCounter().count() < 1
+                    && System.nanoTime() < limite) {
+                Thread.onSpinWait();
+            }
+            liberar.countDown();
+
+            // Assert
+            assertNull(primera.get(5, TimeUnit.SECONDS).getHeaders().getFirst(AlmacenIdempotencia.CABECERA_REPETIDA));
+            assertEquals("true", segunda.get(5, TimeUnit.SECONDS).getHeaders().getFirst(AlmacenIdempotencia.CABECERA_REPETIDA));
+            assertEquals(1, ejecuciones.get());
+        } finally {
+            liberar.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test una solicitud EN_CURSO abandonada se vuelve a ejecutar al vencer su plazo")
+    void testSolicitudAbandonadaSeRetoma() {
+        // Arrange: la instancia que la registró murió hace más que el plazo de 5 s
+        when(repository.findById("clave-1")).thenReturn(Optional.empty());
+        almacen.ejecutar("clave-1", OPERACION, CUERPO, compra());
+        String huella = capturarHuella();
+        AlmacenIdempotencia otraInstancia = new AlmacenIdempotencia(
+                repository, new ObjectMapper(), 100, 60_000, 5_000, Clock.fixed(ahora.plusSeconds(6), ZoneOffset.UTC));
+        when(repository.findById("clave-1")).thenReturn(Optional.of(new SolicitudIdempotente(
+                "clave-1", huella, SolicitudIdempotente.EN_CURSO, null, null, ahora)));
+        when(repository.retomarAbandonada("clave-1", huella, ahora.plusSeconds(6), ahora.plusSeconds(1))).thenReturn(1);
+
+        // Act
+        ResponseEntity<?> respuesta = otraInstancia.ejecutar("clave-1", OPERACION, CUERPO, compra());
+
+        // Assert
+        assertEquals(HttpStatus.OK, respuesta.getStatusCode());
+        assertEquals(2, ejecuciones.get());
+        assertEquals(1, otraInstancia.getRetomadas());
+    }
+
+    @Test
+    @DisplayName("Test una solicitud EN_CURSO abandonada con otro cuerpo sigue rechazándose")
+    void testSolicitudAbandonadaConOtroCuerpo() {
+        // Arrange
+        AlmacenIdempotencia otraInstancia = new AlmacenIdempotencia(
+                repository, new ObjectMapper(), 100, 60_000, 5_000, Clock.fixed(ahora.plusSeconds(6), ZoneOffset.UTC));
+        when(repository.findById("clave-1")).thenReturn(Optional.of(new SolicitudIdempotente(
+                "clave-1", "otra-huella", SolicitudIdempotente.EN_CURSO, null, null, ahora)));
+
+        // Act & Assert
+        assertThrows(ClaveIdempotenciaReutilizadaException.class, () ->
+                otraInstancia.ejecutar("clave-1", OPERACION, CUERPO, compra()));
+        verify(repository, never()).retomarAbandonada(anyString(), anyString(), any(), any());
+        assertEquals(0, ejecuciones.get());
+    }
+
+    @Test
+    @DisplayName("Test una clave vacía o demasiado larga se rechaza")
+    void testClaveInvalida() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> almacen.ejecutar(" ", OPERACION, CUERPO, compra()));
+        assertThrows(IllegalArgumentException.class, () -> almacen.ejecutar("x".repeat(101), OPERACION, CUERPO, compra()));
+        verify(repository, never()).registrarEnCurso(anyString(), anyString(), any());
+    }
+
+    private String capturarHuella() {
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(repository).registrarEnCurso(eq("clave-1"), captor.capture(), eq(ahora));
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,82 @@
+package com.pruebatec.inventario_service.json;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebatec.inventario_service.dto.InventarioDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonApiHttpMessageConverterTest {
+
+    private static final Type SOLICITUD_COMPRA =
+            new TypeReference<SolicitudJsonApi<SolicitudJsonApi.Recurso<SolicitudJsonApi.Compra>>>() {}.getType();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonApiHttpMessageConverter converter = new JsonApiHttpMessageConverter(objectMapper);
+
+    private static MockHttpInputMessage mensaje(String json) {
+        return new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Test solo atiende solicitudes y documentos JSON:API con Content-Type JSON")
+    void testTiposSoportados() {
+        // Act & Assert
+        assertTrue(converter.canRead(SOLICITUD_COMPRA, null, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canRead(SOLICITUD_COMPRA, null, MediaType.valueOf("application/vnd.api+json")));
+        assertFalse(converter.canRead(SOLICITUD_COMPRA, null, MediaType.TEXT_PLAIN));
+        assertFalse(converter.canRead(Map.class, null, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(JsonApiDocumento.class, JsonApiDocumento.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(Map.class, Map.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    @DisplayName("Test lee la solicitud con su tipo genérico completo")
+    @SuppressWarnings("unchecked")
+    void testLeerSolicitud() throws Exception {
+        // Arrange
+        String json = "{\"data\":{\"type\":\"compras\",\"attributes\":{\"cantidadComprada\":3}}}";
+
+        // Act
+        SolicitudJsonApi<SolicitudJsonApi.Recurso<SolicitudJsonApi.Compra>> solicitud =
+                (SolicitudJsonApi<SolicitudJsonApi.Recurso<SolicitudJsonApi.Compra>>)
+                        converter.read(SOLICITUD_COMPRA, null, mensaje(json));
+
+        // Assert
+        assertEquals("compras", solicitud.data().type());
+        assertEquals(3, solicitud.data().attributes().cantidadComprada());
+    }
+
+    @Test
+    @DisplayName("Test un cuerpo mal formado no es legible")
+    void testCuerpoMalFormado() {
+        // Act & Assert
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(SOLICITUD_COMPRA, null, mensaje("{\"data\":")));
+    }
+
+    @Test
+    @DisplayName("Test escribe el documento igual que el ObjectMapper de la aplicación")
+    void testEscribirDocumento() throws Exception {
+        // Arrange
+        JsonApiDocumento<?> documento = JsonApiDocumento.desdeInventario(new InventarioDTO(1L, 5, null));
+        MockHttpOutputMessage salida = new MockHttpOutputMessage();
+
+        // Act
+        converter.write(documento, JsonApiDocumento.class, MediaType.APPLICATION_JSON, salida);
+
+        // Assert
+        assertEquals(objectMapper.writeValueAsString(documento), salida.getBodyAsString(StandardCharsets.UTF_8));
+        assertEquals(MediaType.APPLICATION_JSON, salida.getHeaders().getContentType());
+    }
+}
@@ -0,0 +1,109 @@
+package com.pruebatec.inventario_service.json;
+
+import com.pruebatec.inventario_service.dto.CambiosProductoDTO;
+import com.pruebatec.inventario_service.dto.ProductoDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductoJsonApiDecoderTest {
+
+    private final ProductoJsonApiDecoder decoder = new ProductoJsonApiDecoder();
+
+    private ProductoDTO decodificar(String json, Long id) throws IOException {
+        return decoder.decodificar(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), id);
+    }
+
+    @Test
+    @DisplayName("Test decodificar data como arreglo")
+    void testDataArreglo() throws IOException {
+        // Arrange
+        String json = "{\"data\":[{\"type\":\"productos\",\"id\":\"2\",\"attributes\":{\"nombre\":\"Otro\",\"precio\":5}},"
+                + "{\"type\":\"productos\",\"id\":\"1\",\"attributes\":{\"nombre\":\"Laptop\",\"precio\":1200.5}}],"
+                + "\"meta\":null}";
+
+        // Act
+        ProductoDTO result = decodificar(json, 1L);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(1L, result.getId());
+        assertEquals("Laptop", result.getNombre());
+        assertEquals(1200.5, result.getPrecio());
+    }
+
+    @Test
+    @DisplayName("Test decodificar data como objeto con campos adicionales")
+    void testDataObjeto() throws IOException {
+        // Arrange
+        String json = "{\"meta\":{\"x\":[1,2]},\"data\":{\"type\":\"productos\",\"id\":3,"
+                + "\"links\":{\"self\":\"/api/productos/3\"},\"attributes\":{\"extra\":{\"a\":1},\"nombre\":\"Tablet\"}}}";
+
+        // Act
+        ProductoDTO result = decodificar(json, 3L);
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(3L, result.getId());
+        assertEquals("Tablet", result.getNombre());
+        assertEquals(0.0, result.getPrecio());
+    }
+
+    @Test
+    @DisplayName("Test respuesta sin el producto, sin atributos o vacía")
+    void testSinProducto() throws IOException {
+        // Assert
+        assertNull(decodificar("{\"data\":[{\"type\":\"productos\",\"id\":\"2\",\"attributes\":{}}]}", 1L));
+        assertNull(decodificar("{\"data\":{\"type\":\"productos\",\"id\":\"1\"}}", 1L));
+        assertNull(decodificar("{\"errors\":[]}", 1L));
+        assertNull(decodificar("", 1L));
+    }
+
+    @Test
+    @DisplayName("Test decodificar lista de productos omite recursos sin atributos o con ID inválido")
+    void testDecodificarLista() throws IOException {
+        // Arrange
+        String json = "{\"data\":[{\"type\":\"productos\",\"id\":\"2\",\"attributes\":{\"nombre\":\"Otro\",\"precio\":5}},"
+                + "{\"type\":\"productos\",\"id\":\"3\"},"
+                + "{\"type\":\"productos\",\"id\":\"x\",\"attributes\":{\"nombre\":\"Malo\"}},"
+                + "{\"type\":\"productos\",\"id\":\"1\",\"attributes\":{\"nombre\":\"Laptop\",\"precio\":1200.5}}],"
+                + "\"links\":{}}";
+
+        // Act
+        Map<Long, ProductoDTO> result = decoder.decodificarLista(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(List.of(2L, 1L), List.copyOf(result.keySet()));
+        assertEquals("Laptop", result.get(1L).getNombre());
+        assertEquals(5.0, result.get(2L).getPrecio());
+        assertTrue(decoder.decodificarLista(new ByteArrayInputStream(new byte[0])).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test decodificar cambios de productos desde el primer recurso")
+    void testDecodificarCambios() throws IOException {
+        // Arrange
+        String json = "{\"data\":[{\"type\":\"cambios-productos\",\"id\":\"7\",\"attributes\":"
+                + "{\"instancia\":\"abc\",\"version\":7,\"completo\":false,\"productoIds\":[1,2,3],\"extra\":{\"a\":1}}}],"
+                + "\"meta\":null}";
+
+        // Act
+        CambiosProductoDTO cambios = decoder.decodificarCambios(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(new CambiosProductoDTO("abc", 7L, false, List.of(1L, 2L, 3L)), cambios);
+        assertNull(decoder.decodificarCambios(new ByteArrayInputStream(
+                "{\"data\":[{\"type\":\"cambios-productos\",\"id\":\"7\"}]}".getBytes(StandardCharsets.UTF_8))));
+        assertNull(decoder.decodificarCambios(new ByteArrayInputStream("{\"data\":[]}".getBytes(StandardCharsets.UTF_8))));
+        assertNull(decoder.decodificarCambios(new ByteArrayInputStream(new byte[0])));
+    }
+}
@@ -0,0 +1,185 @@
+package com.pruebatec.inventario_service.reserva;
+
+import com.pruebatec.inventario_service.entity.ReservaStock;
+import com.pruebatec.inventario_service.repository.InventarioRepository;
+import com.pruebatec.inventario_service.repository.ReservaStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegistroReservasTest {
+
+    @Mock
+    private InventarioRepository inventarioRepository;
+
+    @Mock
+    private ReservaStockRepository reservaRepository;
+
+    private final RelojManual reloj = new RelojManual(Instant.parse("2025-01-01T00:00:00Z"));
+    private RegistroReservas registro;
+
+    @BeforeEach
+    void setUp() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        registro = new RegistroReservas(inventarioRepository, reservaRepository, transactionTemplate, 100, 64, reloj);
+    }
+
+    private Reserva reserva(String id, long vigenciaMs) {
+        return new Reserva(id, 1L, 3, reloj.instant().plusMillis(vigenciaMs));
+    }
+
+    private static ReservaStock fila(Reserva reserva) {
+        return new ReservaStock(reserva.id(), reserva.productoId(), reserva.cantidad(), reserva.expiraEn());
+    }
+
+    @Test
+    @DisplayName("Test guardar inserta la fila de la reserva y la deja activa")
+    void testGuardarInsertaFila() {
+        // Arrange
+        Reserva reserva = reserva("r-1", 1_000);
+
+        // Act
+        registro.guardar(reserva);
+
+        // Assert
+        verify(reservaRepository).registrar("r-1", 1L, 3, reserva.expiraEn());
+        assertEquals(1, registro.getActivas());
+    }
+
+    @Test
+    @DisplayName("Test reclamar una reserva creada en otra instancia borra su fila y la devuelve")
+    void testReclamarReservaDeOtraInstancia() {
+        // Arrange
+        Reserva reserva = reserva("r-1", 1_000);
+        when(reservaRepository.findById("r-1")).thenReturn(Optional.of(fila(reserva)));
+        when(reservaRepository.eliminar("r-1")).thenReturn(1);
+
+        // Act
+        Reserva reclamada = registro.reclamar("r-1");
+
+        // Assert
+        assertEquals(reserva, reclamada);
+    }
+
+    @Test
+    @DisplayName("Test reclamar devuelve null si otra instancia borró antes la fila")
+    void testReclamarReservaYaReclamada() {
+        // Arrange
+        Reserva reserva = reserva("r-1", 1_000);
+        registro.guardar(reserva);
+        when(reservaRepository.findById("r-1")).thenReturn(Optional.of(fila(reserva)));
+        when(reservaRepository.eliminar("r-1")).thenReturn(0);
+
+        // Act
+        Reserva reclamada = registro.reclamar("r-1");
+
+        // Assert
+        assertNull(reclamada);
+    }
+
+    @Test
+    @DisplayName("Test el vencimiento no libera stock de una reserva que ya reclamó otra instancia")
+    void testExpirarSoloLiberaFilasBorradas() {
+        // Arrange
+        registro.guardar(reserva("r-1", 150));
+        registro.guardar(reserva("r-2", 150));
+        when(reservaRepository.eliminar("r-1")).thenReturn(1);
+        when(reservaRepository.eliminar("r-2")).thenReturn(0);
+
+        // Act
+        reloj.avanzar(300);
+        registro.expirar();
+
+        // Assert
+        verify(inventarioRepository).liberarReservado(1L, 3);
+        assertEquals(0, registro.getActivas());
+    }
+
+    @Test
+    @DisplayName("Test el barrido libera las reservas vencidas de otro proceso y no toca las activas en memoria")
+    void testBarridoLiberaReservasHuerfanas() {
+        // Arrange
+        Reserva propia = reserva("propia", 50);
+        registro.guardar(propia);
+        Reserva huerfana = new Reserva("huerfana", 2L, 4, reloj.instant().minusMillis(10));
+        when(reservaRepository.findTop500ByExpiraEnBeforeOrderByExpiraEn(any()))
+                .thenReturn(List.of(fila(propia), fila(huerfana)));
+        when(reservaRepository.eliminar("huerfana")).thenReturn(1);
+
+        // Act
+        reloj.avanzar(60);
+        registro.barrer();
+
+        // Assert
+        verify(reservaRepository, never()).eliminar("propia");
+        verify(inventarioRepository).liberarReservado(2L, 4);
+        verify(inventarioRepository, never()).liberarReservado(eq(1L), anyInt());
+    }
+
+    @Test
+    @DisplayName("Test si la liberación falla las reservas vencidas se reintentan en el siguiente avance")
+    void testExpirarReintentaTrasFallo() {
+        // Arrange
+        registro.guardar(reserva("r-1", 150));
+        when(reservaRepository.eliminar("r-1")).thenReturn(1);
+        when(inventarioRepository.liberarReservado(anyLong(), anyInt()))
+                .thenThrow(new IllegalStateException("Base de datos no disponible"))
+                .thenReturn(1);
+
+        // Act
+        reloj.avanzar(300);
+        registro.expirar();
+        registro.expirar();
+
+        // Assert
+        verify(inventarioRepository, times(2)).liberarReservado(1L, 3);
+    }
+
+    private static final class RelojManual extends Clock {
+
+        private Instant ahora;
+
+        RelojManual(Instant ahora) {
+            this.ahora = ahora;
+        }
+
+        void avanzar(long ms) {
+            ahora = ahora.plusMillis(ms);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.pruebatec.inventario_service.reserva;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuedaTemporizadoraTest {
+
+    @Test
+    @DisplayName("Test los elementos vencen al llegar su instante y nunca antes")
+    void testVencimiento() {
+        // Arrange: ticks de 10 ms, 8 ranuras
+        RuedaTemporizadora<String> rueda = new RuedaTemporizadora<>(10, 8, 0);
+        rueda.programar("a", 25);
+        rueda.programar("b", 40);
+
+        // Act & Assert
+        assertEquals(List.of(), rueda.avanzar(24));
+        assertEquals(List.of("a"), rueda.avanzar(30));
+        assertEquals(List.of("b"), rueda.avanzar(40));
+        assertEquals(0, rueda.getProgramadas());
+    }
+
+    @Test
+    @DisplayName("Test elementos a más de una vuelta permanecen en su ranura hasta su vuelta")
+    void testVariasVueltas() {
+        // Arrange: una vuelta completa son 80 ms; 15 y 175 caen en la misma ranura
+        RuedaTemporizadora<String> rueda = new RuedaTemporizadora<>(10, 8, 0);
+        rueda.programar("cercano", 15);
+        rueda.programar("lejano", 175);
+
+        // Act & Assert
+        assertEquals(List.of("cercano"), rueda.avanzar(20));
+        assertEquals(List.of(), rueda.avanzar(100));
+        assertEquals(List.of("lejano"), rueda.avanzar(180));
+    }
+
+    @Test
+    @DisplayName("Test un salto de varias vueltas vence todo lo pendiente de una vez")
+    void testSaltoLargo() {
+        // Arrange
+        RuedaTemporizadora<Integer> rueda = new RuedaTemporizadora<>(10, 8, 0);
+        for (int i = 1; i <= 100; i++) {
+            rueda.programar(i, i * 10L);
+        }
+
+        // Act
+        List<Integer> vencidos = rueda.avanzar(10_000);
+
+        // Assert
+        assertEquals(100, vencidos.size());
+        assertEquals(0, rueda.getProgramadas());
+    }
+
+    @Test
+    @DisplayName("Test un elemento cancelado no vence y se descarta al revisar su ranura")
+    void testCancelar() {
+        // Arrange
+        RuedaTemporizadora<String> rueda = new RuedaTemporizadora<>(10, 8, 0);
+        RuedaTemporizadora.Entrada<String> entrada = rueda.programar("a", 20);
+        rueda.programar("b", 20);
+
+        // Act
+        entrada.cancelar();
+
+        // Assert
+        assertEquals(2, rueda.getProgramadas());
+        assertEquals(List.of("b"), rueda.avanzar(20));
+        assertEquals(0, rueda.getProgramadas());
+    }
+
+    @Test
+    @DisplayName("Test un vencimiento ya pasado se programa para el siguiente tick")
+    void testVencimientoPasado() {
+        // Arrange
+        RuedaTemporizadora<String> rueda = new RuedaTemporizadora<>(10, 8, 0);
+        rueda.avanzar(50);
+
+        // Act
+        rueda.programar("a", 0);
+
+        // Assert
+        assertEquals(List.of(), rueda.avanzar(59));
+        assertEquals(List.of("a"), rueda.avanzar(60));
+    }
+}
@@ -0,0 +1,91 @@
+package com.pruebatec.inventario_service.resilience;
+
+import com.pruebatec.inventario_service.exception.CommunicationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+
+    @Test
+    @DisplayName("Test rechaza las llamadas que superan el límite de concurrencia")
+    void testRechazaAlSuperarLimite() throws Exception {
+        // Arrange
+        Bulkhead bulkhead = new Bulkhead("producto-service", 2, 0);
+        CountDownLatch dentro = new CountDownLatch(2);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<String> primera = executor.submit(() -> bulkhead.ejecutar(() -> esperar(dentro, liberar)));
+            Future<String> segunda = executor.submit(() -> bulkhead.ejecutar(() -> esperar(dentro, liberar)));
+            assertTrue(dentro.await(10, TimeUnit.SECONDS));
+
+            // Act & Assert
+            assertEquals(2, bulkhead.getEnUso());
+            assertThrows(CommunicationException.class, () -> bulkhead.ejecutar(() -> "ok"));
+            assertEquals(1, bulkhead.getRechazadas());
+
+            liberar.countDown();
+            assertEquals("ok", primera.get(10, TimeUnit.SECONDS));
+            assertEquals("ok", segunda.get(10, TimeUnit.SECONDS));
+            assertEquals(0, bulkhead.getEnUso());
+            assertEquals("ok", bulkhead.ejecutar(() -> "ok"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test libera el permiso aunque la llamada falle")
+    void testLiberaPermisoConExcepcion() {
+        // Arrange
+        Bulkhead bulkhead = new Bulkhead("producto-service", 1, 0);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> bulkhead.ejecutar(() -> {
+            throw new IllegalStateException("error");
+        }));
+        assertEquals(0, bulkhead.getEnUso());
+        assertEquals("ok", bulkhead.ejecutar(() -> "ok"));
+    }
+
+    @Test
+    @DisplayName("Test la llamada asíncrona ocupa el permiso hasta que termina el futuro")
+    void testAsincronaOcupaPermisoHastaTerminar() {
+        // Arrange
+        Bulkhead bulkhead = new Bulkhead("producto-service", 1, 0);
+        CompletableFuture<String> remota = new CompletableFuture<>();
+
+        // Act
+        CompletableFuture<String> primera = bulkhead.ejecutarAsync(() -> remota);
+        CompletableFuture<String> rechazada = bulkhead.ejecutarAsync(() -> CompletableFuture.completedFuture("ok"));
+
+        // Assert
+        assertEquals(1, bulkhead.getEnUso());
+        CompletionException ex = assertThrows(CompletionException.class, rechazada::join);
+        assertInstanceOf(CommunicationException.class, ex.getCause());
+        remota.complete("ok");
+        assertEquals("ok", primera.join());
+        assertEquals(0, bulkhead.getEnUso());
+    }
+
+    private static String esperar(CountDownLatch dentro, CountDownLatch liberar) {
+        dentro.countDown();
+        try {
+            liberar.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "ok";
+    }
+}
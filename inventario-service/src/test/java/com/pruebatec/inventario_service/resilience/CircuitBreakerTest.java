@@ -0,0 +1,126 @@
+package com.pruebatec.inventario_service.resilience;
+
+import com.pruebatec.inventario_service.exception.CommunicationException;
+import com.pruebatec.inventario_service.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final Predicate<RuntimeException> ES_FALLO = e -> e instanceof CommunicationException;
+
+    private AtomicLong reloj;
+    private CircuitBreaker circuito;
+
+    @BeforeEach
+    void setUp() {
+        reloj = new AtomicLong();
+        circuito = new CircuitBreaker("producto-service", 3, 1000, 1, reloj::get);
+    }
+
+    private void fallar() {
+        assertThrows(CommunicationException.class, () -> circuito.ejecutar(() -> {
+            throw new CommunicationException("Error de conexión");
+        }, ES_FALLO));
+    }
+
+    private void avanzarMs(long ms) {
+        reloj.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    @Test
+    @DisplayName("Test el circuito se abre tras el umbral de fallos consecutivos y rechaza sin llamar")
+    void testAbreTrasUmbral() {
+        // Arrange
+        AtomicInteger llamadas = new AtomicInteger();
+
+        // Act
+        fallar();
+        fallar();
+        assertEquals(CircuitBreaker.Estado.CERRADO, circuito.getEstado());
+        fallar();
+
+        // Assert
+        assertEquals(CircuitBreaker.Estado.ABIERTO, circuito.getEstado());
+        assertThrows(CommunicationException.class, () -> circuito.ejecutar(llamadas::incrementAndGet, ES_FALLO));
+        assertEquals(0, llamadas.get());
+        assertEquals(1, circuito.getAperturas());
+        assertEquals(1, circuito.getRechazadas());
+    }
+
+    @Test
+    @DisplayName("Test un éxito reinicia el contador de fallos consecutivos")
+    void testExitoReiniciaFallos() {
+        // Act
+        fallar();
+        fallar();
+        assertEquals("ok", circuito.ejecutar(() -> "ok", ES_FALLO));
+        fallar();
+        fallar();
+
+        // Assert
+        assertEquals(CircuitBreaker.Estado.CERRADO, circuito.getEstado());
+    }
+
+    @Test
+    @DisplayName("Test las excepciones que no son fallos de la dependencia no abren el circuito")
+    void testExcepcionNoFallo() {
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertThrows(ResourceNotFoundException.class, () -> circuito.ejecutar(() -> {
+                throw new ResourceNotFoundException("Producto", "id", 1L);
+            }, ES_FALLO));
+        }
+
+        // Assert
+        assertEquals(CircuitBreaker.Estado.CERRADO, circuito.getEstado());
+    }
+
+    @Test
+    @DisplayName("Test semiabierto: deja pasar una llamada de prueba y se cierra si tiene éxito")
+    void testSemiabiertoCierra() {
+        // Arrange
+        fallar();
+        fallar();
+        fallar();
+        avanzarMs(1000);
+
+        // Act
+        assertTrue(circuito.permitir());
+        assertEquals(CircuitBreaker.Estado.SEMIABIERTO, circuito.getEstado());
+        assertFalse(circuito.permitir());
+        circuito.registrarExito();
+
+        // Assert
+        assertEquals(CircuitBreaker.Estado.CERRADO, circuito.getEstado());
+        assertEquals("ok", circuito.ejecutar(() -> "ok", ES_FALLO));
+    }
+
+    @Test
+    @DisplayName("Test semiabierto: si la llamada de prueba falla se vuelve a abrir")
+    void testSemiabiertoReabre() {
+        // Arrange
+        fallar();
+        fallar();
+        fallar();
+        avanzarMs(999);
+        assertThrows(CommunicationException.class, () -> circuito.ejecutar(() -> "ok", ES_FALLO));
+        avanzarMs(1);
+
+        // Act
+        fallar();
+
+        // Assert
+        assertEquals(CircuitBreaker.Estado.ABIERTO, circuito.getEstado());
+        assertEquals(2, circuito.getAperturas());
+        assertFalse(circuito.permitir());
+    }
+}
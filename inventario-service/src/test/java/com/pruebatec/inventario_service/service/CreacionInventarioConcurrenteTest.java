@@ -0,0 +1,132 @@
+package com.pruebatec.inventario_service.service;
+
+import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.ProductoDTO;
+import com.pruebatec.inventario_service.service.impl.ProductoClientServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Creación concurrente del inventario de un mismo producto contra la base H2 del perfil test.
+ * La clave única de inventarios.producto_id garantiza una sola fila aunque varias
+ * solicitudes ejecuten el MERGE de creación a la vez.
+ */
+@SpringBootTest(properties = "producto.cache.invalidacion.enabled=false")
+class CreacionInventarioConcurrenteTest {
+
+    // Producto de data-test.sql sin fila de inventario
+    private static final Long PRODUCTO_SIN_INVENTARIO = 11L;
+    private static final int HILOS = 16;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private ProductoClientServiceImpl productoClientService;
+
+    @BeforeEach
+    void setUp() {
+        borrarInventario();
+        when(productoClientService.getProductoByIdAsync(PRODUCTO_SIN_INVENTARIO)).thenReturn(
+                CompletableFuture.completedFuture(new ProductoDTO(PRODUCTO_SIN_INVENTARIO, "Router WiFi", 75.0)));
+    }
+
+    @AfterEach
+    void borrarInventario() {
+        jdbcTemplate.update("DELETE FROM inventarios WHERE producto_id = ?", PRODUCTO_SIN_INVENTARIO);
+    }
+
+    @Test
+    @DisplayName("Lecturas concurrentes de un producto sin inventario crean una sola fila")
+    void lecturasConcurrentesCreanUnaFila() throws Exception {
+        // Act
+        List<InventarioDTO> resultados = lanzar(() -> inventarioService.getInventarioByProductoId(PRODUCTO_SIN_INVENTARIO));
+
+        // Assert
+        assertEquals(HILOS, resultados.size());
+        resultados.forEach(resultado -> assertEquals(0, resultado.getCantidad()));
+        assertEquals(1, filas());
+    }
+
+    @Test
+    @DisplayName("Reposiciones concurrentes de un producto sin inventario crean una sola fila")
+    void reposicionesConcurrentesCreanUnaFila() throws Exception {
+        // Act
+        List<InventarioDTO> resultados = lanzar(() -> inventarioService.registrarReposicion(PRODUCTO_SIN_INVENTARIO, 1));
+
+        // Assert: cada reposición confirmada se suma sobre la misma fila
+        assertEquals(1, filas());
+        assertEquals(resultados.size(), jdbcTemplate.queryForObject(
+                "SELECT cantidad FROM inventarios WHERE producto_id = ?", Integer.class, PRODUCTO_SIN_INVENTARIO));
+    }
+
+    private int filas() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventarios WHERE producto_id = ?", Integer.class, PRODUCTO_SIN_INVENTARIO);
+    }
+
+    /**
+     * Ejecuta la operación a la vez en todos los hilos y devuelve los resultados de las que
+     * terminaron bien; solo admite como fallo agotar los reintentos por conflicto
+     */
+    private List<InventarioDTO> lanzar(Supplier<InventarioDTO> operacion) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger errores = new AtomicInteger();
+        List<Future<InventarioDTO>> tareas = new ArrayList<>(HILOS);
+        List<InventarioDTO> resultados = new ArrayList<>(HILOS);
+
+        try {
+            for (int i = 0; i < HILOS; i++) {
+                tareas.add(executor.submit(() -> {
+                    salida.await();
+                    try {
+                        return operacion.get();
+                    } catch (ConcurrencyFailureException e) {
+                        return null;
+                    } catch (RuntimeException e) {
+                        errores.incrementAndGet();
+                        return null;
+                    }
+                }));
+            }
+
+            salida.countDown();
+            for (Future<InventarioDTO> tarea : tareas) {
+                InventarioDTO resultado = tarea.get(60, TimeUnit.SECONDS);
+                if (resultado != null) {
+                    resultados.add(resultado);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, errores.get());
+        return resultados;
+    }
+}
@@ -0,0 +1,146 @@
+package com.pruebatec.inventario_service.service;
+
+import com.pruebatec.inventario_service.repository.InventarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara las estrategias de concurrencia con reposiciones en paralelo sobre un
+ * mismo producto (clave caliente) contra la base H2 del perfil test.
+ * Registra el rendimiento (operaciones/s) y la tasa de abortos (intentos revertidos
+ * por conflicto respecto al total de intentos) de cada estrategia. Cada ejecución parte
+ * del mismo stock y al terminar se restaura la fila sembrada.
+ */
+@SpringBootTest
+class EstrategiaConcurrenciaTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EstrategiaConcurrenciaTest.class);
+
+    private static final Long PRODUCTO_ID = 2L;
+    private static final int HILOS = 16;
+    private static final int REPOSICIONES = 1000;
+    private static final int STOCK_INICIAL = 100;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int cantidadSembrada;
+
+    @BeforeEach
+    void fijarStockInicial() {
+        cantidadSembrada = inventarioRepository.findCantidadByProductoId(PRODUCTO_ID).orElseThrow();
+        fijarStock(STOCK_INICIAL);
+    }
+
+    @AfterEach
+    void restaurarFilaSembrada() {
+        fijarStock(cantidadSembrada);
+    }
+
+    @ParameterizedTest
+    @EnumSource(EstrategiaConcurrencia.class)
+    @DisplayName("Reposiciones concurrentes sobre el mismo producto no pierden actualizaciones")
+    void reposicionesConcurrentes(EstrategiaConcurrencia estrategia) throws Exception {
+        // Arrange
+        Object servicio = AopTestUtils.getUltimateTargetObject(inventarioService);
+        Object estrategiaAnterior = ReflectionTestUtils.getField(servicio, "estrategiaConcurrencia");
+        ReflectionTestUtils.setField(servicio, "estrategiaConcurrencia", estrategia);
+        double conflictosAntes = conflictos();
+
+        try {
+            // Act
+            ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+            CountDownLatch salida = new CountDownLatch(1);
+            AtomicInteger exitosas = new AtomicInteger();
+            AtomicInteger agotadas = new AtomicInteger();
+            AtomicInteger errores = new AtomicInteger();
+            List<Future<?>> tareas = new ArrayList<>(REPOSICIONES);
+            long duracionMs;
+
+            try {
+                for (int i = 0; i < REPOSICIONES; i++) {
+                    tareas.add(executor.submit(() -> {
+                        salida.await();
+                        try {
+                            inventarioService.registrarReposicion(PRODUCTO_ID, 1);
+                            exitosas.incrementAndGet();
+                        } catch (ConcurrencyFailureException e) {
+                            agotadas.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            log.error("Error inesperado en reposición concurrente: {}", e.getMessage());
+                            errores.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+
+                long inicio = System.nanoTime();
+                salida.countDown();
+                for (Future<?> tarea : tareas) {
+                    tarea.get(120, TimeUnit.SECONDS);
+                }
+                duracionMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+            } finally {
+                executor.shutdownNow();
+            }
+
+            long conflictos = Math.round(conflictos() - conflictosAntes);
+            long intentos = REPOSICIONES + conflictos;
+            log.info("{}: {} reposiciones en {} ms ({} op/s), {} conflictos, tasa de abortos {}%, {} fallidas tras reintentos",
+                    estrategia, exitosas.get(), duracionMs, exitosas.get() * 1000L / duracionMs,
+                    conflictos, conflictos * 100 / intentos, agotadas.get());
+
+            // Assert: cada reposición confirmada se refleja exactamente una vez
+            assertEquals(0, errores.get());
+            assertEquals(REPOSICIONES, exitosas.get() + agotadas.get());
+            assertEquals(STOCK_INICIAL + exitosas.get(),
+                    inventarioRepository.findCantidadByProductoId(PRODUCTO_ID).orElseThrow());
+            if (estrategia == EstrategiaConcurrencia.PESIMISTA) {
+                assertEquals(REPOSICIONES, exitosas.get());
+            }
+        } finally {
+            ReflectionTestUtils.setField(servicio, "estrategiaConcurrencia", estrategiaAnterior);
+        }
+    }
+
+    private double conflictos() {
+        return meterRegistry.counter("inventario.concurrencia.conflictos").count();
+    }
+
+    private void fijarStock(int cantidad) {
+        jdbcTemplate.update("UPDATE inventarios SET cantidad = ?, reservado = 0 WHERE producto_id = ?",
+                cantidad, PRODUCTO_ID);
+    }
+}
@@ -1,29 +1,40 @@
 package com.pruebatec.inventario_service.service;
 
 import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.LineaCompraDTO;
 import com.pruebatec.inventario_service.dto.ProductoDTO;
 import com.pruebatec.inventario_service.entity.Inventario;
 import com.pruebatec.inventario_service.event.InventarioEventPublisher;
 import com.pruebatec.inventario_service.exception.CommunicationException;
+import com.pruebatec.inventario_service.exception.ProductoNotFoundException;
 import com.pruebatec.inventario_service.mapper.InventarioMapper;
 import com.pruebatec.inventario_service.repository.InventarioRepository;
 import com.pruebatec.inventario_service.service.InventarioService;
-import com.pruebatec.inventario_service.service.ProductoClientService;
+import com.pruebatec.inventario_service.service.ModoLecturaProducto;
 import com.pruebatec.inventario_service.service.impl.InventarioServiceImpl;
+import com.pruebatec.inventario_service.service.impl.ProductoClientServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -38,7 +49,7 @@ class InventarioServiceImplTest {
     private InventarioMapper inventarioMapper;
 
     @Mock
-    private ProductoClientService productoClientService;
+    private ProductoClientServiceImpl productoClientService;
 
     @Mock
     private InventarioEventPublisher eventPublisher;
@@ -101,6 +112,40 @@ class InventarioServiceImplTest {
         verify(eventPublisher).publicarCambioInventario(any(InventarioDTO.class), eq(InventarioEventPublisher.TipoOperacion.ACTUALIZACIÓN));
     }
     
+    @Test
+    @DisplayName("Prueba actualizarCantidad sin inventario lo crea sin consultar el servicio de productos")
+    void actualizarCantidadSinInventario() {
+        // Arrange
+        Inventario creado = new Inventario(PRODUCTO_ID, 0);
+        when(inventarioRepository.findByProductoId(PRODUCTO_ID))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(creado));
+        when(inventarioRepository.crearSiNoExiste(PRODUCTO_ID)).thenReturn(1);
+        when(inventarioRepository.save(creado)).thenReturn(creado);
+        when(inventarioMapper.toDTO(creado)).thenReturn(inventarioDTO);
+        
+        // Act
+        inventarioService.actualizarCantidad(PRODUCTO_ID, 10);
+        
+        // Assert
+        assertEquals(10, creado.getCantidad());
+        verify(inventarioRepository).crearSiNoExiste(PRODUCTO_ID);
+        verifyNoInteractions(productoClientService);
+    }
+    
+    @Test
+    @DisplayName("Prueba actualizarCantidad de un producto inexistente")
+    void actualizarCantidadProductoInexistente() {
+        // Arrange
+        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.empty());
+        when(inventarioRepository.crearSiNoExiste(PRODUCTO_ID)).thenReturn(0);
+        
+        // Act & Assert
+        assertThrows(ProductoNotFoundException.class, () -> inventarioService.actualizarCantidad(PRODUCTO_ID, 10));
+        verify(inventarioRepository, never()).save(any(Inventario.class));
+        verifyNoInteractions(productoClientService);
+    }
+    
     @Test
     @DisplayName("Prueba actualizarCantidad con cantidad negativa")
     void actualizarCantidadNegativa() {
@@ -114,15 +159,29 @@ class InventarioServiceImplTest {
         verify(eventPublisher, never()).publicarCambioInventario(any(InventarioDTO.class), any(InventarioEventPublisher.TipoOperacion.class));
     }
     
+    @Test
+    @DisplayName("Prueba actualizarCantidad por debajo de la cantidad reservada")
+    void actualizarCantidadMenorQueReservado() {
+        // Arrange
+        inventario.setReservado(6);
+        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(inventario));
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> inventarioService.actualizarCantidad(PRODUCTO_ID, 5));
+        
+        // Verify
+        assertEquals(10, inventario.getCantidad());
+        verify(inventarioRepository, never()).save(any(Inventario.class));
+        verify(eventPublisher, never()).publicarCambioInventario(any(InventarioDTO.class), any(InventarioEventPublisher.TipoOperacion.class));
+    }
+    
        
     @Test
     @DisplayName("Prueba registrarCompra con inventario existente y stock suficiente")
     void registrarCompraExistente() {
         // Arrange
-        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(inventario));
-        
-        Inventario inventarioActualizado = new Inventario(PRODUCTO_ID, 5);
-        when(inventarioRepository.save(any(Inventario.class))).thenReturn(inventarioActualizado);
+        when(inventarioRepository.descontarStock(PRODUCTO_ID, 5)).thenReturn(1);
+        when(inventarioRepository.findCantidadByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(5));
         
         InventarioDTO inventarioDTOActualizado = new InventarioDTO();
         inventarioDTOActualizado.setProductoId(PRODUCTO_ID);
@@ -139,9 +198,12 @@ class InventarioServiceImplTest {
         assertEquals(5, result.getCantidad());
         
         // Verify
-        verify(inventarioRepository).findByProductoId(PRODUCTO_ID);
-        verify(inventarioRepository).save(any(Inventario.class));
-        verify(inventarioMapper).toDTO(any(Inventario.class));
+        ArgumentCaptor<Inventario> captor = ArgumentCaptor.forClass(Inventario.class);
+        verify(inventarioRepository).descontarStock(PRODUCTO_ID, 5);
+        verify(inventarioMapper).toDTO(captor.capture());
+        assertEquals(5, captor.getValue().getCantidad());
+        verify(inventarioRepository, never()).findByProductoId(anyLong());
+        verify(inventarioRepository, never()).save(any(Inventario.class));
         verify(eventPublisher).publicarCambioInventario(any(InventarioDTO.class), eq(InventarioEventPublisher.TipoOperacion.COMPRA));
     }
     
@@ -162,19 +224,34 @@ class InventarioServiceImplTest {
     @DisplayName("Prueba registrarCompra con stock insuficiente")
     void registrarCompraStockInsuficiente() {
         // Arrange
-        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(inventario));
+        when(inventarioRepository.descontarStock(PRODUCTO_ID, 15)).thenReturn(0);
+        when(inventarioRepository.findCantidadByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(10));
         
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> {
             inventarioService.registrarCompra(PRODUCTO_ID, 15);
         });
+        assertTrue(ex.getMessage().contains("Stock actual: 10"));
         
         // Verify
-        verify(inventarioRepository).findByProductoId(PRODUCTO_ID);
+        verify(inventarioRepository).descontarStock(PRODUCTO_ID, 15);
         verify(inventarioRepository, never()).save(any(Inventario.class));
         verify(eventPublisher, never()).publicarCambioInventario(any(InventarioDTO.class), any(InventarioEventPublisher.TipoOperacion.class));
     }
     
+    @Test
+    @DisplayName("Prueba registrarCompra de un producto sin inventario ni registro en productos")
+    void registrarCompraProductoInexistente() {
+        // Arrange
+        when(inventarioRepository.descontarStock(PRODUCTO_ID, 1)).thenReturn(0);
+        when(inventarioRepository.findCantidadByProductoId(PRODUCTO_ID)).thenReturn(Optional.empty());
+        when(inventarioRepository.contarProductos(PRODUCTO_ID)).thenReturn(0L);
+        
+        // Act & Assert
+        assertThrows(ProductoNotFoundException.class, () -> inventarioService.registrarCompra(PRODUCTO_ID, 1));
+        verifyNoInteractions(productoClientService);
+    }
+    
     @Test
     @DisplayName("Prueba registrarReposicion con inventario existente")
     void registrarReposicionExistente() {
@@ -217,8 +294,270 @@ class InventarioServiceImplTest {
         verify(inventarioRepository, never()).save(any(Inventario.class));
         verify(eventPublisher, never()).publicarCambioInventario(any(InventarioDTO.class), any(InventarioEventPublisher.TipoOperacion.class));
     }
-    
 
+    @Test
+    @DisplayName("Prueba registrarCompras agrupa líneas y descuenta en orden de producto")
+    void registrarComprasOrdenado() {
+        // Arrange
+        when(inventarioRepository.descontarStock(anyLong(), anyInt())).thenReturn(1);
+        when(inventarioRepository.findCantidadByProductoId(1L)).thenReturn(Optional.of(7));
+        when(inventarioRepository.findCantidadByProductoId(3L)).thenReturn(Optional.of(4));
+        when(inventarioMapper.toDTO(any(Inventario.class))).thenAnswer(invocation -> {
+            Inventario inv = invocation.getArgument(0);
+            return new InventarioDTO(inv.getProductoId(), inv.getCantidad(), null);
+        });
+        
+        List<LineaCompraDTO> lineas = List.of(
+                new LineaCompraDTO(3L, 1),
+                new LineaCompraDTO(1L, 2),
+                new LineaCompraDTO(3L, 5));
+        
+        // Act
+        List<InventarioDTO> result = inventarioService.registrarCompras(lineas);
+        
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(1L, result.get(0).getProductoId());
+        assertEquals(7, result.get(0).getCantidad());
+        assertEquals(3L, result.get(1).getProductoId());
+        assertEquals(4, result.get(1).getCantidad());
+        
+        // Verify
+        InOrder orden = inOrder(inventarioRepository);
+        orden.verify(inventarioRepository).descontarStock(1L, 2);
+        orden.verify(inventarioRepository).descontarStock(3L, 6);
+        verify(eventPublisher, times(1)).publicarCambiosInventario(eq(result), eq(InventarioEventPublisher.TipoOperacion.COMPRA));
+        verify(eventPublisher, never()).publicarCambioInventario(any(InventarioDTO.class), any(InventarioEventPublisher.TipoOperacion.class));
+    }
     
- 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Prueba registrarCompras con stock insuficiente en una línea")
+    void registrarComprasStockInsuficiente() {
+        // Arrange
+        when(inventarioRepository.descontarStock(1L, 2)).thenReturn(1);
+        when(inventarioRepository.findCantidadByProductoId(1L)).thenReturn(Optional.of(8));
+        when(inventarioRepository.descontarStock(2L, 50)).thenReturn(0);
+        when(inventarioRepository.findCantidadByProductoId(2L)).thenReturn(Optional.of(15));
+        
+        List<LineaCompraDTO> lineas = List.of(
+                new LineaCompraDTO(2L, 50),
+                new LineaCompraDTO(1L, 2));
+        
+        // Act & Assert
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> {
+            inventarioService.registrarCompras(lineas);
+        });
+        assertTrue(ex.getMessage().contains("producto 2"));
+        
+        // Verify
+        verify(eventPublisher, never()).publicarCambiosInventario(anyList(), any(InventarioEventPublisher.TipoOperacion.class));
+    }
+    
+    @Test
+    @DisplayName("Prueba registrarCompras sin líneas o con cantidades no positivas")
+    void registrarComprasInvalida() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> inventarioService.registrarCompras(List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> inventarioService.registrarCompras(List.of(new LineaCompraDTO(1L, 0))));
+        
+        // Verify
+        verify(inventarioRepository, never()).descontarStock(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Prueba getInventarioByProductoId pide el producto antes de leer el inventario")
+    void getInventarioSolapaConsultaProducto() {
+        // Arrange
+        when(productoClientService.getProductoByIdAsync(PRODUCTO_ID))
+                .thenReturn(CompletableFuture.completedFuture(productoDTO));
+        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(inventario));
+        when(inventarioMapper.toDTO(inventario)).thenReturn(inventarioDTO);
+
+        // Act
+        InventarioDTO result = inventarioService.getInventarioByProductoId(PRODUCTO_ID);
+
+        // Assert
+        assertEquals(10, result.getCantidad());
+        assertEquals(productoDTO, result.getProducto());
+
+        // Verify
+        InOrder orden = inOrder(productoClientService, inventarioRepository);
+        orden.verify(productoClientService).getProductoByIdAsync(PRODUCTO_ID);
+        orden.verify(inventarioRepository).findByProductoId(PRODUCTO_ID);
+        verify(productoClientService, never()).getProductoById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Prueba getInventarioByProductoId falla si el producto no llega dentro del plazo")
+    void getInventarioPlazoAgotado() {
+        // Arrange
+        ReflectionTestUtils.setField(inventarioService, "plazoLecturaMs", 50L);
+        CompletableFuture<ProductoDTO> sinRespuesta = new CompletableFuture<>();
+        when(productoClientService.getProductoByIdAsync(PRODUCTO_ID)).thenReturn(sinRespuesta);
+        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(inventario));
+        when(inventarioMapper.toDTO(inventario)).thenReturn(inventarioDTO);
+
+        // Act & Assert
+        assertThrows(CommunicationException.class, () -> inventarioService.getInventarioByProductoId(PRODUCTO_ID));
+        assertEquals(1, inventarioService.getPlazosAgotados());
+        assertTrue(sinRespuesta.isCancelled());
+    }
+
+    @Test
+    @DisplayName("Prueba getInventarioByProductoId registra la latencia de cada tramo")
+    void getInventarioRegistraTramos() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        inventarioService.bindTo(registry);
+        when(productoClientService.getProductoByIdAsync(PRODUCTO_ID))
+                .thenReturn(CompletableFuture.completedFuture(productoDTO));
+        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(inventario));
+        when(inventarioMapper.toDTO(inventario)).thenReturn(inventarioDTO);
+
+        // Act
+        inventarioService.getInventarioByProductoId(PRODUCTO_ID);
+
+        // Assert
+        assertEquals(1, registry.get("inventario.lectura.tramo").tag("tramo", "inventario").timer().count());
+        assertEquals(1, registry.get("inventario.lectura.tramo").tag("tramo", "producto").timer().count());
+    }
+
+    @Test
+    @DisplayName("Prueba getInventarioByProductoId síncrono falla si el servicio de productos no responde")
+    void getInventarioSincronoErrorComunicacion() {
+        // Arrange
+        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(inventario));
+        when(inventarioMapper.toDTO(inventario)).thenReturn(inventarioDTO);
+        when(productoClientService.getProductoByIdAsync(PRODUCTO_ID))
+                .thenReturn(CompletableFuture.failedFuture(new CommunicationException("Error de conexión")));
+
+        // Act & Assert
+        assertThrows(CommunicationException.class, () -> inventarioService.getInventarioByProductoId(PRODUCTO_ID));
+    }
+
+    @Test
+    @DisplayName("Prueba getInventarioByProductoId con respaldo omite el producto si el servicio no responde")
+    void getInventarioRespaldo() {
+        // Arrange
+        ReflectionTestUtils.setField(inventarioService, "modoLecturaProducto", ModoLecturaProducto.RESPALDO);
+        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(inventario));
+        when(inventarioMapper.toDTO(inventario)).thenReturn(inventarioDTO);
+        when(productoClientService.getProductoByIdAsync(PRODUCTO_ID))
+                .thenReturn(CompletableFuture.failedFuture(new CommunicationException("Error de conexión")));
+
+        // Act
+        InventarioDTO result = inventarioService.getInventarioByProductoId(PRODUCTO_ID);
+
+        // Assert
+        assertEquals(10, result.getCantidad());
+        assertNull(result.getProducto());
+        assertTrue(result.isProductoNoDisponible());
+    }
+
+    @Test
+    @DisplayName("Prueba getInventariosByProductoIds lee todas las filas y los productos en una sola consulta")
+    void getInventariosPorIds() {
+        // Arrange
+        Inventario otro = new Inventario(2L, 4);
+        InventarioDTO otroDTO = new InventarioDTO();
+        otroDTO.setProductoId(2L);
+        otroDTO.setCantidad(4);
+        InventarioDTO sinFilaDTO = new InventarioDTO();
+        sinFilaDTO.setProductoId(3L);
+        sinFilaDTO.setCantidad(0);
+        when(inventarioRepository.findAllById(any())).thenReturn(List.of(otro, inventario));
+        when(inventarioRepository.findProductosExistentes(List.of(3L, 9L))).thenReturn(List.of(3L));
+        when(inventarioMapper.toDTO(inventario)).thenReturn(inventarioDTO);
+        when(inventarioMapper.toDTO(otro)).thenReturn(otroDTO);
+        when(inventarioMapper.toDTO(argThat(i -> i != null && i.getProductoId() == 3L))).thenReturn(sinFilaDTO);
+        when(productoClientService.getProductosByIds(List.of(PRODUCTO_ID, 2L, 3L)))
+                .thenReturn(Map.of(PRODUCTO_ID, productoDTO));
+
+        // Act
+        List<InventarioDTO> result = inventarioService.getInventariosByProductoIds(List.of(PRODUCTO_ID, 2L, 3L, 9L, PRODUCTO_ID));
+
+        // Assert
+        assertEquals(List.of(PRODUCTO_ID, 2L, 3L), result.stream().map(InventarioDTO::getProductoId).toList());
+        assertEquals(productoDTO, result.get(0).getProducto());
+        assertTrue(result.get(1).isProductoNoDisponible());
+        assertEquals(0, result.get(2).getCantidad());
+
+        // Verify
+        verify(inventarioRepository, never()).crearSiNoExiste(anyLong());
+        verify(productoClientService, never()).getProductoById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Prueba getInventariosByProductoIds con respaldo omite los productos si el servicio no responde")
+    void getInventariosPorIdsRespaldo() {
+        // Arrange
+        ReflectionTestUtils.setField(inventarioService, "modoLecturaProducto", ModoLecturaProducto.RESPALDO);
+        when(inventarioRepository.findAllById(any())).thenReturn(List.of(inventario));
+        when(inventarioMapper.toDTO(inventario)).thenReturn(inventarioDTO);
+        when(productoClientService.getProductosByIds(anyList()))
+                .thenThrow(new CommunicationException("Error de conexión"));
+
+        // Act
+        List<InventarioDTO> result = inventarioService.getInventariosByProductoIds(List.of(PRODUCTO_ID));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertNull(result.get(0).getProducto());
+        assertTrue(result.get(0).isProductoNoDisponible());
+    }
+
+    @Test
+    @DisplayName("Prueba getInventariosByProductoIds sin IDs o con demasiados IDs")
+    void getInventariosPorIdsInvalido() {
+        // Arrange
+        ReflectionTestUtils.setField(inventarioService, "maxIdsPorLectura", 2);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> inventarioService.getInventariosByProductoIds(List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> inventarioService.getInventariosByProductoIds(List.of(1L, 2L, 3L)));
+
+        // Verify
+        verify(inventarioRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Prueba getInventarioByProductoId desde caché con el producto en caché")
+    void getInventarioCacheAcierto() {
+        // Arrange
+        ReflectionTestUtils.setField(inventarioService, "modoLecturaProducto", ModoLecturaProducto.CACHE);
+        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(inventario));
+        when(inventarioMapper.toDTO(inventario)).thenReturn(inventarioDTO);
+        when(productoClientService.getProductoEnCache(PRODUCTO_ID)).thenReturn(productoDTO);
+
+        // Act
+        InventarioDTO result = inventarioService.getInventarioByProductoId(PRODUCTO_ID);
+
+        // Assert
+        assertEquals(productoDTO, result.getProducto());
+        assertFalse(result.isProductoNoDisponible());
+        verify(productoClientService, never()).getProductoByIdAsync(anyLong());
+        verify(productoClientService, never()).refrescarEnSegundoPlano(anyLong());
+    }
+
+    @Test
+    @DisplayName("Prueba getInventarioByProductoId desde caché sin el producto lo refresca en segundo plano")
+    void getInventarioCacheFallo() {
+        // Arrange
+        ReflectionTestUtils.setField(inventarioService, "modoLecturaProducto", ModoLecturaProducto.CACHE);
+        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(inventario));
+        when(inventarioMapper.toDTO(inventario)).thenReturn(inventarioDTO);
+        when(productoClientService.getProductoEnCache(PRODUCTO_ID)).thenReturn(null);
+
+        // Act
+        InventarioDTO result = inventarioService.getInventarioByProductoId(PRODUCTO_ID);
+
+        // Assert
+        assertEquals(10, result.getCantidad());
+        assertNull(result.getProducto());
+        assertTrue(result.isProductoNoDisponible());
+        verify(productoClientService).refrescarEnSegundoPlano(PRODUCTO_ID);
+        verify(productoClientService, never()).getProductoByIdAsync(anyLong());
+    }
+}
@@ -0,0 +1,194 @@
+package com.pruebatec.inventario_service.service;
+
+import com.pruebatec.inventario_service.entity.Inventario;
+import com.pruebatec.inventario_service.repository.InventarioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de concurrencia del descuento de stock contra la base H2 del perfil test.
+ * Se disparan miles de compras en paralelo sobre un mismo producto y se comprueba
+ * que no hay sobreventa ni actualizaciones perdidas, y que el UPDATE condicional
+ * completa más compras por segundo que leer la fila y guardarla. Cada prueba restaura
+ * la fila sembrada al terminar para no afectar a las demás pruebas que comparten la base.
+ */
+@SpringBootTest
+class RegistrarCompraConcurrenciaTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistrarCompraConcurrenciaTest.class);
+
+    private static final Long PRODUCTO_ID = 1L;
+    private static final int HILOS = 32;
+    private static final int COMPRAS = 2000;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private int cantidadSembrada;
+
+    @BeforeEach
+    void guardarFilaSembrada() {
+        cantidadSembrada = inventarioRepository.findCantidadByProductoId(PRODUCTO_ID).orElseThrow();
+    }
+
+    @AfterEach
+    void restaurarFilaSembrada() {
+        jdbcTemplate.update("UPDATE inventarios SET cantidad = ?, reservado = 0 WHERE producto_id = ?",
+                cantidadSembrada, PRODUCTO_ID);
+    }
+
+    @Test
+    @DisplayName("Compras concurrentes con stock insuficiente no generan sobreventa")
+    void comprasConcurrentesSinSobreventa() throws Exception {
+        // Arrange: stock para solo la mitad de las compras
+        int stockInicial = COMPRAS / 2;
+        fijarStock(stockInicial);
+
+        // Act
+        Resultado resultado = lanzarCompras(COMPRAS, this::comprar);
+
+        // Assert: se confirman exactamente las compras que cubre el stock, que termina agotado
+        assertEquals(stockInicial, resultado.exitosas());
+        assertEquals(0, inventarioRepository.findCantidadByProductoId(PRODUCTO_ID).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Compras concurrentes con stock suficiente no pierden actualizaciones")
+    void comprasConcurrentesSinActualizacionesPerdidas() throws Exception {
+        // Arrange: stock de sobra para todas las compras
+        int stockInicial = COMPRAS * 3;
+        fijarStock(stockInicial);
+
+        // Act
+        Resultado resultado = lanzarCompras(COMPRAS, this::comprar);
+
+        // Assert: todas las compras se confirman y cada una se descuenta exactamente una vez
+        assertEquals(COMPRAS, resultado.exitosas());
+        assertEquals(stockInicial - COMPRAS,
+                inventarioRepository.findCantidadByProductoId(PRODUCTO_ID).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("El UPDATE condicional completa más compras por segundo que leer y guardar la fila")
+    void updateCondicionalMejoraRendimiento() throws Exception {
+        // Arrange: calentar ambos caminos antes de medir
+        fijarStock(COMPRAS * 4);
+        lanzarCompras(COMPRAS / 10, this::comprarLeyendoYGuardando);
+        lanzarCompras(COMPRAS / 10, this::comprar);
+
+        // Act
+        fijarStock(COMPRAS);
+        Resultado leerYGuardar = lanzarCompras(COMPRAS, this::comprarLeyendoYGuardando);
+        fijarStock(COMPRAS);
+        Resultado updateCondicional = lanzarCompras(COMPRAS, this::comprar);
+
+        // Assert: los dos caminos son correctos y el condicional rinde más
+        log.info("Leer y guardar: {} compras/s; UPDATE condicional: {} compras/s",
+                leerYGuardar.comprasPorSegundo(), updateCondicional.comprasPorSegundo());
+        assertEquals(COMPRAS, leerYGuardar.exitosas());
+        assertEquals(COMPRAS, updateCondicional.exitosas());
+        assertEquals(0, inventarioRepository.findCantidadByProductoId(PRODUCTO_ID).orElseThrow());
+        assertTrue(updateCondicional.comprasPorSegundo() > leerYGuardar.comprasPorSegundo());
+    }
+
+    private void comprar() {
+        inventarioService.registrarCompra(PRODUCTO_ID, 1);
+    }
+
+    /**
+     * Camino anterior de registrarCompra: leer la fila, comprobar el stock en memoria y
+     * guardarla. La versión de la fila detecta los conflictos y la compra se reintenta
+     * hasta confirmarse, para que el resultado sea tan correcto como el condicional.
+     */
+    private void comprarLeyendoYGuardando() {
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(estado -> {
+                    Inventario inventario = inventarioRepository.findByProductoId(PRODUCTO_ID).orElseThrow();
+                    if (inventario.getCantidad() < 1) {
+                        throw new IllegalArgumentException("Stock insuficiente");
+                    }
+                    inventario.setCantidad(inventario.getCantidad() - 1);
+                    inventarioRepository.save(inventario);
+                });
+                return;
+            } catch (ConcurrencyFailureException e) {
+                // Otra compra modificó la fila: volver a leerla
+            }
+        }
+    }
+
+    private void fijarStock(int cantidad) {
+        jdbcTemplate.update("UPDATE inventarios SET cantidad = ?, reservado = 0 WHERE producto_id = ?",
+                cantidad, PRODUCTO_ID);
+    }
+
+    private Resultado lanzarCompras(int compras, Runnable compra) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger exitosas = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>(compras);
+
+        try {
+            for (int i = 0; i < compras; i++) {
+                tareas.add(executor.submit(() -> {
+                    salida.await();
+                    try {
+                        compra.run();
+                        exitosas.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // Stock insuficiente o reintentos agotados: la compra no se confirma
+                        log.debug("Compra concurrente rechazada: {}", e.getMessage());
+                    }
+                    return null;
+                }));
+            }
+
+            long inicio = System.nanoTime();
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(120, TimeUnit.SECONDS);
+            }
+            long duracionNanos = Math.max(1, System.nanoTime() - inicio);
+            return new Resultado(exitosas.get(), duracionNanos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private record Resultado(int exitosas, long duracionNanos) {
+
+        long comprasPorSegundo() {
+            return exitosas * TimeUnit.SECONDS.toNanos(1) / duracionNanos;
+        }
+    }
+}
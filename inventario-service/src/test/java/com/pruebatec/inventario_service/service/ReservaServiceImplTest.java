@@ -0,0 +1,142 @@
+package com.pruebatec.inventario_service.service;
+
+import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.ReservaDTO;
+import com.pruebatec.inventario_service.entity.Inventario;
+import com.pruebatec.inventario_service.event.InventarioEventPublisher;
+import com.pruebatec.inventario_service.exception.ResourceNotFoundException;
+import com.pruebatec.inventario_service.mapper.InventarioMapper;
+import com.pruebatec.inventario_service.repository.InventarioRepository;
+import com.pruebatec.inventario_service.reserva.RegistroReservas;
+import com.pruebatec.inventario_service.reserva.Reserva;
+import com.pruebatec.inventario_service.service.impl.ReservaServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservaServiceImplTest {
+
+    @Mock
+    private InventarioRepository inventarioRepository;
+
+    @Mock
+    private InventarioMapper inventarioMapper;
+
+    @Mock
+    private RegistroReservas registroReservas;
+
+    @Mock
+    private InventarioEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ReservaServiceImpl reservaService;
+
+    private final Long PRODUCTO_ID = 1L;
+
+    @Test
+    @DisplayName("Test reservar aparta el stock y registra la reserva")
+    void testReservar() {
+        // Arrange
+        Inventario inventario = new Inventario(PRODUCTO_ID, 10);
+        inventario.setReservado(3);
+        when(inventarioRepository.reservarStock(PRODUCTO_ID, 3)).thenReturn(1);
+        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(inventario));
+
+        // Act
+        ReservaDTO result = reservaService.reservar(PRODUCTO_ID, 3);
+
+        // Assert
+        assertNotNull(result.getId());
+        assertEquals(PRODUCTO_ID, result.getProductoId());
+        assertEquals(3, result.getCantidad());
+        assertEquals(7, result.getDisponible());
+        assertTrue(result.getExpiraEn().isAfter(Instant.now()));
+
+        ArgumentCaptor<Reserva> captor = ArgumentCaptor.forClass(Reserva.class);
+        verify(registroReservas).guardar(captor.capture());
+        assertEquals(result.getId(), captor.getValue().id());
+        assertEquals(3, captor.getValue().cantidad());
+    }
+
+    @Test
+    @DisplayName("Test reservar sin stock disponible suficiente")
+    void testReservarStockInsuficiente() {
+        // Arrange
+        Inventario inventario = new Inventario(PRODUCTO_ID, 10);
+        inventario.setReservado(8);
+        when(inventarioRepository.reservarStock(PRODUCTO_ID, 5)).thenReturn(0);
+        when(inventarioRepository.findByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(inventario));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                reservaService.reservar(PRODUCTO_ID, 5));
+        assertTrue(exception.getMessage().contains("Disponible: 2"));
+        verify(registroReservas, never()).guardar(any());
+    }
+
+    @Test
+    @DisplayName("Test reservar con cantidad inválida")
+    void testReservarCantidadInvalida() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> reservaService.reservar(PRODUCTO_ID, 0));
+        verify(inventarioRepository, never()).reservarStock(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Test confirmar descuenta la cantidad reservada y publica la compra")
+    void testConfirmar() {
+        // Arrange
+        Reserva reserva = new Reserva("r-1", PRODUCTO_ID, 3, Instant.now().plusSeconds(60));
+        InventarioDTO inventarioDTO = new InventarioDTO(PRODUCTO_ID, 7, null);
+        when(registroReservas.reclamar("r-1")).thenReturn(reserva);
+        when(inventarioRepository.confirmarReserva(PRODUCTO_ID, 3)).thenReturn(1);
+        when(inventarioRepository.findCantidadByProductoId(PRODUCTO_ID)).thenReturn(Optional.of(7));
+        when(inventarioMapper.toDTO(any(Inventario.class))).thenReturn(inventarioDTO);
+
+        // Act
+        InventarioDTO result = reservaService.confirmar("r-1");
+
+        // Assert
+        assertEquals(7, result.getCantidad());
+        verify(eventPublisher).publicarCambioInventario(inventarioDTO, InventarioEventPublisher.TipoOperacion.COMPRA);
+    }
+
+    @Test
+    @DisplayName("Test confirmar una reserva vencida o inexistente")
+    void testConfirmarReservaVencida() {
+        // Arrange
+        when(registroReservas.reclamar("r-1")).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> reservaService.confirmar("r-1"));
+        verify(inventarioRepository, never()).confirmarReserva(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Test liberar devuelve la cantidad reservada")
+    void testLiberar() {
+        // Arrange
+        Reserva reserva = new Reserva("r-1", PRODUCTO_ID, 3, Instant.now().plusSeconds(60));
+        when(registroReservas.reclamar("r-1")).thenReturn(reserva);
+
+        // Act
+        reservaService.liberar("r-1");
+
+        // Assert
+        verify(inventarioRepository).liberarReservado(PRODUCTO_ID, 3);
+    }
+}
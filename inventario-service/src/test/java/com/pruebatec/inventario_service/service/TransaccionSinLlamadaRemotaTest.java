@@ -0,0 +1,99 @@
+package com.pruebatec.inventario_service.service;
+
+import com.pruebatec.inventario_service.dto.InventarioDTO;
+import com.pruebatec.inventario_service.dto.ProductoDTO;
+import com.pruebatec.inventario_service.exception.ProductoNotFoundException;
+import com.pruebatec.inventario_service.repository.InventarioRepository;
+import com.pruebatec.inventario_service.service.impl.ProductoClientServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Comprueba contra la base H2 del perfil test que la creación automática del inventario
+ * no retiene una conexión mientras se espera al servicio de productos: las escrituras no
+ * lo consultan y la lectura lo consulta sin transacción ni conexión asociada al hilo.
+ * El tiempo de uso de las conexiones del pool (métrica de HikariCP) durante la lectura
+ * queda por debajo de la latencia simulada del servicio remoto.
+ */
+@SpringBootTest(properties = "producto.cache.invalidacion.enabled=false")
+class TransaccionSinLlamadaRemotaTest {
+
+    // Producto de data-test.sql sin fila de inventario
+    private static final Long PRODUCTO_SIN_INVENTARIO = 11L;
+    private static final long LATENCIA_REMOTA_MS = 300;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private InventarioRepository inventarioRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private ProductoClientServiceImpl productoClientService;
+
+    @Test
+    @DisplayName("La lectura crea el inventario y consulta el producto sin retener la conexión")
+    void lecturaSinConexionDuranteLlamadaRemota() {
+        // Arrange
+        inventarioRepository.findByProductoId(PRODUCTO_SIN_INVENTARIO).ifPresent(inventarioRepository::delete);
+        AtomicBoolean transaccionActiva = new AtomicBoolean(true);
+        AtomicBoolean recursosAsociados = new AtomicBoolean(true);
+        when(productoClientService.getProductoByIdAsync(PRODUCTO_SIN_INVENTARIO)).thenAnswer(invocacion -> {
+            transaccionActiva.set(TransactionSynchronizationManager.isActualTransactionActive());
+            recursosAsociados.set(!TransactionSynchronizationManager.getResourceMap().isEmpty());
+            return CompletableFuture.supplyAsync(() -> new ProductoDTO(PRODUCTO_SIN_INVENTARIO, "Producto 11", 10.0),
+                    CompletableFuture.delayedExecutor(LATENCIA_REMOTA_MS, TimeUnit.MILLISECONDS));
+        });
+        Timer usoConexiones = meterRegistry.get("hikaricp.connections.usage").timer();
+        double usoPrevioMs = usoConexiones.totalTime(TimeUnit.MILLISECONDS);
+
+        // Act
+        InventarioDTO result = inventarioService.getInventarioByProductoId(PRODUCTO_SIN_INVENTARIO);
+
+        // Assert
+        double usoDuranteLecturaMs = usoConexiones.totalTime(TimeUnit.MILLISECONDS) - usoPrevioMs;
+        assertEquals(0, result.getCantidad());
+        assertNotNull(result.getProducto());
+        assertFalse(transaccionActiva.get(), "La llamada remota no debe ejecutarse dentro de una transacción");
+        assertFalse(recursosAsociados.get(), "El hilo no debe tener una conexión o EntityManager asociado");
+        assertTrue(usoDuranteLecturaMs < LATENCIA_REMOTA_MS,
+                "Las conexiones se retuvieron " + usoDuranteLecturaMs + " ms durante la lectura");
+    }
+
+    @Test
+    @DisplayName("Las escrituras crean el inventario sin consultar el servicio de productos")
+    void escriturasSinLlamadaRemota() {
+        // Arrange
+        inventarioRepository.findByProductoId(PRODUCTO_SIN_INVENTARIO).ifPresent(inventarioRepository::delete);
+
+        // Act
+        InventarioDTO actualizado = inventarioService.actualizarCantidad(PRODUCTO_SIN_INVENTARIO, 5);
+        InventarioDTO repuesto = inventarioService.registrarReposicion(PRODUCTO_SIN_INVENTARIO, 3);
+
+        // Assert
+        assertEquals(5, actualizado.getCantidad());
+        assertEquals(8, repuesto.getCantidad());
+        assertThrows(ProductoNotFoundException.class, () -> inventarioService.actualizarCantidad(9999L, 5));
+        verify(productoClientService, never()).getProductoById(anyLong());
+        verify(productoClientService, never()).getProductoByIdAsync(anyLong());
+    }
+}
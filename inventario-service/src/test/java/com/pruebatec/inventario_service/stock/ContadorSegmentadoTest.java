@@ -0,0 +1,87 @@
+package com.pruebatec.inventario_service.stock;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContadorSegmentadoTest {
+
+    @Test
+    @DisplayName("Test reservar reúne stock de varios segmentos y rechaza si no alcanza")
+    void testReservarRepartido() {
+        // Arrange: 10 unidades en 4 segmentos (3, 3, 2, 2)
+        ContadorSegmentado contador = new ContadorSegmentado(4, 10);
+
+        // Act & Assert
+        assertTrue(contador.reservar(7));
+        assertEquals(3, contador.disponible());
+        assertFalse(contador.reservar(4));
+        assertEquals(3, contador.disponible());
+        assertTrue(contador.reservar(3));
+        assertEquals(0, contador.disponible());
+    }
+
+    @Test
+    @DisplayName("Test liberar y reemplazar ajustan el stock disponible")
+    void testLiberarYReemplazar() {
+        // Arrange
+        ContadorSegmentado contador = new ContadorSegmentado(4, 10);
+
+        // Act
+        contador.liberar(5);
+        long anterior = contador.reemplazar(3);
+
+        // Assert
+        assertEquals(15, anterior);
+        assertEquals(3, contador.disponible());
+    }
+
+    @Test
+    @DisplayName("Test reservas concurrentes nunca superan el stock")
+    void testReservasConcurrentesSinSobreventa() throws Exception {
+        // Arrange
+        int hilos = 16;
+        int intentosPorHilo = 5000;
+        int stock = 20000;
+        ContadorSegmentado contador = new ContadorSegmentado(8, stock);
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger exitosas = new AtomicInteger();
+
+        try {
+            // Act
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                tareas.add(executor.submit(() -> {
+                    salida.await();
+                    for (int i = 0; i < intentosPorHilo; i++) {
+                        if (contador.reservar(1)) {
+                            exitosas.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(30, TimeUnit.SECONDS);
+            }
+
+            // Assert
+            assertEquals(stock, exitosas.get());
+            assertEquals(0, contador.disponible());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
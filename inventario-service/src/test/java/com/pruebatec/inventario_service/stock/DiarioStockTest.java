@@ -0,0 +1,127 @@
+package com.pruebatec.inventario_service.stock;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiarioStockTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    @DisplayName("Test cortar devuelve los cambios netos por producto y confirmar borra los segmentos")
+    void testCortarYConfirmar() throws IOException {
+        // Arrange
+        DiarioStock diario = new DiarioStock(directorio, 0);
+        diario.registrar(1L, -2);
+        diario.registrar(1L, -3);
+        long ultima = diario.registrar(2L, 10);
+        diario.sincronizar(ultima);
+
+        // Act
+        DiarioStock.Corte corte = diario.cortar();
+        diario.confirmar(corte);
+
+        // Assert
+        assertEquals(Map.of(1L, -5L, 2L, 10L), corte.deltas());
+        assertEquals(3, corte.secuencia());
+        assertTrue(corte.segmentos().stream().noneMatch(Files::exists));
+        diario.close();
+    }
+
+    @Test
+    @DisplayName("Test un corte restaurado se incluye en el siguiente")
+    void testRestaurar() throws IOException {
+        // Arrange
+        DiarioStock diario = new DiarioStock(directorio, 0);
+        diario.registrar(1L, -2);
+        DiarioStock.Corte fallido = diario.cortar();
+        diario.restaurar(fallido);
+        diario.registrar(1L, -1);
+
+        // Act
+        DiarioStock.Corte corte = diario.cortar();
+
+        // Assert
+        assertEquals(Map.of(1L, -3L), corte.deltas());
+        assertEquals(2, corte.segmentos().size());
+        diario.close();
+    }
+
+    @Test
+    @DisplayName("Test registrar y sincronizar desde muchos hilos virtuales a la vez mientras se corta el diario")
+    void testConcurrenciaConHilosVirtuales() throws Exception {
+        // Arrange
+        DiarioStock diario = new DiarioStock(directorio, 0);
+        List<Future<?>> tareas = new ArrayList<>();
+        List<DiarioStock.Corte> cortes = new ArrayList<>();
+
+        // Act
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                long productoId = i % 4;
+                tareas.add(hilos.submit(() -> {
+                    for (int j = 0; j < 10; j++) {
+                        diario.sincronizar(diario.registrar(productoId, -1));
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < 5; i++) {
+                cortes.add(diario.cortar());
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        }
+        cortes.add(diario.cortar());
+
+        // Assert
+        long total = cortes.stream()
+                .flatMap(corte -> corte.deltas().values().stream())
+                .mapToLong(Long::longValue)
+                .sum();
+        assertEquals(-2000, total);
+        assertEquals(2000, diario.getSecuencia());
+        diario.close();
+    }
+
+    @Test
+    @DisplayName("Test recuperar aplica solo los cambios posteriores al checkpoint e ignora una línea incompleta")
+    void testRecuperar() throws IOException {
+        // Arrange
+        DiarioStock diario = new DiarioStock(directorio, 0);
+        diario.registrar(1L, -2);
+        diario.registrar(1L, -3);
+        diario.registrar(2L, 4);
+        diario.close();
+        Path segmento;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            segmento = archivos.findFirst().orElseThrow();
+        }
+        Files.writeString(segmento, "4;1;-", StandardCharsets.US_ASCII, StandardOpenOption.APPEND);
+
+        // Act
+        DiarioStock.Corte recuperado = DiarioStock.recuperar(directorio, 1);
+
+        // Assert
+        assertEquals(Map.of(1L, -3L, 2L, 4L), recuperado.deltas());
+        assertEquals(3, recuperado.secuencia());
+    }
+}
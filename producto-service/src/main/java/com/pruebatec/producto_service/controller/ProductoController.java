@@ -1,8 +1,11 @@
 package com.pruebatec.producto_service.controller;
 
+import com.pruebatec.producto_service.dto.CambiosProductoDTO;
 import com.pruebatec.producto_service.dto.ProductoAtributosDTO;
 import com.pruebatec.producto_service.dto.ProductoDTO;
+import com.pruebatec.producto_service.json.JsonApiCursorResponse;
 import com.pruebatec.producto_service.json.JsonApiResponse;
+import com.pruebatec.producto_service.service.ProductoExportador;
 import com.pruebatec.producto_service.service.ProductoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,13 +18,20 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 @RestController
@@ -32,6 +42,7 @@ import java.util.function.Function;
 public class ProductoController {
 
     private final ProductoService productoService;
+    private final ProductoExportador productoExportador;
     private static final String TIPO_RECURSO = "productos";
     
     // Funciones de mapeo reutilizables
@@ -63,6 +74,30 @@ public class ProductoController {
         return new ResponseEntity<>(respuesta, HttpStatus.CREATED);
     }
     
+    @PostMapping("/lote")
+    @Operation(summary = "Crear productos en lote", 
+            description = "Crea varios productos en una sola transacción, con las inserciones agrupadas en lotes JDBC. "
+                    + "Si algún producto es inválido no se crea ninguno")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Productos creados correctamente"),
+        @ApiResponse(responseCode = "400", description = "Lote vacío, demasiado grande o con productos inválidos")
+    })
+    public ResponseEntity<JsonApiResponse<ProductoAtributosDTO>> crearProductos(
+            @Parameter(description = "Productos a crear", required = true)
+            @RequestBody List<ProductoDTO> productosDTO) {
+        log.info("Solicitud para crear {} productos en lote", productosDTO.size());
+        List<ProductoDTO> nuevosProductos = productoService.crearProductos(productosDTO);
+        
+        JsonApiResponse<ProductoAtributosDTO> respuesta = JsonApiResponse.desdeLista(
+                nuevosProductos,
+                MAPEO_ATRIBUTOS,
+                MAPEO_ID,
+                TIPO_RECURSO
+        );
+        
+        return new ResponseEntity<>(respuesta, HttpStatus.CREATED);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Obtener un producto por ID", description = "Devuelve un producto según su identificador")
     @ApiResponses(value = {
@@ -106,6 +141,116 @@ public class ProductoController {
         return ResponseEntity.ok(respuesta);
     }
     
+    @GetMapping(params = {"page[after]", "!filter[id]"})
+    @Operation(summary = "Listar productos por cursor", 
+            description = "Devuelve los productos con ID mayor a page[after], ordenados por ID. No calcula el total salvo que se pida con meta[total]=true; "
+                    + "la siguiente página se obtiene con el enlace links.next. Use page[after]=0 para empezar")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista de productos obtenida correctamente"),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido")
+    })
+    public ResponseEntity<JsonApiCursorResponse<ProductoAtributosDTO>> listarProductosPorCursor(
+            @Parameter(description = "ID del último producto recibido", example = "0", required = true)
+            @RequestParam("page[after]") String despuesDe,
+            @Parameter(description = "Incluir el total de productos en meta (ejecuta un COUNT)")
+            @RequestParam(value = "meta[total]", defaultValue = "false") boolean incluirTotal,
+            @Parameter(description = "Tamaño de página (size); page y sort se ignoran")
+            Pageable pageable) {
+        Long cursor = parsearCursor(despuesDe);
+        int tamano = pageable.getPageSize();
+        log.info("Solicitud para listar {} productos a partir del id: {}", tamano, cursor);
+        
+        Slice<ProductoDTO> productos = productoService.listarProductosDesde(cursor, tamano);
+        Long total = incluirTotal ? productoService.contarProductos() : null;
+        
+        String siguiente = null;
+        if (productos.hasNext()) {
+            Long ultimo = productos.getContent().get(productos.getNumberOfElements() - 1).getId();
+            siguiente = "/api/productos?page[after]=" + ultimo + "&size=" + tamano
+                    + (incluirTotal ? "&meta[total]=true" : "");
+        }
+        
+        JsonApiCursorResponse<ProductoAtributosDTO> respuesta = JsonApiCursorResponse.desdeTramo(
+                productos,
+                MAPEO_ATRIBUTOS,
+                MAPEO_ID,
+                TIPO_RECURSO,
+                siguiente,
+                total
+        );
+        
+        return ResponseEntity.ok(respuesta);
+    }
+    
+    @GetMapping(params = "filter[id]")
+    @Operation(summary = "Obtener varios productos por ID", 
+            description = "Devuelve en una sola consulta los productos cuyos IDs se indican separados por comas. Los IDs inexistentes se omiten")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Productos obtenidos correctamente"),
+        @ApiResponse(responseCode = "400", description = "IDs inválidos o demasiados IDs en la solicitud")
+    })
+    public ResponseEntity<JsonApiResponse<ProductoAtributosDTO>> obtenerProductosPorIds(
+            @Parameter(description = "IDs de productos separados por comas", example = "1,2,3", required = true)
+            @RequestParam("filter[id]") String ids) {
+        log.info("Solicitud para obtener productos con ids: {}", ids);
+        List<ProductoDTO> productos = productoService.obtenerProductosPorIds(parsearIds(ids));
+        
+        JsonApiResponse<ProductoAtributosDTO> respuesta = JsonApiResponse.desdeLista(
+                productos,
+                MAPEO_ATRIBUTOS,
+                MAPEO_ID,
+                TIPO_RECURSO
+        );
+        
+        return ResponseEntity.ok(respuesta);
+    }
+    
+    @GetMapping("/cambios")
+    @Operation(summary = "Obtener cambios de productos", 
+            description = "Devuelve los IDs de productos modificados o eliminados después de la versión indicada, para invalidar cachés de otros servicios")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cambios obtenidos correctamente")
+    })
+    public ResponseEntity<JsonApiResponse<CambiosProductoDTO>> obtenerCambios(
+            @Parameter(description = "Última versión procesada por el consumidor (-1 si no tiene ninguna)")
+            @RequestParam(defaultValue = "-1") long desde) {
+        log.debug("Solicitud de cambios de productos desde la versión: {}", desde);
+        CambiosProductoDTO cambios = productoService.obtenerCambiosDesde(desde);
+        
+        JsonApiResponse<CambiosProductoDTO> respuesta = JsonApiResponse.desdeEntidad(
+                cambios,
+                Function.identity(),
+                dto -> Long.toString(dto.getVersion()),
+                "cambios-productos"
+        );
+        
+        return ResponseEntity.ok(respuesta);
+    }
+    
+    @GetMapping("/exportacion")
+    @Operation(summary = "Exportar el catálogo completo", 
+            description = "Devuelve todos los productos en una sola respuesta, leyendo y escribiendo fila a fila. "
+                    + "formato=ndjson (por defecto) escribe un recurso JSON:API por línea; formato=jsonapi un documento con todos en data")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Catálogo exportado correctamente"),
+        @ApiResponse(responseCode = "400", description = "Formato no soportado")
+    })
+    public ResponseEntity<StreamingResponseBody> exportarCatalogo(
+            @Parameter(description = "Formato de salida: ndjson o jsonapi", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String formato) {
+        ProductoExportador.Formato formatoExportacion = parsearFormato(formato);
+        log.info("Solicitud para exportar el catálogo en formato {}", formatoExportacion);
+        
+        // Se ejecuta en un hilo aparte tras devolver las cabeceras, sin transacción abierta
+        StreamingResponseBody cuerpo = salida -> productoExportador.exportar(salida, formatoExportacion);
+        
+        return ResponseEntity.ok()
+                .contentType(formatoExportacion == ProductoExportador.Formato.NDJSON
+                        ? MediaType.APPLICATION_NDJSON
+                        : MediaType.APPLICATION_JSON)
+                .body(cuerpo);
+    }
+    
     @PutMapping("/{id}")
     @Operation(summary = "Actualizar un producto", description = "Actualiza los datos de un producto existente")
     @ApiResponses(value = {
@@ -158,4 +303,42 @@ public class ProductoController {
         
         return ResponseEntity.ok(respuesta);
     }
+    
+    private static ProductoExportador.Formato parsearFormato(String formato) {
+        try {
+            return ProductoExportador.Formato.valueOf(formato.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato de exportación no soportado: " + formato + ". Use ndjson o jsonapi");
+        }
+    }
+    
+    private static Long parsearCursor(String despuesDe) {
+        try {
+            return Long.parseLong(despuesDe.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido en page[after]: " + despuesDe);
+        }
+    }
+    
+    /**
+     * Convierte la lista de IDs separada por comas, sin repetidos y en el orden recibido
+     */
+    private static List<Long> parsearIds(String ids) {
+        Set<Long> resultado = new LinkedHashSet<>();
+        for (String id : ids.split(",")) {
+            String limpio = id.trim();
+            if (limpio.isEmpty()) {
+                continue;
+            }
+            try {
+                resultado.add(Long.parseLong(limpio));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("ID de producto inválido: " + limpio);
+            }
+        }
+        if (resultado.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un ID de producto en filter[id]");
+        }
+        return new ArrayList<>(resultado);
+    }
 }
\ No newline at end of file
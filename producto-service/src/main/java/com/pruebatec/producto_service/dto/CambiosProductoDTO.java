@@ -0,0 +1,27 @@
+package com.pruebatec.producto_service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Productos modificados o eliminados desde una versión dada")
+public class CambiosProductoDTO {
+    
+    @Schema(description = "Identificador de la instancia del servicio; cambia al reiniciarse", example = "1717171717171")
+    private String instancia;
+    
+    @Schema(description = "Versión actual del registro de cambios", example = "42")
+    private long version;
+    
+    @Schema(description = "Indica si la lista contiene todos los cambios desde la versión solicitada", example = "true")
+    private boolean completo;
+    
+    @Schema(description = "IDs de los productos modificados o eliminados, sin repetir", example = "[1, 5]")
+    private List<Long> productoIds;
+}
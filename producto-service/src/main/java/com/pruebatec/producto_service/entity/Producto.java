@@ -15,8 +15,11 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class Producto {
 
+    // Secuencia con asignación en bloques (pooled): Hibernate reserva 50 IDs por llamada
+    // y puede agrupar los INSERT en lotes JDBC, cosa que IDENTITY impide
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productos_seq")
+    @SequenceGenerator(name = "productos_seq", sequenceName = "PRODUCTOS_SEQ", initialValue = 1000, allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -80,6 +80,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(respuesta, HttpStatus.BAD_REQUEST);
     }
     
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ApiResponse(responseCode = "400", description = "Parámetros inválidos", 
+                content = @Content(mediaType = "application/json"))
+    public ResponseEntity<JsonApiResponse<ErrorAttributes>> illegalArgumentException(
+            IllegalArgumentException ex, WebRequest request) {
+        
+        log.error("Parámetros inválidos: {}", ex.getMessage());
+        
+        ErrorAttributes errorAttributes = new ErrorAttributes(
+                HttpStatus.BAD_REQUEST.toString(),
+                "Parámetros inválidos",
+                ex.getMessage()
+        );
+        
+        JsonApiResponse<ErrorAttributes> respuesta = new JsonApiResponse<>(
+                List.of(new JsonApiResponse.Resource<>("error", "1", errorAttributes)),
+                null
+        );
+        
+        return new ResponseEntity<>(respuesta, HttpStatus.BAD_REQUEST);
+    }
+    
     @ExceptionHandler(Exception.class)
     @ApiResponse(responseCode = "500", description = "Error interno del servidor", 
                 content = @Content(mediaType = "application/json"))
@@ -0,0 +1,82 @@
+package com.pruebatec.producto_service.json;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Respuesta JSON:API para listados por cursor: en lugar del número de página lleva
+ * el enlace a la siguiente, y el total de elementos solo si se pidió.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Respuesta en formato JSON:API paginada por cursor")
+public class JsonApiCursorResponse<T> {
+
+    @Schema(description = "Recursos principales de la respuesta")
+    private List<JsonApiResponse.Resource<T>> data;
+
+    @Schema(description = "Enlaces de navegación")
+    private Links links;
+
+    @Schema(description = "Información de paginación")
+    private Meta meta;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Enlaces de navegación por cursor")
+    public static class Links {
+
+        @Schema(description = "Enlace a la página siguiente (ausente en la última página)",
+                example = "/api/productos?page[after]=10&size=5", nullable = true)
+        private String next;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Metadatos de paginación por cursor")
+    public static class Meta {
+
+        @JsonProperty("total_Elementos_en_la_tabla")
+        @Schema(description = "Número total de elementos (solo con meta[total]=true)", example = "100", nullable = true)
+        private Long totalElements;
+
+        @JsonProperty("Elementos_por_Pagina")
+        @Schema(description = "Tamaño de página", example = "10")
+        private int size;
+    }
+
+    // Método para crear respuesta a partir de un tramo de resultados
+    public static <E, T> JsonApiCursorResponse<T> desdeTramo(
+            Slice<E> tramo,
+            Function<E, T> mapeoAtributos,
+            Function<E, String> mapeoId,
+            String tipoRecurso,
+            String siguiente,
+            Long total) {
+
+        List<JsonApiResponse.Resource<T>> recursos = tramo.getContent().stream()
+                .map(entidad -> new JsonApiResponse.Resource<>(
+                        tipoRecurso,
+                        mapeoId.apply(entidad),
+                        mapeoAtributos.apply(entidad)
+                ))
+                .collect(Collectors.toList());
+
+        return new JsonApiCursorResponse<>(recursos, new Links(siguiente), new Meta(total, tramo.getSize()));
+    }
+}
@@ -102,4 +102,22 @@ public class JsonApiResponse<T> {
         
         return new JsonApiResponse<>(recursos, meta);
     }
+
+    // Método para crear respuesta a partir de una lista sin paginación
+    public static <E, T> JsonApiResponse<T> desdeLista(
+            List<E> entidades,
+            Function<E, T> mapeoAtributos,
+            Function<E, String> mapeoId,
+            String tipoRecurso) {
+        
+        List<Resource<T>> recursos = entidades.stream()
+                .map(entidad -> new Resource<>(
+                        tipoRecurso,
+                        mapeoId.apply(entidad),
+                        mapeoAtributos.apply(entidad)
+                ))
+                .collect(Collectors.toList());
+        
+        return new JsonApiResponse<>(recursos, null);
+    }
 }
\ No newline at end of file
@@ -3,10 +3,18 @@ package com.pruebatec.producto_service.repository;
 
 
 import com.pruebatec.producto_service.entity.Producto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
-    // Aquí puedes añadir métodos personalizados de consulta si los necesitas
+    
+    /**
+     * Productos con id mayor al indicado, en orden de id (paginación por cursor).
+     * Al devolver un Slice no se ejecuta el COUNT: solo se lee un elemento de más
+     * para saber si hay página siguiente. Se ignoran la página y el orden del Pageable.
+     */
+    Slice<Producto> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
\ No newline at end of file
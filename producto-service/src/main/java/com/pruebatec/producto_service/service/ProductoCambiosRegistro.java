@@ -0,0 +1,84 @@
+package com.pruebatec.producto_service.service;
+
+import com.pruebatec.producto_service.dto.CambiosProductoDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Registro en memoria de los productos modificados o eliminados.
+ * Cada cambio recibe una versión monótona creciente para que los consumidores
+ * (por ejemplo la caché de inventario-service) pidan solo lo ocurrido desde
+ * la última versión que procesaron.
+ */
+@Component
+@Slf4j
+public class ProductoCambiosRegistro {
+
+    private final String instancia = Long.toString(System.currentTimeMillis());
+    private final long[] productoIds;
+    private long version;
+
+    public ProductoCambiosRegistro(@Value("${producto.cambios.capacidad:10000}") int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad del registro de cambios debe ser mayor a cero");
+        }
+        this.productoIds = new long[capacidad];
+    }
+
+    /**
+     * Registra el cambio de un producto una vez confirmada la transacción actual,
+     * para que ningún consumidor vuelva a leer el valor anterior tras invalidarlo
+     * @param productoId ID del producto modificado o eliminado
+     */
+    public void registrarTrasCommit(Long productoId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    registrar(productoId);
+                }
+            });
+        } else {
+            registrar(productoId);
+        }
+    }
+
+    /**
+     * Registra el cambio de un producto
+     * @param productoId ID del producto modificado o eliminado
+     */
+    public synchronized void registrar(Long productoId) {
+        version++;
+        productoIds[(int) ((version - 1) % productoIds.length)] = productoId;
+        log.debug("Cambio de producto registrado: id {}, versión {}", productoId, version);
+    }
+
+    /**
+     * Obtiene los productos cambiados después de una versión
+     * @param desde Última versión procesada por el consumidor
+     * @return Cambios posteriores; si ya no se conservan todos, completo = false
+     */
+    public synchronized CambiosProductoDTO cambiosDesde(long desde) {
+        if (desde >= version) {
+            return new CambiosProductoDTO(instancia, version, desde == version, List.of());
+        }
+
+        long primeraConservada = Math.max(1, version - productoIds.length + 1);
+        if (desde < 0 || desde + 1 < primeraConservada) {
+            return new CambiosProductoDTO(instancia, version, false, List.of());
+        }
+
+        Set<Long> cambiados = new LinkedHashSet<>();
+        for (long v = desde + 1; v <= version; v++) {
+            cambiados.add(productoIds[(int) ((v - 1) % productoIds.length)]);
+        }
+        return new CambiosProductoDTO(instancia, version, true, List.copyOf(cambiados));
+    }
+}
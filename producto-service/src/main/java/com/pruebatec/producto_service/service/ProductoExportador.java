@@ -0,0 +1,116 @@
+package com.pruebatec.producto_service.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Exporta el catálogo completo de productos leyendo un único cursor JDBC de solo avance
+ * y escribiendo cada fila en cuanto llega. No se cargan entidades en el contexto de
+ * persistencia ni se acumula la respuesta: la memoria usada depende del tamaño de
+ * lote del driver (fetch size), no del número de productos.
+ */
+@Component
+@Slf4j
+public class ProductoExportador {
+
+    private static final String CONSULTA = "SELECT id, nombre, precio FROM productos ORDER BY id";
+    private static final String TIPO_RECURSO = "productos";
+
+    public enum Formato {
+        /** Un recurso JSON:API por línea (application/x-ndjson) */
+        NDJSON,
+        /** Documento JSON:API con todos los recursos en "data" */
+        JSONAPI
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory;
+
+    public ProductoExportador(DataSource dataSource, ObjectMapper objectMapper,
+                              @Value("${producto.exportacion.fetch-size:500}") int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("El fetch size de la exportación debe ser mayor a cero");
+        }
+        // JdbcTemplate propio para no cambiar el fetch size del resto de consultas
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Escribe todos los productos en la salida. La salida no se cierra.
+     * @return Número de productos exportados
+     */
+    public long exportar(OutputStream salida, Formato formato) throws IOException {
+        long inicio = System.currentTimeMillis();
+        long[] exportados = {0};
+
+        try (JsonGenerator generador = jsonFactory.createGenerator(salida)) {
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // En NDJSON el separador entre objetos es el salto de línea que se escribe a mano
+            generador.setRootValueSeparator(null);
+
+            if (formato == Formato.JSONAPI) {
+                generador.writeStartObject();
+                generador.writeArrayFieldStart("data");
+            }
+
+            try {
+                jdbcTemplate.query(CONSULTA, rs -> {
+                    escribirRecurso(generador, rs, formato);
+                    exportados[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                // Normalmente el cliente cerró la conexión; el cursor ya quedó cerrado
+                throw e.getCause();
+            }
+
+            if (formato == Formato.JSONAPI) {
+                generador.writeEndArray();
+                generador.writeEndObject();
+            }
+        }
+
+        log.info("Catálogo exportado en formato {}: {} productos en {} ms",
+                formato, exportados[0], System.currentTimeMillis() - inicio);
+        return exportados[0];
+    }
+
+    private static void escribirRecurso(JsonGenerator generador, ResultSet rs, Formato formato) throws SQLException {
+        try {
+            generador.writeStartObject();
+            generador.writeStringField("type", TIPO_RECURSO);
+            generador.writeStringField("id", Long.toString(rs.getLong("id")));
+            generador.writeObjectFieldStart("attributes");
+            generador.writeStringField("nombre", rs.getString("nombre"));
+            // Mismo valor que en el resto de la API (ProductoAtributosDTO usa Double)
+            BigDecimal precio = rs.getBigDecimal("precio");
+            if (precio != null) {
+                generador.writeNumberField("precio", precio.doubleValue());
+            } else {
+                generador.writeNullField("precio");
+            }
+            generador.writeEndObject();
+            generador.writeEndObject();
+
+            if (formato == Formato.NDJSON) {
+                generador.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
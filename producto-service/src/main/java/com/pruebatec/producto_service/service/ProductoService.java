@@ -1,19 +1,33 @@
 package com.pruebatec.producto_service.service;
 
 
+import com.pruebatec.producto_service.dto.CambiosProductoDTO;
 import com.pruebatec.producto_service.dto.ProductoDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
 
 public interface ProductoService {
     
     ProductoDTO crearProducto(ProductoDTO productoDTO);
     
+    List<ProductoDTO> crearProductos(List<ProductoDTO> productosDTO);
+    
     ProductoDTO obtenerProductoPorId(Long id);
     
     Page<ProductoDTO> listarProductos(Pageable pageable);
     
+    Slice<ProductoDTO> listarProductosDesde(Long despuesDeId, int tamano);
+    
+    long contarProductos();
+    
+    List<ProductoDTO> obtenerProductosPorIds(List<Long> ids);
+    
     ProductoDTO actualizarProducto(Long id, ProductoDTO productoDTO);
     
     void eliminarProducto(Long id);
+    
+    CambiosProductoDTO obtenerCambiosDesde(long version);
 }
\ No newline at end of file
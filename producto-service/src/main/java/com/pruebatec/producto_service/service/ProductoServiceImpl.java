@@ -1,19 +1,30 @@
 package com.pruebatec.producto_service.service;
 
+import com.pruebatec.producto_service.dto.CambiosProductoDTO;
 import com.pruebatec.producto_service.dto.ProductoDTO;
 import com.pruebatec.producto_service.entity.Producto;
 import com.pruebatec.producto_service.exception.ProductoConDependenciasException;
 import com.pruebatec.producto_service.exception.ResourceNotFoundException;
 import com.pruebatec.producto_service.mapper.ProductoMapper;
 import com.pruebatec.producto_service.repository.ProductoRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +35,17 @@ public class ProductoServiceImpl implements ProductoService {
 
     private final ProductoRepository productoRepository;
     private final ProductoMapper productoMapper;
+    private final ProductoCambiosRegistro cambiosRegistro;
+    private final EntityManager entityManager;
+    
+    @Value("${producto.bulk.max-ids:100}")
+    private int maxIdsPorConsulta = 100;
+    
+    @Value("${producto.lote.max-size:5000}")
+    private int maxProductosPorLote = 5000;
+    
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tamanoLoteJdbc = 50;
     
     @Override
     @Transactional
@@ -34,6 +56,52 @@ public class ProductoServiceImpl implements ProductoService {
         return productoMapper.toDTO(producto);
     }
     
+    @Override
+    @Transactional
+    public List<ProductoDTO> crearProductos(List<ProductoDTO> productosDTO) {
+        validarLote(productosDTO);
+        log.debug("Creando {} productos en lote", productosDTO.size());
+        
+        List<ProductoDTO> creados = new ArrayList<>(productosDTO.size());
+        for (int i = 0; i < productosDTO.size(); i++) {
+            Producto producto = productoMapper.toEntity(productosDTO.get(i));
+            // Siempre es un alta: con ID informado save() haría un merge con SELECT previo
+            producto.setId(null);
+            producto = productoRepository.save(producto);
+            // La secuencia asigna el ID al persistir, sin esperar al INSERT
+            creados.add(productoMapper.toDTO(producto));
+            
+            // Enviar cada lote JDBC completo y soltar las entidades ya insertadas
+            if ((i + 1) % tamanoLoteJdbc == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return creados;
+    }
+    
+    /**
+     * Valida el lote completo antes de insertar nada, para no fallar a mitad por una
+     * restricción NOT NULL con un error difícil de asociar al producto
+     */
+    private void validarLote(List<ProductoDTO> productosDTO) {
+        if (productosDTO == null || productosDTO.isEmpty()) {
+            throw new IllegalArgumentException("Debe indicar al menos un producto");
+        }
+        if (productosDTO.size() > maxProductosPorLote) {
+            throw new IllegalArgumentException(
+                    "No se pueden crear más de " + maxProductosPorLote + " productos por solicitud");
+        }
+        for (int i = 0; i < productosDTO.size(); i++) {
+            ProductoDTO productoDTO = productosDTO.get(i);
+            if (productoDTO == null || productoDTO.getNombre() == null || productoDTO.getNombre().isBlank()
+                    || productoDTO.getPrecio() == null) {
+                throw new IllegalArgumentException(
+                        "El producto en la posición " + i + " debe tener nombre y precio");
+            }
+        }
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public ProductoDTO obtenerProductoPorId(Long id) {
@@ -51,6 +119,41 @@ public class ProductoServiceImpl implements ProductoService {
                 .map(productoMapper::toDTO);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductoDTO> listarProductosDesde(Long despuesDeId, int tamano) {
+        log.debug("Listando {} productos a partir del id: {}", tamano, despuesDeId);
+        // Búsqueda por índice de la clave primaria: el coste no depende de lo avanzada que esté la página
+        return productoRepository.findByIdGreaterThanOrderByIdAsc(despuesDeId, PageRequest.of(0, tamano))
+                .map(productoMapper::toDTO);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public long contarProductos() {
+        return productoRepository.count();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductoDTO> obtenerProductosPorIds(List<Long> ids) {
+        if (ids.size() > maxIdsPorConsulta) {
+            throw new IllegalArgumentException(
+                    "No se pueden consultar más de " + maxIdsPorConsulta + " productos por solicitud");
+        }
+        log.debug("Buscando {} productos por id", ids.size());
+        
+        // Una sola consulta para todos los ids; se devuelven en el orden solicitado
+        Map<Long, Producto> productosPorId = productoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        
+        return ids.stream()
+                .map(productosPorId::get)
+                .filter(Objects::nonNull)
+                .map(productoMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+    
     @Override
     @Transactional
     public ProductoDTO actualizarProducto(Long id, ProductoDTO productoDTO) {
@@ -66,9 +169,18 @@ public class ProductoServiceImpl implements ProductoService {
         }
         
         producto = productoRepository.save(producto);
+        
+        // Notificar el cambio a los consumidores con caché (inventario-service)
+        cambiosRegistro.registrarTrasCommit(id);
+        
         return productoMapper.toDTO(producto);
     }
     
+    @Override
+    public CambiosProductoDTO obtenerCambiosDesde(long version) {
+        return cambiosRegistro.cambiosDesde(version);
+    }
+    
     @Override
     @Transactional
     public void eliminarProducto(Long id) {
@@ -83,6 +195,7 @@ public class ProductoServiceImpl implements ProductoService {
             productoRepository.delete(producto);
             // Forzar el flush para que la operación se ejecute inmediatamente
             productoRepository.flush();
+            cambiosRegistro.registrarTrasCommit(id);
         } catch (DataIntegrityViolationException e) {
             // Esta excepción se lanza cuando hay restricciones de integridad referencial
             String mensaje = "No se puede eliminar el producto con ID " + id + 
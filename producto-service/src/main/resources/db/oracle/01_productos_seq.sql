@@ -0,0 +1,22 @@
+-- Scripts de Oracle para dev y prod (H2 usa schema.sql). Se ejecutan antes de desplegar:
+-- dev no genera el esquema (ddl-auto=none) y prod lo crearía empezando en 1000.
+
+-- Secuencia de IDs de productos. INCREMENT BY debe ser igual al allocationSize de la
+-- entidad (50). Con el optimizador pooled, Hibernate toma cada valor como el final de un
+-- bloque de 50 (salvo el primero si coincide con initialValue = 1000), así que se empieza
+-- 50 por encima del mayor ID existente para que el primer bloque no reutilice IDs.
+-- Si ya existe (creada por ddl-auto=update) se vuelve a crear con el valor calculado.
+DECLARE
+    existe NUMBER;
+    inicio NUMBER;
+BEGIN
+    SELECT GREATEST(NVL(MAX(id), 0) + 50, 1000) INTO inicio FROM productos;
+
+    SELECT COUNT(*) INTO existe FROM user_sequences WHERE sequence_name = 'PRODUCTOS_SEQ';
+    IF existe > 0 THEN
+        EXECUTE IMMEDIATE 'DROP SEQUENCE PRODUCTOS_SEQ';
+    END IF;
+
+    EXECUTE IMMEDIATE 'CREATE SEQUENCE PRODUCTOS_SEQ START WITH ' || inicio || ' INCREMENT BY 50 NOCACHE';
+END;
+/
@@ -1,5 +1,10 @@
 -- Eliminar tablas si existen
 DROP TABLE IF EXISTS productos;
+DROP SEQUENCE IF EXISTS productos_seq;
+
+-- Secuencia de IDs usada por Hibernate (incremento igual al allocationSize de la entidad).
+-- Empieza en 1000 para no chocar con los datos iniciales, que usan el autoincremento
+CREATE SEQUENCE productos_seq START WITH 1000 INCREMENT BY 50;
 
 -- Crear tabla productos
 CREATE TABLE productos (
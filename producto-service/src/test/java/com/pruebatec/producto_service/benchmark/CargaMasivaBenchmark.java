@@ -0,0 +1,106 @@
+package com.pruebatec.producto_service.benchmark;
+
+import com.pruebatec.producto_service.ProductoServiceApplication;
+import com.pruebatec.producto_service.dto.ProductoDTO;
+import com.pruebatec.producto_service.service.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el alta de productos contra el perfil de pruebas (H2 en memoria):
+ * <ul>
+ *     <li>{@code individual}: una llamada a crearProducto por producto, como hacen los clientes con POST /api/productos</li>
+ *     <li>{@code lote}: crearProductos con todos los productos (secuencia pooled + hibernate.jdbc.batch_size)</li>
+ * </ul>
+ * Como cada invocación crea {@value #FILAS} productos, el resultado en ops/s equivale a filas por segundo.
+ * Se ejecuta con el método main.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CargaMasivaBenchmark {
+
+    private static final int FILAS = 1000;
+
+    private ConfigurableApplicationContext contexto;
+    private ProductoService productoService;
+    private JdbcTemplate jdbcTemplate;
+    private List<ProductoDTO> productos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contexto = SpringApplication.run(ProductoServiceApplication.class,
+                "--spring.profiles.active=test",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        productoService = contexto.getBean(ProductoService.class);
+        jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+
+        productos = new ArrayList<>(FILAS);
+        for (int i = 0; i < FILAS; i++) {
+            productos.add(new ProductoDTO(null, "Producto " + i, 10.0 + i));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void limpiar() {
+        // Solo los creados por el benchmark (la secuencia empieza en 1000)
+        jdbcTemplate.update("DELETE FROM productos WHERE id >= 1000");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public int individual() {
+        int creados = 0;
+        for (ProductoDTO producto : productos) {
+            productoService.crearProducto(producto);
+            creados++;
+        }
+        return creados;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public int lote() {
+        return productoService.crearProductos(productos).size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opciones = new OptionsBuilder()
+                .include(CargaMasivaBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opciones).run();
+    }
+}
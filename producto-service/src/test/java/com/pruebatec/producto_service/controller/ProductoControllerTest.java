@@ -2,9 +2,12 @@ package com.pruebatec.producto_service.controller;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pruebatec.producto_service.dto.CambiosProductoDTO;
 import com.pruebatec.producto_service.dto.ProductoAtributosDTO;
 import com.pruebatec.producto_service.dto.ProductoDTO;
+import com.pruebatec.producto_service.json.JsonApiCursorResponse;
 import com.pruebatec.producto_service.json.JsonApiResponse;
+import com.pruebatec.producto_service.service.ProductoExportador;
 import com.pruebatec.producto_service.service.ProductoService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,9 +19,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
 
 import java.util.Arrays;
 import java.util.List;
@@ -35,6 +42,9 @@ public class ProductoControllerTest {
     @Mock
     private ProductoService productoService;
 
+    @Mock
+    private ProductoExportador productoExportador;
+
     @InjectMocks
     private ProductoController productoController;
 
@@ -79,6 +89,24 @@ public class ProductoControllerTest {
         verify(productoService, times(1)).crearProducto(any(ProductoDTO.class));
     }
 
+    @Test
+    public void testCrearProductos() {
+        // Arrange
+        ProductoDTO producto2 = new ProductoDTO(2L, "Producto 2", 200.0);
+        List<ProductoDTO> lote = List.of(productoDTO, producto2);
+        when(productoService.crearProductos(lote)).thenReturn(lote);
+
+        // Act
+        ResponseEntity<JsonApiResponse<ProductoAtributosDTO>> responseEntity = 
+                productoController.crearProductos(lote);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
+        assertEquals(2, responseEntity.getBody().getData().size());
+        assertEquals("2", responseEntity.getBody().getData().get(1).getId());
+        assertNull(responseEntity.getBody().getMeta());
+    }
+
     @Test
     public void testObtenerProductoPorId() {
         // Arrange
@@ -215,4 +243,130 @@ public class ProductoControllerTest {
         
         verify(productoService, times(1)).eliminarProducto(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testObtenerCambios() {
+        // Arrange
+        CambiosProductoDTO cambios = new CambiosProductoDTO("1", 7L, true, List.of(1L, 3L));
+        when(productoService.obtenerCambiosDesde(5L)).thenReturn(cambios);
+
+        // Act
+        ResponseEntity<JsonApiResponse<CambiosProductoDTO>> responseEntity = 
+                productoController.obtenerCambios(5L);
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        
+        JsonApiResponse.Resource<CambiosProductoDTO> resource = responseEntity.getBody().getData().get(0);
+        assertEquals("cambios-productos", resource.getType());
+        assertEquals("7", resource.getId());
+        assertEquals(List.of(1L, 3L), resource.getAttributes().getProductoIds());
+        
+        verify(productoService, times(1)).obtenerCambiosDesde(5L);
+    }
+
+    @Test
+    public void testObtenerProductosPorIds() {
+        // Arrange
+        ProductoDTO producto2 = new ProductoDTO(2L, "Producto 2", 200.0);
+        when(productoService.obtenerProductosPorIds(List.of(2L, 1L))).thenReturn(List.of(producto2, productoDTO));
+
+        // Act
+        ResponseEntity<JsonApiResponse<ProductoAtributosDTO>> responseEntity = 
+                productoController.obtenerProductosPorIds("2, 1,2");
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        
+        JsonApiResponse<ProductoAtributosDTO> response = responseEntity.getBody();
+        assertNull(response.getMeta());
+        assertEquals(2, response.getData().size());
+        assertEquals("2", response.getData().get(0).getId());
+        assertEquals("1", response.getData().get(1).getId());
+        assertEquals("productos", response.getData().get(0).getType());
+    }
+
+    @Test
+    public void testObtenerProductosPorIds_IdInvalido() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productoController.obtenerProductosPorIds("1,abc"));
+        assertThrows(IllegalArgumentException.class, () -> productoController.obtenerProductosPorIds(" , "));
+        verify(productoService, never()).obtenerProductosPorIds(any());
+    }
+
+    @Test
+    public void testListarProductosPorCursor() {
+        // Arrange
+        ProductoDTO producto2 = new ProductoDTO(2L, "Producto 2", 200.0);
+        when(productoService.listarProductosDesde(0L, 2))
+                .thenReturn(new SliceImpl<>(List.of(productoDTO, producto2), PageRequest.of(0, 2), true));
+
+        // Act
+        ResponseEntity<JsonApiCursorResponse<ProductoAtributosDTO>> responseEntity = 
+                productoController.listarProductosPorCursor("0", false, PageRequest.of(3, 2));
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        
+        JsonApiCursorResponse<ProductoAtributosDTO> response = responseEntity.getBody();
+        assertEquals(2, response.getData().size());
+        assertEquals("2", response.getData().get(1).getId());
+        assertEquals("/api/productos?page[after]=2&size=2", response.getLinks().getNext());
+        assertNull(response.getMeta().getTotalElements());
+        assertEquals(2, response.getMeta().getSize());
+        verify(productoService, never()).contarProductos();
+    }
+
+    @Test
+    public void testListarProductosPorCursor_UltimaPaginaConTotal() throws Exception {
+        // Arrange
+        when(productoService.listarProductosDesde(1L, 5))
+                .thenReturn(new SliceImpl<>(List.of(productoDTO), PageRequest.of(0, 5), false));
+        when(productoService.contarProductos()).thenReturn(6L);
+
+        // Act
+        ResponseEntity<JsonApiCursorResponse<ProductoAtributosDTO>> responseEntity = 
+                productoController.listarProductosPorCursor("1", true, PageRequest.of(0, 5));
+
+        // Assert
+        JsonApiCursorResponse<ProductoAtributosDTO> response = responseEntity.getBody();
+        assertNull(response.getLinks().getNext());
+        assertEquals(6L, response.getMeta().getTotalElements());
+        
+        String json = objectMapper.writeValueAsString(response);
+        assertFalse(json.contains("next"));
+        assertTrue(json.contains("\"total_Elementos_en_la_tabla\":6"));
+    }
+
+    @Test
+    public void testListarProductosPorCursor_CursorInvalido() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> productoController.listarProductosPorCursor("abc", false, PageRequest.of(0, 5)));
+        verify(productoService, never()).listarProductosDesde(any(), anyInt());
+    }
+
+    @Test
+    public void testExportarCatalogo() throws Exception {
+        // Act
+        ResponseEntity<StreamingResponseBody> responseEntity = productoController.exportarCatalogo("JsonApi");
+
+        // Assert
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, responseEntity.getHeaders().getContentType());
+        // La consulta no se lanza hasta escribir el cuerpo
+        verify(productoExportador, never()).exportar(any(), any());
+        
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(salida);
+        verify(productoExportador).exportar(salida, ProductoExportador.Formato.JSONAPI);
+    }
+
+    @Test
+    public void testExportarCatalogo_Formatos() {
+        // Act & Assert
+        assertEquals(MediaType.APPLICATION_NDJSON,
+                productoController.exportarCatalogo("ndjson").getHeaders().getContentType());
+        assertThrows(IllegalArgumentException.class, () -> productoController.exportarCatalogo("csv"));
+    }
+}
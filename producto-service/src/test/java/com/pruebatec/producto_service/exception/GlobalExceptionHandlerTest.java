@@ -149,4 +149,22 @@ public class GlobalExceptionHandlerTest {
         assertTrue(toString.contains(titulo));
         assertTrue(toString.contains(detalle));
     }
-}
\ No newline at end of file
+    
+    @Test
+    public void testIllegalArgumentException() {
+        // Arrange
+        IllegalArgumentException exception = new IllegalArgumentException("ID de producto inválido: abc");
+        
+        // Act
+        ResponseEntity<JsonApiResponse<GlobalExceptionHandler.ErrorAttributes>> responseEntity = 
+                exceptionHandler.illegalArgumentException(exception, webRequest);
+        
+        // Assert
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        
+        GlobalExceptionHandler.ErrorAttributes errorAttributes = responseEntity.getBody().getData().get(0).getAttributes();
+        assertEquals(HttpStatus.BAD_REQUEST.toString(), errorAttributes.getCodigo());
+        assertEquals("Parámetros inválidos", errorAttributes.getTitulo());
+        assertEquals("ID de producto inválido: abc", errorAttributes.getDetalle());
+    }
+}
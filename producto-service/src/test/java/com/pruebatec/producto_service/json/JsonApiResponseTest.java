@@ -337,4 +337,24 @@ public class JsonApiResponseTest {
         assertTrue(toString.contains("data"));
         assertTrue(toString.contains("meta"));
     }
+
+    @Test
+    public void testDesdeLista() {
+        // Arrange
+        Producto producto2 = new Producto(2L, "Producto 2", BigDecimal.valueOf(200.0));
+        
+        // Act
+        JsonApiResponse<String> response = JsonApiResponse.desdeLista(
+                List.of(producto, producto2),
+                Producto::getNombre,
+                p -> p.getId().toString(),
+                "productos"
+        );
+        
+        // Assert
+        assertEquals(2, response.getData().size());
+        assertEquals("1", response.getData().get(0).getId());
+        assertEquals("Producto 2", response.getData().get(1).getAttributes());
+        assertNull(response.getMeta());
+    }
 }
@@ -0,0 +1,77 @@
+package com.pruebatec.producto_service.service;
+
+import com.pruebatec.producto_service.dto.CambiosProductoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductoCambiosRegistroTest {
+
+    @Test
+    public void testCambiosDesdeVersionConocida() {
+        // Arrange
+        ProductoCambiosRegistro registro = new ProductoCambiosRegistro(10);
+        registro.registrar(1L);
+        registro.registrar(2L);
+        registro.registrar(1L);
+
+        // Act
+        CambiosProductoDTO cambios = registro.cambiosDesde(1);
+
+        // Assert
+        assertTrue(cambios.isCompleto());
+        assertEquals(3, cambios.getVersion());
+        assertEquals(List.of(2L, 1L), cambios.getProductoIds());
+    }
+
+    @Test
+    public void testSinCambiosNuevos() {
+        // Arrange
+        ProductoCambiosRegistro registro = new ProductoCambiosRegistro(10);
+        registro.registrar(5L);
+
+        // Act
+        CambiosProductoDTO cambios = registro.cambiosDesde(1);
+
+        // Assert
+        assertTrue(cambios.isCompleto());
+        assertEquals(1, cambios.getVersion());
+        assertTrue(cambios.getProductoIds().isEmpty());
+    }
+
+    @Test
+    public void testVersionDescartadaOInicial() {
+        // Arrange
+        ProductoCambiosRegistro registro = new ProductoCambiosRegistro(2);
+        registro.registrar(1L);
+        registro.registrar(2L);
+        registro.registrar(3L);
+
+        // Act
+        CambiosProductoDTO descartada = registro.cambiosDesde(0);
+        CambiosProductoDTO inicial = registro.cambiosDesde(-1);
+        CambiosProductoDTO conservada = registro.cambiosDesde(1);
+
+        // Assert
+        assertFalse(descartada.isCompleto());
+        assertFalse(inicial.isCompleto());
+        assertTrue(conservada.isCompleto());
+        assertEquals(List.of(2L, 3L), conservada.getProductoIds());
+    }
+
+    @Test
+    public void testVersionDeOtraInstancia() {
+        // Arrange
+        ProductoCambiosRegistro registro = new ProductoCambiosRegistro(10);
+        registro.registrar(1L);
+
+        // Act
+        CambiosProductoDTO cambios = registro.cambiosDesde(50);
+
+        // Assert
+        assertFalse(cambios.isCompleto());
+        assertNotNull(cambios.getInstancia());
+    }
+}
@@ -0,0 +1,112 @@
+package com.pruebatec.producto_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductoExportadorTest {
+
+    private ObjectMapper objectMapper;
+    private ProductoExportador exportador;
+
+    @BeforeEach
+    public void setup() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:exportacion" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE productos (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "nombre VARCHAR(255) NOT NULL, precio DECIMAL(10, 2) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO productos (id, nombre, precio) VALUES (2, 'Mouse', 25.50)");
+        jdbcTemplate.update("INSERT INTO productos (id, nombre, precio) VALUES (1, 'Laptop', 1200.00)");
+        jdbcTemplate.update("INSERT INTO productos (id, nombre, precio) VALUES (3, 'Teclado \"mecánico\"', 80.00)");
+
+        objectMapper = new ObjectMapper();
+        // Fetch size menor que el número de filas para recorrer varios lotes
+        exportador = new ProductoExportador(dataSource, objectMapper, 2);
+    }
+
+    @Test
+    public void testExportarNdjson() throws IOException {
+        // Arrange
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // Act
+        long exportados = exportador.exportar(salida, ProductoExportador.Formato.NDJSON);
+
+        // Assert
+        assertEquals(3, exportados);
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lineas.length);
+
+        JsonNode primero = objectMapper.readTree(lineas[0]);
+        assertEquals("productos", primero.get("type").asText());
+        assertEquals("1", primero.get("id").asText());
+        assertEquals("Laptop", primero.get("attributes").get("nombre").asText());
+        assertEquals(1200.0, primero.get("attributes").get("precio").asDouble());
+        assertEquals("Teclado \"mecánico\"", objectMapper.readTree(lineas[2]).get("attributes").get("nombre").asText());
+    }
+
+    @Test
+    public void testExportarJsonApi() throws IOException {
+        // Arrange
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        // Act
+        exportador.exportar(salida, ProductoExportador.Formato.JSONAPI);
+
+        // Assert
+        JsonNode data = objectMapper.readTree(salida.toByteArray()).get("data");
+        assertTrue(data.isArray());
+        assertEquals(3, data.size());
+        assertEquals("2", data.get(1).get("id").asText());
+        assertEquals(25.5, data.get(1).get("attributes").get("precio").asDouble());
+    }
+
+    @Test
+    public void testExportarNoCierraLaSalida() throws IOException {
+        // Arrange
+        boolean[] cerrada = {false};
+        OutputStream salida = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                cerrada[0] = true;
+            }
+        };
+
+        // Act
+        exportador.exportar(salida, ProductoExportador.Formato.NDJSON);
+
+        // Assert
+        assertFalse(cerrada[0]);
+    }
+
+    @Test
+    public void testErrorDeEscrituraSePropaga() {
+        // Arrange
+        OutputStream salida = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Conexión cerrada por el cliente");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Conexión cerrada por el cliente");
+            }
+        };
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> exportador.exportar(salida, ProductoExportador.Formato.NDJSON));
+    }
+}
@@ -6,6 +6,7 @@ import com.pruebatec.producto_service.exception.ProductoConDependenciasException
 import com.pruebatec.producto_service.exception.ResourceNotFoundException;
 import com.pruebatec.producto_service.mapper.ProductoMapper;
 import com.pruebatec.producto_service.repository.ProductoRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,11 +18,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -36,6 +42,12 @@ public class ProductoServiceImplTest {
     @Mock
     private ProductoMapper productoMapper;
 
+    @Mock
+    private ProductoCambiosRegistro cambiosRegistro;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private ProductoServiceImpl productoService;
 
@@ -161,6 +173,7 @@ public class ProductoServiceImplTest {
         verify(productoRepository, times(1)).findById(1L);
         verify(productoRepository, times(1)).delete(producto);
         verify(productoRepository, times(1)).flush();
+        verify(cambiosRegistro, never()).registrarTrasCommit(any());
     }
 
     @Test
@@ -183,6 +196,24 @@ public class ProductoServiceImplTest {
         assertEquals("Producto Test", resultado.getContent().get(0).getNombre());
         verify(productoRepository, times(1)).findAll(pageable);
     }
+
+    @Test
+    public void testListarProductosDesde() {
+        // Arrange
+        Slice<Producto> tramo = new SliceImpl<>(List.of(producto), PageRequest.of(0, 1), true);
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1))).thenReturn(tramo);
+        when(productoMapper.toDTO(producto)).thenReturn(productoDTO);
+
+        // Act
+        Slice<ProductoDTO> resultado = productoService.listarProductosDesde(0L, 1);
+
+        // Assert
+        assertEquals(1, resultado.getNumberOfElements());
+        assertEquals(1L, resultado.getContent().get(0).getId());
+        assertTrue(resultado.hasNext());
+        verify(productoRepository, never()).count();
+        verify(productoRepository, never()).findAll(any(Pageable.class));
+    }
     @Test
     public void testActualizarProducto_Exitoso() {
         // Arrange
@@ -206,6 +237,7 @@ public class ProductoServiceImplTest {
         
         verify(productoRepository, times(1)).findById(1L);
         verify(productoRepository, times(1)).save(any(Producto.class));
+        verify(cambiosRegistro, times(1)).registrarTrasCommit(1L);
     }
 
     @Test
@@ -264,6 +296,7 @@ public class ProductoServiceImplTest {
         verify(productoRepository, times(1)).findById(1L);
         verify(productoRepository, times(1)).delete(producto);
         verify(productoRepository, times(1)).flush();
+        verify(cambiosRegistro, times(1)).registrarTrasCommit(1L);
     }
 
     @Test
@@ -282,4 +315,87 @@ public class ProductoServiceImplTest {
         verify(productoRepository, never()).flush();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testObtenerProductosPorIds() {
+        // Arrange
+        Producto producto3 = new Producto();
+        producto3.setId(3L);
+        producto3.setNombre("Producto 3");
+        producto3.setPrecio(BigDecimal.valueOf(30.0));
+        ProductoDTO producto3DTO = new ProductoDTO(3L, "Producto 3", 30.0);
+
+        List<Long> ids = List.of(3L, 99L, 1L);
+        when(productoRepository.findAllById(ids)).thenReturn(List.of(producto, producto3));
+        when(productoMapper.toDTO(producto)).thenReturn(productoDTO);
+        when(productoMapper.toDTO(producto3)).thenReturn(producto3DTO);
+
+        // Act
+        List<ProductoDTO> resultado = productoService.obtenerProductosPorIds(ids);
+
+        // Assert
+        assertEquals(2, resultado.size());
+        assertEquals(3L, resultado.get(0).getId());
+        assertEquals(1L, resultado.get(1).getId());
+        verify(productoRepository, times(1)).findAllById(ids);
+    }
+
+    @Test
+    public void testObtenerProductosPorIds_DemasiadosIds() {
+        // Arrange
+        List<Long> ids = LongStream.rangeClosed(1, 101).boxed().toList();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productoService.obtenerProductosPorIds(ids));
+        verify(productoRepository, never()).findAllById(any());
+    }
+
+    @Test
+    public void testCrearProductos() {
+        // Arrange
+        ReflectionTestUtils.setField(productoService, "tamanoLoteJdbc", 2);
+        List<ProductoDTO> lote = IntStream.rangeClosed(1, 5)
+                .mapToObj(i -> new ProductoDTO(77L, "Producto " + i, 10.0 * i))
+                .toList();
+        when(productoMapper.toEntity(any(ProductoDTO.class))).thenAnswer(invocacion -> {
+            ProductoDTO dto = invocacion.getArgument(0);
+            return new Producto(dto.getId(), dto.getNombre(), BigDecimal.valueOf(dto.getPrecio()));
+        });
+        when(productoRepository.save(any(Producto.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+        when(productoMapper.toDTO(any(Producto.class))).thenReturn(productoDTO);
+
+        // Act
+        List<ProductoDTO> resultado = productoService.crearProductos(lote);
+
+        // Assert
+        assertEquals(5, resultado.size());
+        // El ID recibido se ignora: siempre son altas
+        verify(productoRepository, times(5)).save(argThat(p -> p.getId() == null));
+        // Un flush + clear por cada lote JDBC completo (2 de 2 productos)
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    public void testCrearProductos_ProductoInvalido() {
+        // Arrange
+        List<ProductoDTO> lote = List.of(productoDTO, new ProductoDTO(null, "Sin precio", null));
+
+        // Act & Assert
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> productoService.crearProductos(lote));
+        assertTrue(ex.getMessage().contains("posición 1"));
+        assertThrows(IllegalArgumentException.class, () -> productoService.crearProductos(List.of()));
+        verify(productoRepository, never()).save(any());
+    }
+
+    @Test
+    public void testCrearProductos_LoteDemasiadoGrande() {
+        // Arrange
+        ReflectionTestUtils.setField(productoService, "maxProductosPorLote", 2);
+        List<ProductoDTO> lote = List.of(productoDTO, productoDTO, productoDTO);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> productoService.crearProductos(lote));
+        verify(productoRepository, never()).save(any());
+    }
+}